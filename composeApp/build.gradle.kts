@@ -35,14 +35,31 @@ kotlin {
 }
 
 
+// Optional SIMD lap kernel (domain.VectorLapKernel) - the engine falls back to scalar code without it.
+// It is the only source that uses the incubating jdk.incubator.vector module, so it lives in src/jvmVector and
+// gets its own compile task: only that task adds the module, and -nowarn there silences javac's unavoidable
+// "using incubating module(s)" warning. The rest of the app compiles without the module.
+val jvmMainCompilation = kotlin.jvm().compilations.getByName("main")
+val compileVectorKernel by tasks.registering(JavaCompile::class) {
+    source("src/jvmVector/java")
+    classpath = files(jvmMainCompilation.output.classesDirs, jvmMainCompilation.compileDependencyFiles)
+    destinationDirectory.set(layout.buildDirectory.dir("classes/java/jvmVector"))
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector", "-nowarn"))
+}
+kotlin.sourceSets.jvmMain.dependencies {
+    runtimeOnly(files(compileVectorKernel))
+}
+
 compose.desktop {
     application {
         mainClass = "com.david.f1_manager.MainKt"
+        jvmArgs += listOf("--add-modules", "jdk.incubator.vector")
 
         nativeDistributions {
             targetFormats(TargetFormat.Dmg, TargetFormat.Msi, TargetFormat.Deb)
             packageName = "com.david.f1_manager"
             packageVersion = "1.0.0"
+            modules("jdk.incubator.vector")
         }
     }
 }
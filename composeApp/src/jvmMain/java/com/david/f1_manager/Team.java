@@ -8,6 +8,8 @@ import java.util.List;
  * Represents an F1 team with drivers and car
  */
 public class Team {
+    public static final int MAX_DRIVERS = 2;
+
     private String id;
     private String name;
     private List<Driver> drivers;
@@ -24,10 +26,10 @@ public class Team {
     }
 
     /**
-     * Add a driver to the team (max 2 drivers)
+     * Add a driver to the team (max MAX_DRIVERS drivers)
      */
     public boolean addDriver(Driver driver) {
-        if (drivers.size() >= 2) {
+        if (drivers.size() >= MAX_DRIVERS) {
             return false;
         }
         drivers.add(driver);
@@ -0,0 +1,35 @@
+package com.david.f1_manager.ai;
+
+/**
+ * What an AI car does on one lap, and what that costs.
+ * Pushing gains time but wears the tires faster; conserving is the opposite.
+ * A pit call is served at the end of the lap.
+ */
+public enum AIAction {
+    STEADY(0.0, 2),
+    PUSH(-0.25, 3),
+    CONSERVE(0.25, 1),
+    PIT(0.0, 2);
+
+    private final double lapTimeDelta;
+    private final int tireWear;
+
+    AIAction(double lapTimeDelta, int tireWear) {
+        this.lapTimeDelta = lapTimeDelta;
+        this.tireWear = tireWear;
+    }
+
+    /**
+     * Seconds gained (negative) or lost on the lap
+     */
+    public double getLapTimeDelta() {
+        return lapTimeDelta;
+    }
+
+    /**
+     * Tire wear for the lap in half laps of age (a normal lap is 2)
+     */
+    public int getTireWear() {
+        return tireWear;
+    }
+}
@@ -0,0 +1,106 @@
+package com.david.f1_manager.ai;
+
+import com.david.f1_manager.car.Tires;
+import com.david.f1_manager.domain.RaceState;
+import com.david.f1_manager.race.PitPlan;
+import com.david.f1_manager.race.TireModel;
+
+import java.util.List;
+
+/**
+ * Lap-by-lap decisions for AI cars: pit, push, conserve or hold a steady pace.
+ *
+ * Each AI car follows its pit plan as a guide and bends it to its team's AIStrategy:
+ * AGGRESSIVE pushes and pits a lap or two early, CONSERVATIVE saves its tires and stretches
+ * its stints, ADAPTIVE looks at the gaps around it to attack, defend, undercut or save.
+ * A decision is a handful of comparisons per car, reads the race arrays in place and never
+ * allocates, so a whole field takes well under a microsecond per lap. The decisions depend only
+ * on the race state, so races with AI cars still replay bit for bit; for the same reason they are
+ * never timed or cut short, since a call that depended on the clock would not replay.
+ */
+public final class AIDecisionEngine {
+
+    // Gaps (seconds) that make an ADAPTIVE car attack or defend, try an undercut, or save its tires
+    private static final double BATTLE_GAP = 1.0;
+    private static final double UNDERCUT_GAP = 2.5;
+    private static final double CLEAR_GAP = 3.0;
+
+    // Laps before a planned stop when an undercut is worth trying
+    private static final int UNDERCUT_WINDOW = 3;
+
+    // Laps a stop is brought forward (AGGRESSIVE) or pushed back (CONSERVATIVE)
+    private static final int PIT_SHIFT = 2;
+
+    private static final Tires.TireCompound[] COMPOUNDS = Tires.TireCompound.values();
+
+    /**
+     * Decide this lap's action for every AI car with a pit plan; other slots get STEADY
+     * The running order in state must be current (RaceState.repairOrder)
+     *
+     * @param lap lap about to be run (1-based)
+     * @param actions receives one action per slot
+     */
+    public void decide(RaceState state, int lap, int totalLaps, AIAction[] actions) {
+        AITeam.AIStrategy[] strategies = state.getAiStrategies();
+        PitPlan[] plans = state.getPitPlans();
+        for (int slot = 0; slot < state.getFieldSize(); slot++) {
+            AITeam.AIStrategy strategy = strategies[slot];
+            PitPlan plan = plans[slot];
+            actions[slot] = strategy == null || plan == null
+                ? AIAction.STEADY
+                : decide(state, slot, strategy, plan, lap, totalLaps);
+        }
+    }
+
+    private AIAction decide(RaceState state, int slot, AITeam.AIStrategy strategy, PitPlan plan,
+                            int lap, int totalLaps) {
+        // Next planned stop, if the plan has any left
+        List<PitPlan.Stint> stints = plan.getStints();
+        int next = state.getNextStints()[slot];
+        int plannedPit = next < stints.size() ? stints.get(next - 1).getLastLap() : -1;
+
+        int age = state.tireAge(slot);
+        int life = TireModel.tireLife(COMPOUNDS[state.getCompounds()[slot]]);
+        boolean lastLap = lap >= totalLaps;
+
+        double gapAhead = gapAhead(state, slot);
+        double gapBehind = gapBehind(state, slot);
+
+        switch (strategy) {
+            case AGGRESSIVE:
+                if (!lastLap && plannedPit >= 0 && lap >= plannedPit - PIT_SHIFT) return AIAction.PIT;
+                return AIAction.PUSH;
+
+            case CONSERVATIVE:
+                // Stretch the stint, but not over the cliff
+                if (!lastLap && plannedPit >= 0 &&
+                    (lap >= plannedPit + PIT_SHIFT || (lap >= plannedPit && age >= life))) {
+                    return AIAction.PIT;
+                }
+                return gapBehind < BATTLE_GAP ? AIAction.PUSH : AIAction.CONSERVE;
+
+            case ADAPTIVE:
+            default:
+                if (!lastLap && plannedPit >= 0) {
+                    // Undercut the car ahead when the stop is due soon anyway
+                    boolean undercut = gapAhead < UNDERCUT_GAP && plannedPit - lap <= UNDERCUT_WINDOW;
+                    if (lap >= plannedPit || undercut) return AIAction.PIT;
+                }
+                if (gapAhead < BATTLE_GAP || gapBehind < BATTLE_GAP) return AIAction.PUSH;
+                if (gapAhead > CLEAR_GAP && gapBehind > CLEAR_GAP) return AIAction.CONSERVE;
+                return AIAction.STEADY;
+        }
+    }
+
+    private static double gapAhead(RaceState state, int slot) {
+        int position = state.getPositions()[slot];
+        if (position == 0) return Double.POSITIVE_INFINITY;
+        return state.totalTime(slot) - state.totalTime(state.getOrder()[position - 1]);
+    }
+
+    private static double gapBehind(RaceState state, int slot) {
+        int position = state.getPositions()[slot];
+        if (position == state.getFieldSize() - 1) return Double.POSITIVE_INFINITY;
+        return state.totalTime(state.getOrder()[position + 1]) - state.totalTime(slot);
+    }
+}
@@ -4,14 +4,15 @@ import com.david.f1_manager.Team;
 
 /**
  * Represents an AI-controlled F1 team with predefined strategy
+ * The strategy decides how its cars race lap by lap (see AIDecisionEngine)
  */
 public class AITeam extends Team {
     private AIStrategy strategy;
 
     public enum AIStrategy {
-        AGGRESSIVE,
-        CONSERVATIVE,   
-        ADAPTIVE
+        AGGRESSIVE,     // Pushes every lap and pits early
+        CONSERVATIVE,   // Saves its tires and stretches stints
+        ADAPTIVE        // Attacks, defends or saves depending on the gaps around it
     }
 
     public AITeam(String id, String name, AIStrategy strategy) {
@@ -0,0 +1,100 @@
+package com.david.f1_manager.car;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One part per slot picked by CarBuildOptimizer, with what it is worth on the target track.
+ * Slots with no part to choose from are left empty (null).
+ */
+public final class CarBuild {
+    private final Engine engine;
+    private final Aerodynamics aerodynamics;
+    private final Tires tires;
+    private final Suspension suspension;
+    private final Gearbox gearbox;
+    private final double raceSeconds;
+    private final double cost;
+    private final long nodesVisited;
+
+    /**
+     * @param raceSeconds race seconds the five slots are worth on the track (see PartValue.carSeconds)
+     * @param cost summed cost of the parts under the optimizer's cost function
+     * @param nodesVisited search nodes the branch and bound expanded
+     */
+    public CarBuild(Engine engine, Aerodynamics aerodynamics, Tires tires, Suspension suspension, Gearbox gearbox,
+                    double raceSeconds, double cost, long nodesVisited) {
+        this.engine = engine;
+        this.aerodynamics = aerodynamics;
+        this.tires = tires;
+        this.suspension = suspension;
+        this.gearbox = gearbox;
+        this.raceSeconds = raceSeconds;
+        this.cost = cost;
+        this.nodesVisited = nodesVisited;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Aerodynamics getAerodynamics() {
+        return aerodynamics;
+    }
+
+    public Tires getTires() {
+        return tires;
+    }
+
+    public Suspension getSuspension() {
+        return suspension;
+    }
+
+    public Gearbox getGearbox() {
+        return gearbox;
+    }
+
+    public double getRaceSeconds() {
+        return raceSeconds;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    /**
+     * Parts in the build, in slot order, skipping empty slots
+     */
+    public List<CarPart> getParts() {
+        List<CarPart> parts = new ArrayList<>();
+        for (CarPart part : new CarPart[]{engine, aerodynamics, tires, suspension, gearbox}) {
+            if (part != null) {
+                parts.add(part);
+            }
+        }
+        return Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * A new car fitted with this build
+     */
+    public Car toCar(String id, String name) {
+        Car car = new Car(id, name);
+        car.setEngine(engine);
+        car.setAerodynamics(aerodynamics);
+        car.setTires(tires);
+        car.setSuspension(suspension);
+        car.setGearbox(gearbox);
+        return car;
+    }
+
+    @Override
+    public String toString() {
+        return "CarBuild {parts=" + getParts() + ", raceSeconds=" + String.format("%.3f", raceSeconds) + ", cost=" + cost + '}';
+    }
+}
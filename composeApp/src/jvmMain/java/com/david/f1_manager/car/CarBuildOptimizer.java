@@ -0,0 +1,305 @@
+package com.david.f1_manager.car;
+
+import com.david.f1_manager.Track;
+import com.david.f1_manager.domain.WeatherCondition;
+import com.david.f1_manager.race.PartValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Picks the Engine / Aerodynamics / Tires / Suspension / Gearbox combination that makes a race on a
+ * track shortest, optionally only from available parts and within a budget.
+ *
+ * A car's race time is a constant minus the sum of what each of its parts is worth (PartValue:
+ * the part's lap-time bonus over the race, and for tires the time their fastest pit plan loses), so
+ * without a budget the slots are independent and the best part per slot wins. With one it is a
+ * multiple-choice knapsack, solved by branch and bound:
+ * - per slot, only parts that are worth more than every cheaper part are kept (a few hundred
+ *   at most, however large the catalog)
+ * - slots are searched most valuable first, parts best first
+ * - a branch is dropped when even the best remaining part of every later slot that still fits
+ *   the budget cannot beat the best build found so far
+ */
+public class CarBuildOptimizer {
+
+    // Slots in search and CarBuild order
+    private static final int ENGINE = 0;
+    private static final int AERODYNAMICS = 1;
+    private static final int TIRES = 2;
+    private static final int SUSPENSION = 3;
+    private static final int GEARBOX = 4;
+    private static final int SLOTS = 5;
+
+    private static final List<Class<? extends CarPart>> SLOT_TYPES =
+        List.of(Engine.class, Aerodynamics.class, Tires.class, Suspension.class, Gearbox.class);
+
+    // Bounds within this of the incumbent are treated as no better
+    private static final double EPSILON = 1e-9;
+
+    private final Track track;
+    private final WeatherCondition weather;
+    private final List<List<CarPart>> partsBySlot = new ArrayList<>();
+
+    public CarBuildOptimizer(Collection<? extends CarPart> parts, Track track) {
+        this(parts, track, WeatherCondition.DRY);
+    }
+
+    public CarBuildOptimizer(Collection<? extends CarPart> parts, Track track, WeatherCondition weather) {
+        this.track = track;
+        this.weather = weather;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            partsBySlot.add(new ArrayList<>());
+        }
+        for (CarPart part : parts) {
+            int slot = slotOf(part);
+            if (slot >= 0) {
+                partsBySlot.get(slot).add(part);
+            }
+        }
+    }
+
+    /**
+     * Best build from every part, with no budget
+     */
+    public CarBuild optimize() {
+        return optimize(part -> true, part -> 0.0, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Best build from the parts that pass available, costing at most budget in total
+     * @return the best build, or null when no combination fits the budget
+     */
+    public CarBuild optimize(Predicate<? super CarPart> available, ToDoubleFunction<? super CarPart> cost, double budget) {
+        // Pareto frontier per slot: cost and value both strictly increasing
+        List<Frontier> frontiers = new ArrayList<>();
+        double emptySlots = 0.0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            Frontier frontier = Frontier.build(slot, partsBySlot.get(slot), available, cost, budget, track, weather);
+            if (frontier != null) {
+                frontiers.add(frontier);
+            } else {
+                emptySlots += PartValue.missingSeconds(SLOT_TYPES.get(slot), track, weather);
+            }
+        }
+        frontiers.sort(Comparator.comparingDouble(Frontier::maxValue).reversed());
+
+        Search search = new Search(frontiers.toArray(new Frontier[0]), budget);
+        if (!search.run()) {
+            return null;
+        }
+
+        CarPart[] picked = new CarPart[SLOTS];
+        double totalCost = 0.0;
+        for (int level = 0; level < search.frontiers.length; level++) {
+            Frontier frontier = search.frontiers[level];
+            int choice = search.bestChoice[level];
+            picked[frontier.slot] = frontier.parts[choice];
+            totalCost += frontier.costs[choice];
+        }
+        return new CarBuild((Engine) picked[ENGINE], (Aerodynamics) picked[AERODYNAMICS], (Tires) picked[TIRES],
+            (Suspension) picked[SUSPENSION], (Gearbox) picked[GEARBOX], search.bestValue + emptySlots, totalCost, search.nodes);
+    }
+
+    private static int slotOf(CarPart part) {
+        if (part instanceof Engine) return ENGINE;
+        if (part instanceof Aerodynamics) return AERODYNAMICS;
+        if (part instanceof Tires) return TIRES;
+        if (part instanceof Suspension) return SUSPENSION;
+        if (part instanceof Gearbox) return GEARBOX;
+        return -1;
+    }
+
+    private static final class Candidate {
+        final CarPart part;
+        final double cost;
+        final double value;
+
+        Candidate(CarPart part, double cost, double value) {
+            this.part = part;
+            this.cost = cost;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Parts of one slot worth more than every cheaper part, cheapest first
+     */
+    private static final class Frontier {
+        final int slot;
+        final CarPart[] parts;
+        final double[] costs;
+        final double[] values;
+
+        private Frontier(int slot, CarPart[] parts, double[] costs, double[] values) {
+            this.slot = slot;
+            this.parts = parts;
+            this.costs = costs;
+            this.values = values;
+        }
+
+        static Frontier build(int slot, List<CarPart> candidates, Predicate<? super CarPart> available,
+                              ToDoubleFunction<? super CarPart> cost, double budget,
+                              Track track, WeatherCondition weather) {
+            List<Candidate> fitting = new ArrayList<>();
+            for (CarPart part : candidates) {
+                double partCost = cost.applyAsDouble(part);
+                if (available.test(part) && partCost <= budget) {
+                    fitting.add(new Candidate(part, partCost, PartValue.seconds(part, track, weather)));
+                }
+            }
+            if (fitting.isEmpty()) {
+                return null;
+            }
+
+            // Cheapest first; equal cost: most valuable first; then by id so the result never depends on catalog order
+            fitting.sort(Comparator.<Candidate>comparingDouble(c -> c.cost)
+                .thenComparing(Comparator.<Candidate>comparingDouble(c -> c.value).reversed())
+                .thenComparing(c -> String.valueOf(c.part.getId())));
+
+            List<Candidate> kept = new ArrayList<>();
+            for (Candidate candidate : fitting) {
+                if (kept.isEmpty() || candidate.value > kept.get(kept.size() - 1).value) {
+                    kept.add(candidate);
+                }
+            }
+
+            CarPart[] keptParts = new CarPart[kept.size()];
+            double[] costs = new double[kept.size()];
+            double[] values = new double[kept.size()];
+            for (int k = 0; k < kept.size(); k++) {
+                keptParts[k] = kept.get(k).part;
+                costs[k] = kept.get(k).cost;
+                values[k] = kept.get(k).value;
+            }
+            return new Frontier(slot, keptParts, costs, values);
+        }
+
+        double maxValue() {
+            return values[values.length - 1];
+        }
+
+        double minCost() {
+            return costs[0];
+        }
+
+        /**
+         * Most valuable part costing at most limit, or -infinity if none does
+         */
+        double bestValueWithin(double limit) {
+            int low = 0;
+            int high = costs.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (costs[mid] <= limit) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found < 0 ? Double.NEGATIVE_INFINITY : values[found];
+        }
+    }
+
+    /**
+     * Depth-first branch and bound over the slots, one frontier part per level
+     */
+    private static final class Search {
+        final Frontier[] frontiers;
+        final double budget;
+
+        // Cheapest possible cost and best possible value of levels i.. (budget ignored)
+        final double[] minCostFrom;
+        final double[] maxValueFrom;
+
+        final int[] choice;
+        final int[] bestChoice;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        long nodes;
+
+        Search(Frontier[] frontiers, double budget) {
+            this.frontiers = frontiers;
+            this.budget = budget;
+            int levels = frontiers.length;
+            this.minCostFrom = new double[levels + 1];
+            this.maxValueFrom = new double[levels + 1];
+            for (int level = levels - 1; level >= 0; level--) {
+                minCostFrom[level] = minCostFrom[level + 1] + frontiers[level].minCost();
+                maxValueFrom[level] = maxValueFrom[level + 1] + frontiers[level].maxValue();
+            }
+            this.choice = new int[levels];
+            this.bestChoice = new int[levels];
+        }
+
+        /**
+         * @return false when no combination fits the budget
+         */
+        boolean run() {
+            if (minCostFrom[0] > budget) {
+                return false;
+            }
+            if (frontiers.length == 0) {
+                bestValue = 0.0;
+                return true;
+            }
+            search(0, 0.0, 0.0);
+            return true;
+        }
+
+        private void search(int level, double cost, double value) {
+            nodes++;
+            if (level == frontiers.length) {
+                if (value > bestValue) {
+                    bestValue = value;
+                    System.arraycopy(choice, 0, bestChoice, 0, choice.length);
+                }
+                return;
+            }
+
+            Frontier frontier = frontiers[level];
+            for (int k = frontier.parts.length - 1; k >= 0; k--) {
+                double withPart = value + frontier.values[k];
+
+                // Parts only get worse from here on, so nothing later in this slot can win either
+                if (withPart + maxValueFrom[level + 1] <= bestValue + EPSILON) {
+                    return;
+                }
+
+                double spent = cost + frontier.costs[k];
+                double remaining = budget - spent;
+                if (remaining < minCostFrom[level + 1]) {
+                    continue;  // Too dear to finish the car; a cheaper part may fit
+                }
+                if (withPart + upperBound(level + 1, remaining) <= bestValue + EPSILON) {
+                    continue;
+                }
+
+                choice[level] = k;
+                search(level + 1, spent, withPart);
+            }
+        }
+
+        /**
+         * Most value levels from.. could add with the remaining budget: each slot's best part that still
+         * leaves enough for the cheapest part of every other remaining slot
+         */
+        private double upperBound(int from, double remaining) {
+            if (remaining == Double.POSITIVE_INFINITY) {
+                return maxValueFrom[from];
+            }
+            double bound = 0.0;
+            for (int level = from; level < frontiers.length; level++) {
+                Frontier frontier = frontiers[level];
+                double others = minCostFrom[from] - frontier.minCost();
+                bound += frontier.bestValueWithin(remaining - others);
+            }
+            return bound;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.david.f1_manager.race;
+
+/**
+ * Lap-time cost of the fuel a car carries, in seconds.
+ * Every kilogram on board costs TIME_PER_KG per lap, and the car burns a fixed amount per lap,
+ * so the penalty falls linearly lap by lap. A car that starts with less than the race needs
+ * burns less per lap (lift and coast) and loses LIFT_AND_COAST_PER_KG for every kilogram it is short.
+ * Both parts are linear in the lap number, so the time over any number of laps has a closed form.
+ */
+public final class FuelModel {
+
+    // Fuel burned per lap at full race pace, in kg
+    public static final double BURN_PER_LAP = 1.3;
+
+    // Lap time lost per kg carried, in seconds
+    public static final double TIME_PER_KG = 0.03;
+
+    // Race time lost per kg the car is short of the fuel it needs, in seconds
+    public static final double LIFT_AND_COAST_PER_KG = 2.0;
+
+    // Most fuel a car can start with (RaceStrategy clamps to this)
+    public static final double MAX_FUEL_LOAD = 100.0;
+
+    // Least fuel the setup screen lets a car start with (its slider and the strategy sweep start here)
+    public static final double MIN_FUEL_LOAD = 50.0;
+
+    private FuelModel() {
+    }
+
+    /**
+     * Fuel needed to run a whole race at full pace (capped at MAX_FUEL_LOAD)
+     */
+    public static double requiredFuel(int raceLaps) {
+        return Math.min(MAX_FUEL_LOAD, raceLaps * BURN_PER_LAP);
+    }
+
+    /**
+     * Fuel burned per lap: full pace, or less when the car has to save fuel
+     */
+    public static double burnPerLap(double initialFuelLoad, int raceLaps) {
+        return Math.min(BURN_PER_LAP, initialFuelLoad / raceLaps);
+    }
+
+    /**
+     * Time lost on one lap (1-based) with the given starting load
+     */
+    public static double lapTimeDelta(double initialFuelLoad, int raceLaps, int lap) {
+        double onBoard = initialFuelLoad - burnPerLap(initialFuelLoad, raceLaps) * (lap - 1);
+        return TIME_PER_KG * onBoard + liftAndCoastPerLap(initialFuelLoad, raceLaps);
+    }
+
+    /**
+     * Time lost over the first laps laps, in closed form:
+     * TIME_PER_KG * (laps * load - burn * laps * (laps - 1) / 2) + laps * liftAndCoastPerLap
+     */
+    public static double cumulativeTime(double initialFuelLoad, int raceLaps, int laps) {
+        double burn = burnPerLap(initialFuelLoad, raceLaps);
+        return TIME_PER_KG * (laps * initialFuelLoad - burn * laps * (laps - 1) / 2.0) +
+            laps * liftAndCoastPerLap(initialFuelLoad, raceLaps);
+    }
+
+    /**
+     * Time lost over a whole race, in closed form
+     */
+    public static double raceTime(double initialFuelLoad, int raceLaps) {
+        return cumulativeTime(initialFuelLoad, raceLaps, raceLaps);
+    }
+
+    /**
+     * Starting load with the least race time among the loads the setup screen offers
+     * Each kg short costs LIFT_AND_COAST_PER_KG, more than carrying it for the whole race, so filling
+     * exactly what the race needs is best; races that need less than MIN_FUEL_LOAD start with that
+     */
+    public static double optimalFuelLoad(int raceLaps) {
+        return Math.max(MIN_FUEL_LOAD, requiredFuel(raceLaps));
+    }
+
+    // Fuel saving spread evenly over the race; only fuel the car could have carried counts as short
+    private static double liftAndCoastPerLap(double initialFuelLoad, int raceLaps) {
+        double shortfall = Math.max(0.0, requiredFuel(raceLaps) - initialFuelLoad);
+        return LIFT_AND_COAST_PER_KG * shortfall / raceLaps;
+    }
+}
@@ -0,0 +1,130 @@
+package com.david.f1_manager.race;
+
+import com.david.f1_manager.Track;
+import com.david.f1_manager.car.Aerodynamics;
+import com.david.f1_manager.car.Car;
+import com.david.f1_manager.car.CarPart;
+import com.david.f1_manager.car.Engine;
+import com.david.f1_manager.car.Gearbox;
+import com.david.f1_manager.car.Suspension;
+import com.david.f1_manager.car.Tires;
+import com.david.f1_manager.domain.RaceConstants;
+import com.david.f1_manager.domain.RaceEngine;
+import com.david.f1_manager.domain.RaceEntry;
+import com.david.f1_manager.domain.WeatherCondition;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seconds of race time each part of a car is worth on a track, the one race-time model shared by
+ * CarBuildOptimizer and UpgradeSensitivity.
+ *
+ * On a green-flag lap RaceEngine runs a car at weatherFactor * (baseLapTime + tire delta + fuel delta),
+ * with baseLapTime = 90 * (1 - RaceEntry.totalBonus). The bonus is a sum over the slots - each part's
+ * share of calculateOverallPerformance() times the car bonus (plus the BALANCED track bonus), and the
+ * SPEED engine or TECHNICAL aero bonus, where a missing engine or aero counts as 50 - and the tire and
+ * fuel deltas only depend on the tire rating through the fastest pit plan. So a car's race time is
+ *   laps * 90 * weatherFactor * (1 - driver bonus) - the sum of its slots' values
+ * and the difference between two parts' values is exactly the race time one saves over the other.
+ * Tires are worth their bonus minus the time their fastest pit plan loses (stops are not scaled by weather).
+ */
+public final class PartValue {
+
+    // Rating RaceEntry assumes for a missing engine or aero, and the pit planner for missing tires
+    private static final int MISSING_RATING = 50;
+
+    // Fastest dry pit plan per race length and tire rating: running loss, then stop time
+    private static final ConcurrentHashMap<Long, double[]> PLAN_TIMES = new ConcurrentHashMap<>();
+
+    private PartValue() {
+    }
+
+    public static double weatherFactor(WeatherCondition weather) {
+        return 1.0 + (1.0 - RaceEngine.getGripMultiplier(weather));
+    }
+
+    /**
+     * Lap-time bonus per performance point of a part on tracks with the given characteristics
+     */
+    public static double bonusPerPoint(CarPart part, Track.TrackCharacteristics characteristics) {
+        double carShare = RaceConstants.MAX_CAR_BONUS;
+        if (characteristics == Track.TrackCharacteristics.BALANCED) {
+            carShare += RaceConstants.MAX_TRACK_BONUS_BALANCED;
+        }
+        double weight = part.getPartTypeMultiplier() * carShare / 100.0;
+
+        if (isSpecialized(part.getClass(), characteristics)) {
+            weight += RaceConstants.MAX_TRACK_BONUS_SPECIALIZED / 100.0;
+        }
+        return weight;
+    }
+
+    /**
+     * Race seconds the part is worth on the track
+     */
+    public static double seconds(CarPart part, Track track, WeatherCondition weather) {
+        return seconds(part, part.getPerformance(), track, weather);
+    }
+
+    /**
+     * Race seconds the part would be worth at the given rating (clamped to 1-100 like CarPart)
+     */
+    public static double seconds(CarPart part, int rating, Track track, WeatherCondition weather) {
+        rating = Math.max(1, Math.min(100, rating));
+        double factor = weatherFactor(weather);
+        double value = track.getLaps() * RaceConstants.BASE_LAP_TIME_SECONDS * factor *
+            bonusPerPoint(part, track.getCharacteristics()) * rating;
+        if (part instanceof Tires) {
+            value -= tirePlanSeconds(track.getLaps(), rating, weather);
+        }
+        return value;
+    }
+
+    /**
+     * Race seconds an empty slot of the given kind is worth (a missing engine or aero still earns
+     * the SPEED or TECHNICAL bonus at rating 50; missing tires wear like rating 50)
+     */
+    public static double missingSeconds(Class<? extends CarPart> slot, Track track, WeatherCondition weather) {
+        double value = 0.0;
+        if (isSpecialized(slot, track.getCharacteristics())) {
+            value += track.getLaps() * RaceConstants.BASE_LAP_TIME_SECONDS * weatherFactor(weather) *
+                RaceConstants.MAX_TRACK_BONUS_SPECIALIZED / 100.0 * MISSING_RATING;
+        }
+        if (slot == Tires.class) {
+            value -= tirePlanSeconds(track.getLaps(), RaceEntry.DEFAULT_TIRE_PERFORMANCE, weather);
+        }
+        return value;
+    }
+
+    /**
+     * Race seconds of every slot of the car, empty ones included
+     */
+    public static double carSeconds(Car car, Track track, WeatherCondition weather) {
+        return slotSeconds(car.getEngine(), Engine.class, track, weather) +
+            slotSeconds(car.getAerodynamics(), Aerodynamics.class, track, weather) +
+            slotSeconds(car.getTires(), Tires.class, track, weather) +
+            slotSeconds(car.getSuspension(), Suspension.class, track, weather) +
+            slotSeconds(car.getGearbox(), Gearbox.class, track, weather);
+    }
+
+    /**
+     * Race seconds the fastest pit plan for tires of this rating loses to wear, fuel and stops
+     */
+    public static double tirePlanSeconds(int laps, int tireRating, WeatherCondition weather) {
+        double[] plan = PLAN_TIMES.computeIfAbsent((long) laps << 8 | tireRating, key -> {
+            PitPlan fastest = new PitStrategyOptimizer(laps, tireRating, RaceConstants.PIT_STOP_TIME, 0.0).optimize();
+            double stops = fastest.getPitStopCount() * RaceConstants.PIT_STOP_TIME;
+            return new double[]{fastest.getTimeLoss() - stops, stops};
+        });
+        return plan[0] * weatherFactor(weather) + plan[1];
+    }
+
+    private static double slotSeconds(CarPart part, Class<? extends CarPart> slot, Track track, WeatherCondition weather) {
+        return part != null ? seconds(part, track, weather) : missingSeconds(slot, track, weather);
+    }
+
+    private static boolean isSpecialized(Class<?> slot, Track.TrackCharacteristics characteristics) {
+        return (characteristics == Track.TrackCharacteristics.SPEED && Engine.class.isAssignableFrom(slot)) ||
+            (characteristics == Track.TrackCharacteristics.TECHNICAL && Aerodynamics.class.isAssignableFrom(slot));
+    }
+}
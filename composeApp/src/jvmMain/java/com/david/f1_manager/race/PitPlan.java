@@ -0,0 +1,136 @@
+package com.david.f1_manager.race;
+
+import com.david.f1_manager.car.Tires;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A race split into stints: which compound runs which laps, and so where the car pits,
+ * plus the fuel the car starts with.
+ * Immutable, so one plan can be shared by a race, its forks and its replays.
+ */
+public final class PitPlan {
+
+    /**
+     * Laps firstLap..lastLap (1-based, inclusive) on one fresh set of tires
+     */
+    public static final class Stint {
+        private final Tires.TireCompound compound;
+        private final int firstLap;
+        private final int lastLap;
+
+        public Stint(Tires.TireCompound compound, int firstLap, int lastLap) {
+            if (firstLap < 1 || lastLap < firstLap) {
+                throw new IllegalArgumentException("Invalid stint laps: " + firstLap + "-" + lastLap);
+            }
+            this.compound = compound;
+            this.firstLap = firstLap;
+            this.lastLap = lastLap;
+        }
+
+        public Tires.TireCompound getCompound() {
+            return compound;
+        }
+
+        public int getFirstLap() {
+            return firstLap;
+        }
+
+        public int getLastLap() {
+            return lastLap;
+        }
+
+        public int getLaps() {
+            return lastLap - firstLap + 1;
+        }
+
+        @Override
+        public String toString() {
+            return compound + " (" + firstLap + "-" + lastLap + ")";
+        }
+    }
+
+    private final List<Stint> stints;
+    private final double initialFuelLoad;
+    private final double timeLoss;
+
+    /**
+     * Plan that starts with exactly the fuel the race needs
+     */
+    public PitPlan(List<Stint> stints, double timeLoss) {
+        this(stints, FuelModel.requiredFuel(lastLap(stints)), timeLoss);
+    }
+
+    /**
+     * @param stints back-to-back stints starting at lap 1
+     * @param initialFuelLoad fuel on board at the start, in kg (see FuelModel)
+     * @param timeLoss seconds lost to tires, fuel and pit stops over the race,
+     *   vs fresh MEDIUMs, no fuel and no stops
+     */
+    public PitPlan(List<Stint> stints, double initialFuelLoad, double timeLoss) {
+        if (stints.isEmpty() || stints.get(0).getFirstLap() != 1) {
+            throw new IllegalArgumentException("A plan must start with a stint at lap 1");
+        }
+        for (int i = 1; i < stints.size(); i++) {
+            if (stints.get(i).getFirstLap() != stints.get(i - 1).getLastLap() + 1) {
+                throw new IllegalArgumentException("Stints must be back to back: " + stints);
+            }
+        }
+        this.stints = Collections.unmodifiableList(new ArrayList<>(stints));
+        this.initialFuelLoad = Math.max(0, Math.min(FuelModel.MAX_FUEL_LOAD, initialFuelLoad));
+        this.timeLoss = timeLoss;
+    }
+
+    private static int lastLap(List<Stint> stints) {
+        return stints.isEmpty() ? 1 : stints.get(stints.size() - 1).getLastLap();
+    }
+
+    public List<Stint> getStints() {
+        return stints;
+    }
+
+    public int getPitStopCount() {
+        return stints.size() - 1;
+    }
+
+    public Tires.TireCompound getStartingCompound() {
+        return stints.get(0).getCompound();
+    }
+
+    public int getRaceLaps() {
+        return stints.get(stints.size() - 1).getLastLap();
+    }
+
+    public double getInitialFuelLoad() {
+        return initialFuelLoad;
+    }
+
+    public double getTimeLoss() {
+        return timeLoss;
+    }
+
+    /**
+     * Laps at the end of which the car pits, in order
+     */
+    public int[] getPitLaps() {
+        int[] laps = new int[getPitStopCount()];
+        for (int i = 0; i < laps.length; i++) {
+            laps[i] = stints.get(i).getLastLap();
+        }
+        return laps;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Stint stint : stints) {
+            if (text.length() > 0) {
+                text.append(" -> ");
+            }
+            text.append(stint);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package com.david.f1_manager.race;
+
+import com.david.f1_manager.Driver;
+import com.david.f1_manager.Track;
+import com.david.f1_manager.car.Car;
+import com.david.f1_manager.car.Tires;
+import com.david.f1_manager.domain.RaceConstants;
+import com.david.f1_manager.domain.RaceEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the fastest pit plan for a race with dynamic programming over laps x compound x stops.
+ *
+ * best[stops][lap][compound] is the least time lost over laps 1..lap with that many stops,
+ * when the last stint runs on that compound and ends exactly at lap. Each entry extends the
+ * best plan with one stop fewer by one more stint, whose cost is an O(1) lookup in the
+ * TireDegradationTable, so a 70-lap race with all three compounds and up to 3 stops takes
+ * about 45 thousand steps - well under a millisecond.
+ * Fuel does not change where the car pits (there is no refuelling), so its cost is added
+ * in closed form (see FuelModel) rather than searched.
+ */
+public class PitStrategyOptimizer {
+
+    public static final int MAX_STOPS = 3;
+
+    private static final Tires.TireCompound[] COMPOUNDS = Tires.TireCompound.values();
+
+    private final int laps;
+    private final TireDegradationTable tires;
+    private final double pitLoss;
+    private final double baseLapTime;
+
+    public PitStrategyOptimizer(Track track, Car car, Driver driver) {
+        this(track.getLaps(),
+             car != null && car.getTires() != null ? car.getTires().getPerformance() : RaceEntry.DEFAULT_TIRE_PERFORMANCE,
+             RaceConstants.PIT_STOP_TIME,
+             RaceConstants.BASE_LAP_TIME_SECONDS * (1.0 - RaceEntry.totalBonus(driver, car, track)));
+    }
+
+    /**
+     * @param tirePerformance Tires part performance, 1-100
+     * @param pitLoss seconds lost per pit stop
+     * @param baseLapTime dry lap time on fresh MEDIUMs, only used for estimatedRaceTime()
+     */
+    public PitStrategyOptimizer(int laps, int tirePerformance, double pitLoss, double baseLapTime) {
+        if (laps < 1) {
+            throw new IllegalArgumentException("laps must be positive, got: " + laps);
+        }
+        this.laps = laps;
+        this.tires = TireDegradationTable.forPerformance(tirePerformance);
+        this.pitLoss = pitLoss;
+        this.baseLapTime = baseLapTime;
+    }
+
+    /**
+     * Fastest plan with any number of stops (up to MAX_STOPS), any starting compound and the best fuel load
+     */
+    public PitPlan optimize() {
+        return solve(MAX_STOPS, null, false, FuelModel.optimalFuelLoad(laps));
+    }
+
+    /**
+     * Fastest plan with exactly the given number of stops and the best fuel load
+     * @param startingCompound compound for the first stint, or null for any
+     */
+    public PitPlan optimize(int stops, Tires.TireCompound startingCompound) {
+        return optimize(stops, startingCompound, FuelModel.optimalFuelLoad(laps));
+    }
+
+    /**
+     * Fastest plan with exactly the given number of stops, starting with the given fuel load
+     */
+    public PitPlan optimize(int stops, Tires.TireCompound startingCompound, double initialFuelLoad) {
+        return solve(stops, startingCompound, true, initialFuelLoad);
+    }
+
+    /**
+     * Fastest plan for the strategy's pit stop count, starting compound and fuel load
+     */
+    public PitPlan optimize(RaceStrategy strategy) {
+        return optimize(strategy.getPitStopCount(), strategy.getStartingTireCompound(), strategy.getInitialFuelLoad());
+    }
+
+    /**
+     * Race time for a plan: dry laps on fresh MEDIUMs plus the plan's tire, fuel and pit losses
+     */
+    public double estimatedRaceTime(PitPlan plan) {
+        return laps * baseLapTime + plan.getTimeLoss();
+    }
+
+    private PitPlan solve(int maxStops, Tires.TireCompound startingCompound, boolean exactStops, double fuel) {
+        // Every stint needs at least one lap
+        int stops = Math.max(0, Math.min(maxStops, laps - 1));
+        int compounds = COMPOUNDS.length;
+        int size = (stops + 1) * (laps + 1) * compounds;
+
+        double[] best = new double[size];
+        int[] previousLap = new int[size];       // Lap the previous stint ended on
+        int[] previousCompound = new int[size];  // Compound of the previous stint
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+
+        // No stops: one stint from lap 1
+        for (int c = 0; c < compounds; c++) {
+            if (startingCompound != null && startingCompound.ordinal() != c) continue;
+
+            for (int lap = 1; lap <= laps; lap++) {
+                best[index(0, lap, c)] = tires.stintTime(c, lap);
+            }
+        }
+
+        // Best plan with one stop fewer ending at each lap, over any compound
+        double[] previousBest = new double[laps + 1];
+        int[] previousArg = new int[laps + 1];
+
+        for (int k = 1; k <= stops; k++) {
+            for (int lap = 0; lap <= laps; lap++) {
+                previousBest[lap] = Double.POSITIVE_INFINITY;
+                for (int c = 0; c < compounds; c++) {
+                    double value = best[index(k - 1, lap, c)];
+                    if (value < previousBest[lap]) {
+                        previousBest[lap] = value;
+                        previousArg[lap] = c;
+                    }
+                }
+            }
+
+            for (int lap = k + 1; lap <= laps; lap++) {
+                for (int c = 0; c < compounds; c++) {
+                    int at = index(k, lap, c);
+
+                    // Try every lap to pit on before this stint
+                    for (int pit = lap - 1; pit >= k; pit--) {
+                        double candidate = previousBest[pit] + pitLoss + tires.stintTime(c, lap - pit);
+                        if (candidate < best[at]) {
+                            best[at] = candidate;
+                            previousLap[at] = pit;
+                            previousCompound[at] = previousArg[pit];
+                        }
+                    }
+                }
+            }
+        }
+
+        // Pick the finish: exactly the requested stops, or the best of any count
+        int bestStops = -1;
+        int bestCompound = -1;
+        double bestTime = Double.POSITIVE_INFINITY;
+        for (int k = exactStops ? stops : 0; k <= stops; k++) {
+            for (int c = 0; c < compounds; c++) {
+                double value = best[index(k, laps, c)];
+                if (value < bestTime) {
+                    bestTime = value;
+                    bestStops = k;
+                    bestCompound = c;
+                }
+            }
+        }
+
+        // Walk the stints back from the finish
+        List<PitPlan.Stint> stints = new ArrayList<>();
+        int lap = laps;
+        int c = bestCompound;
+        for (int k = bestStops; k >= 0; k--) {
+            int at = index(k, lap, c);
+            int firstLap = k == 0 ? 1 : previousLap[at] + 1;
+            stints.add(new PitPlan.Stint(COMPOUNDS[c], firstLap, lap));
+            if (k > 0) {
+                lap = previousLap[at];
+                c = previousCompound[at];
+            }
+        }
+        Collections.reverse(stints);
+        double fuelLoad = Math.max(0, Math.min(FuelModel.MAX_FUEL_LOAD, fuel));
+        return new PitPlan(stints, fuelLoad, bestTime + FuelModel.raceTime(fuelLoad, laps));
+    }
+
+    private int index(int stops, int lap, int compound) {
+        return (stops * (laps + 1) + lap) * COMPOUNDS.length + compound;
+    }
+}
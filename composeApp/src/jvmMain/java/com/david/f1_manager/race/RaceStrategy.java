@@ -4,13 +4,15 @@ import com.david.f1_manager.car.*;
 
 /**
  * Represents the race strategy for a team.
- * NOT currently implemented in the LiveRaceSimulator.
+ * The race runs its pit plan: the given one, or the fastest plan for pitStopCount stops
+ * starting on startingTireCompound with initialFuelLoad on board (see PitStrategyOptimizer).
  */
 public class RaceStrategy {
     private String id;
     private int pitStopCount;
     private Tires.TireCompound startingTireCompound;
     private double initialFuelLoad; // 0-100 kg
+    private PitPlan pitPlan; // null = let the optimizer plan the stints
 
     public RaceStrategy(String id, int pitStopCount, Tires.TireCompound startingTireCompound, double initialFuelLoad) {
         this.id = id;
@@ -52,6 +54,14 @@ public class RaceStrategy {
         this.initialFuelLoad = Math.max(0, Math.min(100, initialFuelLoad));
     }
 
+    public PitPlan getPitPlan() {
+        return pitPlan;
+    }
+
+    public void setPitPlan(PitPlan pitPlan) {
+        this.pitPlan = pitPlan;
+    }
+
     @Override
     public String toString() {
         return "RaceStrategy {pitStops=" + pitStopCount + ", startingTires=" + startingTireCompound + ", fuelLoad=" + initialFuelLoad + "kg}";
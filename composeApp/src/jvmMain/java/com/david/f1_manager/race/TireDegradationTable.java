@@ -0,0 +1,102 @@
+package com.david.f1_manager.race;
+
+import com.david.f1_manager.car.Tires;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TireModel curves for one Tires performance level, precomputed into flat primitive arrays.
+ * Holds the lap-time delta for every compound and stint age, plus prefix sums over them,
+ * so the time lost over any stint is one subtraction instead of a lap-by-lap sum.
+ * Tables are built once per performance level on first use and shared by every race and search.
+ */
+public final class TireDegradationTable {
+
+    /**
+     * Stint ages covered by the tables; older tires fall back to TireModel
+     */
+    public static final int MAX_STINT_LAPS = 128;
+
+    private static final int COMPOUNDS = Tires.TireCompound.values().length;
+
+    // One table per performance level 1-100, built lazily
+    private static final AtomicReferenceArray<TireDegradationTable> TABLES = new AtomicReferenceArray<>(101);
+
+    private final int tirePerformance;
+
+    // deltas[compound * MAX_STINT_LAPS + age] = time lost on a lap at that age
+    private final double[] deltas;
+
+    // prefix[compound * (MAX_STINT_LAPS + 1) + n] = time lost over the first n laps of a stint
+    private final double[] prefix;
+
+    private TireDegradationTable(int tirePerformance) {
+        this.tirePerformance = tirePerformance;
+        this.deltas = new double[COMPOUNDS * MAX_STINT_LAPS];
+        this.prefix = new double[COMPOUNDS * (MAX_STINT_LAPS + 1)];
+
+        for (Tires.TireCompound compound : Tires.TireCompound.values()) {
+            int c = compound.ordinal();
+            double total = 0.0;
+            for (int age = 0; age < MAX_STINT_LAPS; age++) {
+                double delta = TireModel.lapTimeDelta(compound, age, tirePerformance);
+                deltas[c * MAX_STINT_LAPS + age] = delta;
+                total += delta;
+                prefix[c * (MAX_STINT_LAPS + 1) + age + 1] = total;
+            }
+        }
+    }
+
+    /**
+     * Shared table for a Tires performance level (clamped to 1-100 like CarPart)
+     */
+    public static TireDegradationTable forPerformance(int tirePerformance) {
+        int level = Math.max(1, Math.min(100, tirePerformance));
+        TireDegradationTable table = TABLES.get(level);
+        if (table == null) {
+            // Two threads may both build it; the tables are identical, so keep whichever lands first
+            TABLES.compareAndSet(level, null, new TireDegradationTable(level));
+            table = TABLES.get(level);
+        }
+        return table;
+    }
+
+    public int getTirePerformance() {
+        return tirePerformance;
+    }
+
+    /**
+     * Time lost on one lap of a set that has already run stintLap laps
+     */
+    public double lapTimeDelta(int compound, int stintLap) {
+        if (stintLap < MAX_STINT_LAPS) {
+            return deltas[compound * MAX_STINT_LAPS + stintLap];
+        }
+        return TireModel.lapTimeDelta(Tires.TireCompound.values()[compound], stintLap, tirePerformance);
+    }
+
+    /**
+     * Time lost over a stint of the given number of laps on a fresh set, in O(1)
+     */
+    public double stintTime(int compound, int laps) {
+        if (laps <= MAX_STINT_LAPS) {
+            return prefix[compound * (MAX_STINT_LAPS + 1) + laps];
+        }
+        double total = prefix[compound * (MAX_STINT_LAPS + 1) + MAX_STINT_LAPS];
+        for (int age = MAX_STINT_LAPS; age < laps; age++) {
+            total += lapTimeDelta(compound, age);
+        }
+        return total;
+    }
+
+    /**
+     * Time lost over laps fromLap..toLap-1 of a stint (0 = first lap on the set), in O(1)
+     */
+    public double stintTime(int compound, int fromLap, int toLap) {
+        return stintTime(compound, toLap) - stintTime(compound, fromLap);
+    }
+
+    public double stintTime(Tires.TireCompound compound, int laps) {
+        return stintTime(compound.ordinal(), laps);
+    }
+}
@@ -0,0 +1,57 @@
+package com.david.f1_manager.race;
+
+import com.david.f1_manager.car.Tires;
+
+/**
+ * Lap-time cost of running a tire compound, in seconds relative to a fresh MEDIUM tire.
+ * A fresh compound has a fixed pace offset, loses time linearly as it wears, and falls
+ * off a cliff once it is run past its life. Better Tires parts (higher performance) wear slower.
+ * This defines the curves; races and searches read them from TireDegradationTable.
+ */
+public final class TireModel {
+
+    // Indexed by TireCompound ordinal: SOFT, MEDIUM, HARD
+    private static final double[] FRESH_OFFSET = {-0.30, 0.0, 0.20};  // s/lap vs fresh MEDIUM
+    private static final double[] WEAR_PER_LAP = {0.060, 0.025, 0.012};  // s/lap lost per lap of age
+    private static final int[] TIRE_LIFE = {12, 22, 35};  // Laps before the cliff
+
+    // Extra time per lap for every lap run past the tire's life
+    private static final double CLIFF_PER_LAP = 0.25;
+
+    private TireModel() {
+    }
+
+    /**
+     * Time lost (negative = gained) on one lap
+     * @param stintLap laps already run on this set (0 = fresh tires)
+     * @param tirePerformance Tires part performance, 1-100
+     */
+    public static double lapTimeDelta(Tires.TireCompound compound, int stintLap, int tirePerformance) {
+        int c = compound.ordinal();
+        double wearScale = 1.5 - tirePerformance / 100.0;  // 0.5x at 100, 1.5x at 0
+        double delta = FRESH_OFFSET[c] + WEAR_PER_LAP[c] * wearScale * stintLap;
+        if (stintLap > TIRE_LIFE[c]) {
+            delta += CLIFF_PER_LAP * (stintLap - TIRE_LIFE[c]);
+        }
+        return delta;
+    }
+
+    /**
+     * Laps a set can run before it falls off the cliff
+     */
+    public static int tireLife(Tires.TireCompound compound) {
+        return TIRE_LIFE[compound.ordinal()];
+    }
+
+    /**
+     * Total time lost over a stint of the given number of laps on a fresh set, summed lap by lap
+     * (TireDegradationTable.stintTime gives the same in O(1))
+     */
+    public static double stintTime(Tires.TireCompound compound, int laps, int tirePerformance) {
+        double total = 0.0;
+        for (int lap = 0; lap < laps; lap++) {
+            total += lapTimeDelta(compound, lap, tirePerformance);
+        }
+        return total;
+    }
+}
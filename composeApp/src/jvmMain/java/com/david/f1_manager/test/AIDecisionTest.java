@@ -0,0 +1,223 @@
+package com.david.f1_manager.test;
+
+import com.david.f1_manager.Driver;
+import com.david.f1_manager.Team;
+import com.david.f1_manager.Track;
+import com.david.f1_manager.ai.AIAction;
+import com.david.f1_manager.ai.AIDecisionEngine;
+import com.david.f1_manager.ai.AITeam;
+import com.david.f1_manager.car.*;
+import com.david.f1_manager.domain.PitPlanner;
+import com.david.f1_manager.domain.RaceEngine;
+import com.david.f1_manager.domain.RaceEntry;
+import com.david.f1_manager.domain.RaceState;
+import com.david.f1_manager.domain.RaceVariance;
+import com.david.f1_manager.domain.LapKernel;
+import com.david.f1_manager.domain.WeatherCondition;
+import com.david.f1_manager.race.PitPlan;
+import kotlin.Pair;
+
+import static com.david.f1_manager.test.TestFixtures.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simple test class for the AI decision engine
+ * Tests each AIStrategy's calls, their speed and that races with AI cars still replay exactly
+ */
+public class AIDecisionTest {
+
+    // Most a whole field's decisions may take per lap
+    private static final long MAX_NANOS_PER_LAP = 20_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        System.out.println("=== AI Decision Test Suite ===\n");
+
+        testStrategiesDecideDifferently();
+        testAdaptiveReactsToGaps();
+        testDecisionSpeedAndNoAllocation();
+        testAIRaceReplays();
+
+        printSummary();
+    }
+
+    private static void testStrategiesDecideDifferently() {
+        System.out.print("Test: Strategies Decide Differently Before a Planned Stop... ");
+        try {
+            // Three cars 10 seconds apart, all planned to pit at the end of lap 20
+            RaceState state = buildState(AITeam.AIStrategy.AGGRESSIVE, AITeam.AIStrategy.CONSERVATIVE,
+                AITeam.AIStrategy.ADAPTIVE);
+            setGaps(state, 10.0);
+            AIAction[] actions = new AIAction[3];
+            AIDecisionEngine ai = new AIDecisionEngine();
+
+            ai.decide(state, 18, 40, actions);
+            AIAction[] early = actions.clone();
+            ai.decide(state, 20, 40, actions);
+            AIAction[] planned = actions.clone();
+            ai.decide(state, 22, 40, actions);
+            AIAction[] late = actions.clone();
+
+            if (early[0] == AIAction.PIT && early[1] == AIAction.CONSERVE && early[2] == AIAction.CONSERVE &&
+                planned[1] == AIAction.CONSERVE && planned[2] == AIAction.PIT &&
+                late[1] == AIAction.PIT) {
+                pass();
+            } else {
+                fail("Early " + Arrays.toString(early) + ", planned " + Arrays.toString(planned) +
+                    ", late " + Arrays.toString(late));
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testAdaptiveReactsToGaps() {
+        System.out.print("Test: Adaptive Reacts to Gaps... ");
+        try {
+            RaceState state = buildState(AITeam.AIStrategy.ADAPTIVE, AITeam.AIStrategy.ADAPTIVE,
+                AITeam.AIStrategy.ADAPTIVE);
+            AIAction[] actions = new AIAction[3];
+            AIDecisionEngine ai = new AIDecisionEngine();
+
+            // Close battle mid-stint: everyone pushes
+            setGaps(state, 0.5);
+            ai.decide(state, 5, 40, actions);
+            boolean battle = actions[0] == AIAction.PUSH && actions[1] == AIAction.PUSH && actions[2] == AIAction.PUSH;
+
+            // Spread out: everyone saves tires
+            setGaps(state, 5.0);
+            ai.decide(state, 5, 40, actions);
+            boolean clear = actions[0] == AIAction.CONSERVE && actions[2] == AIAction.CONSERVE;
+
+            // Within undercut range of the car ahead two laps before the stop: pit now
+            setGaps(state, 2.0);
+            ai.decide(state, 18, 40, actions);
+            boolean undercut = actions[1] == AIAction.PIT && actions[0] != AIAction.PIT;
+
+            if (battle && clear && undercut) {
+                pass();
+            } else {
+                fail("Battle " + battle + ", clear " + clear + ", undercut " + undercut);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testDecisionSpeedAndNoAllocation() {
+        System.out.print("Test: Decision Speed and No Allocation (20 AI cars)... ");
+        try {
+            AITeam.AIStrategy[] strategies = new AITeam.AIStrategy[20];
+            for (int i = 0; i < strategies.length; i++) {
+                strategies[i] = AITeam.AIStrategy.values()[i % 3];
+            }
+            RaceState state = buildState(strategies);
+            setGaps(state, 1.7);
+            AIAction[] actions = new AIAction[strategies.length];
+            AIDecisionEngine ai = new AIDecisionEngine();
+
+            for (int i = 0; i < 100_000; i++) {
+                ai.decide(state, 1 + i % 40, 40, actions); // Warm-up
+            }
+
+            // Best of three rounds, so JIT activity in the measuring loop itself is not counted
+            long averageNanos = Long.MAX_VALUE;
+            long allocated = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                long allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+                for (int i = 0; i < 10_000; i++) {
+                    ai.decide(state, 1 + i % 40, 40, actions);
+                }
+                averageNanos = Math.min(averageNanos, (System.nanoTime() - start) / 10_000);
+                allocated = Math.min(allocated, allocatedBytes() - allocatedBefore);
+            }
+
+            if (averageNanos < MAX_NANOS_PER_LAP && allocated == 0) {
+                pass();
+            } else {
+                fail(averageNanos + " ns per lap, " + allocated + " bytes allocated");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testAIRaceReplays() {
+        System.out.print("Test: Race With AI Cars Replays Exactly... ");
+        try {
+            Track track = new Track("A1", "Spa", 44);
+            List<Pair<Driver, Team>> field = new ArrayList<>();
+            List<Pair<Driver, Team>> noAI = new ArrayList<>();
+            AITeam.AIStrategy[] strategies = AITeam.AIStrategy.values();
+            for (int i = 0; i < 9; i++) {
+                Driver driver = new Driver("D" + i, "Driver " + i, 88 - i);
+                field.add(new Pair<>(driver, buildAITeam("AI " + i, strategies[i % 3], 80 + i)));
+                noAI.add(new Pair<>(driver, buildTeam("AI " + i, 80 + i)));
+            }
+            List<PitPlan> plans = PitPlanner.planField(field, track, null, null);
+
+            RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY, 19L,
+                RaceVariance.MONTE_CARLO, true, null, LapKernel.getBest(), plans);
+            engine.run();
+            RaceEngine again = engine.replay().run(field, track);
+
+            // The same cars and plans without AI teams race differently, so the AI calls were made
+            RaceEngine plain = new RaceEngine(noAI, track, WeatherCondition.DRY, 19L,
+                RaceVariance.MONTE_CARLO, true, null, LapKernel.getBest(), plans);
+            plain.run();
+
+            boolean identical = true;
+            boolean decided = false;
+            for (int slot = 0; slot < field.size(); slot++) {
+                identical &= totalTimeOf(engine, slot) == totalTimeOf(again, slot);
+                decided |= totalTimeOf(engine, slot) != totalTimeOf(plain, slot);
+            }
+            if (identical && decided) {
+                pass();
+            } else {
+                fail("Replay identical=" + identical + ", AI changed the race=" + decided);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Race state for AI cars on 80 s laps, each planned MEDIUM 1-20 then HARD 21-40
+     */
+    private static RaceState buildState(AITeam.AIStrategy... strategies) {
+        List<RaceEntry> entries = new ArrayList<>();
+        List<PitPlan> plans = new ArrayList<>();
+        PitPlan plan = new PitPlan(Arrays.asList(
+            new PitPlan.Stint(Tires.TireCompound.MEDIUM, 1, 20),
+            new PitPlan.Stint(Tires.TireCompound.HARD, 21, 40)
+        ), 0.0);
+        for (int i = 0; i < strategies.length; i++) {
+            entries.add(new RaceEntry("Driver " + i, "Team " + i, 80.0,
+                new double[]{27.0, 27.0, 26.0}, 50, strategies[i]));
+            plans.add(plan);
+        }
+        return new RaceState(entries, plans);
+    }
+
+    /**
+     * Space the cars out in grid order with the given gap between each
+     */
+    private static void setGaps(RaceState state, double gap) {
+        for (int slot = 0; slot < state.getFieldSize(); slot++) {
+            state.getCumulativeTimes()[slot] = 1000.0 + slot * gap;
+        }
+        state.repairOrder(null);
+    }
+}
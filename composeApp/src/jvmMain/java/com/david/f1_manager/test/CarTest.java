@@ -1,11 +1,29 @@
 package com.david.f1_manager.test;
 
+import com.david.f1_manager.Driver;
 import com.david.f1_manager.Performable;
+import com.david.f1_manager.Team;
+import com.david.f1_manager.Track;
 import com.david.f1_manager.car.*;
+import com.david.f1_manager.domain.PitPlanner;
+import com.david.f1_manager.domain.RaceEngine;
+import com.david.f1_manager.domain.RaceVariance;
+import com.david.f1_manager.domain.LapKernel;
+import com.david.f1_manager.domain.UpgradeGains;
+import com.david.f1_manager.domain.UpgradeSensitivity;
+import com.david.f1_manager.domain.WeatherCondition;
+import com.david.f1_manager.race.PartValue;
+import kotlin.Pair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * Simple test class for Car
- * Tests polymorphism, interface implementation, and performance calculation
+ * Tests polymorphism, interface implementation, performance calculation, the build optimizer and upgrade gains
  */
 public class CarTest {
 
@@ -19,6 +37,10 @@ public class CarTest {
         testPerformanceCalculationWithNullParts();
         testPolymorphicBehavior();
         testPerformableInterface();
+        testBuildValueMatchesRaceTime();
+        testBuildOptimizerMatchesBruteForce();
+        testBuildOptimizerLargeCatalog();
+        testUpgradeGainsMatchRace();
 
         System.out.println("\n=== Test Summary ===");
         System.out.println("Passed: " + passedTests);
@@ -141,6 +163,220 @@ public class CarTest {
         }
     }
 
+    private static void testBuildValueMatchesRaceTime() {
+        System.out.print("Test: Build Value Matches Race Time... ");
+        try {
+            List<CarPart> catalog = buildCatalog(new Random(1), 20);
+
+            // Race time + what the car's parts are worth is the same for every car, empty slots included
+            boolean matches = true;
+            for (Track.TrackCharacteristics characteristics : Track.TrackCharacteristics.values()) {
+                Track track = new Track("T", "Track", 30);
+                track.setCharacteristics(characteristics);
+                CarBuildOptimizer optimizer = new CarBuildOptimizer(catalog, track);
+                CarBuild best = optimizer.optimize();
+                CarBuild cheap = optimizer.optimize(part -> true, CarPart::getPerformance, 150);
+
+                Car partial = best.toCar("C", "Partial");
+                partial.setEngine(null);
+                partial.setAerodynamics(null);
+                partial.setTires(null);
+
+                double expected = soloRaceTime(best.toCar("C", "Best"), 80, track, WeatherCondition.DRY) + best.getRaceSeconds();
+                for (Car car : new Car[]{cheap.toCar("C", "Cheap"), partial}) {
+                    double total = soloRaceTime(car, 80, track, WeatherCondition.DRY) +
+                        PartValue.carSeconds(car, track, WeatherCondition.DRY);
+                    matches &= Math.abs(total - expected) < 1e-6;
+                }
+                matches &= best.getParts().size() == 5 &&
+                    Math.abs(best.getRaceSeconds() - PartValue.carSeconds(best.toCar("C", "Best"), track, WeatherCondition.DRY)) < 1e-9;
+            }
+
+            if (matches) {
+                pass();
+            } else {
+                fail("Build values differ from race time differences");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testBuildOptimizerMatchesBruteForce() {
+        System.out.print("Test: Build Optimizer Matches Brute Force (budgets and availability)... ");
+        try {
+            Random random = new Random(7);
+            boolean matches = true;
+            for (int round = 0; round < 30; round++) {
+                List<CarPart> catalog = buildCatalog(random, 6);
+                Map<CarPart, Double> prices = new HashMap<>();
+                for (CarPart part : catalog) {
+                    prices.put(part, (double) (10 + random.nextInt(90)));
+                }
+                double budget = 150 + random.nextInt(300);
+                Track track = new Track("T", "Track", 20 + round);
+                track.setCharacteristics(Track.TrackCharacteristics.values()[round % 3]);
+
+                CarBuild build = new CarBuildOptimizer(catalog, track)
+                    .optimize(part -> !part.getId().endsWith("0"), prices::get, budget);
+                double best = bruteForce(catalog, track, prices, budget);
+
+                if (best == Double.NEGATIVE_INFINITY) {
+                    matches &= build == null;
+                } else {
+                    matches &= build != null && Math.abs(build.getRaceSeconds() - best) < 1e-9 && build.getCost() <= budget;
+                    for (CarPart part : build.getParts()) {
+                        matches &= !part.getId().endsWith("0");
+                    }
+                }
+            }
+
+            if (matches) {
+                pass();
+            } else {
+                fail("Branch and bound missed the best build");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testBuildOptimizerLargeCatalog() {
+        System.out.print("Test: Build Optimizer With 50000 Parts... ");
+        try {
+            List<CarPart> catalog = buildCatalog(new Random(3), 10_000);
+            Track track = new Track("T", "Monza", 50);
+            track.setCharacteristics(Track.TrackCharacteristics.SPEED);
+            CarBuildOptimizer optimizer = new CarBuildOptimizer(catalog, track);
+
+            // Budget on summed ratings, so the search has to trade engine against the rest
+            CarBuild build = null;
+            long start = System.nanoTime();
+            for (int i = 0; i < 5; i++) {
+                build = optimizer.optimize(part -> true, CarPart::getPerformance, 300);
+            }
+            double millis = (System.nanoTime() - start) / 5 / 1_000_000.0;
+
+            boolean pruned = build != null && build.getCost() <= 300 && build.getNodesVisited() < 100_000;
+            boolean engineFirst = build != null && build.getEngine().getPerformance() == 100;
+            if (pruned && engineFirst && millis < 500) {
+                pass();
+            } else {
+                fail("Build " + build + " took " + millis + " ms");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static double bruteForce(List<CarPart> catalog, Track track,
+                                     Map<CarPart, Double> prices, double budget) {
+        List<List<CarPart>> slots = new ArrayList<>();
+        for (Class<?> type : new Class<?>[]{Engine.class, Aerodynamics.class, Tires.class, Suspension.class, Gearbox.class}) {
+            List<CarPart> parts = new ArrayList<>();
+            for (CarPart part : catalog) {
+                if (type.isInstance(part) && !part.getId().endsWith("0")) {
+                    parts.add(part);
+                }
+            }
+            slots.add(parts);
+        }
+        return bruteForce(slots, 0, track, prices, budget, 0.0);
+    }
+
+    private static double bruteForce(List<List<CarPart>> slots, int slot, Track track,
+                                     Map<CarPart, Double> prices, double budget, double value) {
+        if (budget < 0) return Double.NEGATIVE_INFINITY;
+        if (slot == slots.size()) return value;
+
+        double best = Double.NEGATIVE_INFINITY;
+        for (CarPart part : slots.get(slot)) {
+            double partValue = PartValue.seconds(part, track, WeatherCondition.DRY);
+            best = Math.max(best, bruteForce(slots, slot + 1, track, prices,
+                budget - prices.get(part), value + partValue));
+        }
+        return best;
+    }
+
+    private static void testUpgradeGainsMatchRace() {
+        System.out.print("Test: Upgrade Gains Match Race Time Differences... ");
+        try {
+            boolean matches = true;
+            for (Track.TrackCharacteristics characteristics : Track.TrackCharacteristics.values()) {
+                for (WeatherCondition weather : new WeatherCondition[]{WeatherCondition.DRY, WeatherCondition.HEAVY_RAIN}) {
+                    Track track = new Track("U", "Upgrade Track", 40);
+                    track.setCharacteristics(characteristics);
+                    int[] ratings = {70, 64, 58, 81, 99};
+                    UpgradeGains gains = UpgradeSensitivity.forTrack(sensitivityCar(ratings, -1), track, weather);
+                    double base = soloRaceTime(sensitivityCar(ratings, -1), 80, track, weather);
+
+                    Double[] expected = {gains.getEngine(), gains.getAerodynamics(), gains.getTires(),
+                        gains.getSuspension(), gains.getGearbox()};
+                    for (int slot = 0; slot < ratings.length; slot++) {
+                        double saved = base - soloRaceTime(sensitivityCar(ratings, slot), 80, track, weather);
+                        matches &= Math.abs(saved - expected[slot]) < 1e-6;
+                    }
+                    double skillSaved = base - soloRaceTime(sensitivityCar(ratings, -1), 81, track, weather);
+                    matches &= Math.abs(skillSaved - gains.getDriverSkill()) < 1e-6;
+                }
+            }
+
+            // A missing part has nothing to upgrade; a maxed one gains nothing
+            Car partial = new Car("C", "Partial");
+            partial.setEngine(new Engine("E", "Engine", 100));
+            UpgradeGains partialGains = UpgradeSensitivity.forTrack(partial, new Track("U", "Upgrade Track", 40));
+            boolean edges = partialGains.getEngine() == 0.0 && partialGains.getTires() == null &&
+                partialGains.getAerodynamics() == null;
+
+            if (matches && edges) {
+                pass();
+            } else {
+                fail("Gains: match race=" + matches + ", missing/maxed parts=" + edges);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Car with the given engine/aero/tires/suspension/gearbox ratings, one point higher in slot upgraded
+     */
+    private static Car sensitivityCar(int[] ratings, int upgraded) {
+        int[] r = ratings.clone();
+        if (upgraded >= 0) {
+            r[upgraded]++;
+        }
+        Car car = new Car("C", "Sensitivity Car");
+        car.setEngine(new Engine("E", "Engine", r[0]));
+        car.setAerodynamics(new Aerodynamics("A", "Aero", r[1]));
+        car.setTires(new Tires("T", "Tires", r[2], Tires.TireCompound.MEDIUM));
+        car.setSuspension(new Suspension("S", "Suspension", r[3]));
+        car.setGearbox(new Gearbox("G", "Gearbox", r[4]));
+        return car;
+    }
+
+    private static double soloRaceTime(Car car, int skill, Track track, WeatherCondition weather) {
+        Team team = new Team("team_solo", "Solo");
+        team.setCar(car);
+        List<Pair<Driver, Team>> field = new ArrayList<>();
+        field.add(new Pair<>(new Driver("D", "Solo", skill), team));
+        RaceEngine engine = new RaceEngine(field, track, weather, 1L, RaceVariance.NONE, false, null,
+            LapKernel.getScalar(), PitPlanner.planField(field, track, null, null));
+        return engine.run().getStandings().get(0).getTotalTime();
+    }
+
+    private static List<CarPart> buildCatalog(Random random, int perSlot) {
+        List<CarPart> catalog = new ArrayList<>();
+        for (int i = 0; i < perSlot; i++) {
+            catalog.add(new Engine("E" + i, "Engine " + i, 1 + random.nextInt(100)));
+            catalog.add(new Aerodynamics("A" + i, "Aero " + i, 1 + random.nextInt(100)));
+            catalog.add(new Tires("T" + i, "Tires " + i, 1 + random.nextInt(100), Tires.TireCompound.MEDIUM));
+            catalog.add(new Suspension("S" + i, "Suspension " + i, 1 + random.nextInt(100)));
+            catalog.add(new Gearbox("G" + i, "Gearbox " + i, 1 + random.nextInt(100)));
+        }
+        return catalog;
+    }
+
     private static void pass() {
         System.out.println("PASSED");
         passedTests++;
@@ -0,0 +1,112 @@
+package com.david.f1_manager.test;
+
+import com.david.f1_manager.Driver;
+import com.david.f1_manager.Team;
+import com.david.f1_manager.Track;
+import com.david.f1_manager.domain.LapKernel;
+import com.david.f1_manager.domain.RaceEngine;
+import com.david.f1_manager.domain.RaceVariance;
+import com.david.f1_manager.domain.WeatherCondition;
+import kotlin.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static com.david.f1_manager.test.TestFixtures.buildTeam;
+
+/**
+ * Benchmark of the scalar lap kernel against the Vector API one
+ * Run with --add-modules jdk.incubator.vector; without it only the scalar kernel is measured.
+ * Times the kernel loops alone on a race-sized and a very large field, then whole batch races
+ * (the Monte Carlo path), and prints the speedup. Timings depend on the machine, so nothing is asserted.
+ */
+public class LapKernelBench {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        System.out.println("=== Lap Kernel Benchmark ===\n");
+
+        LapKernel scalar = LapKernel.getScalar();
+        LapKernel vector = LapKernel.loadVectorKernel();
+        if (vector == null) {
+            System.out.println("Vector API not available (run with --add-modules jdk.incubator.vector)");
+        }
+
+        for (int cars : new int[]{22, 1003}) {
+            int laps = 20_000_000 / cars;
+            double scalarNanos = bestNanosPerLap(scalar, cars, laps);
+            System.out.print(cars + " cars, kernel only: scalar " + format(scalarNanos) + " ns/lap");
+            if (vector != null) {
+                double vectorNanos = bestNanosPerLap(vector, cars, laps);
+                System.out.print(", " + vector.getName() + " " + format(vectorNanos) + " ns/lap, " +
+                    format(scalarNanos / vectorNanos) + "x");
+            }
+            System.out.println();
+        }
+
+        List<Pair<Driver, Team>> field = new ArrayList<>();
+        for (int i = 0; i < 22; i++) {
+            field.add(new Pair<>(new Driver("B" + i, "Bench Driver " + i, 70 + i), buildTeam("Bench " + i, 60 + i)));
+        }
+        Track track = new Track("B1", "Barcelona", 70);
+        double scalarMicros = bestMicrosPerRace(scalar, field, track);
+        System.out.print("22 cars, 70-lap batch races: scalar " + format(scalarMicros) + " us/race");
+        if (vector != null) {
+            double vectorMicros = bestMicrosPerRace(vector, field, track);
+            System.out.print(", " + vector.getName() + " " + format(vectorMicros) + " us/race, " +
+                format(scalarMicros / vectorMicros) + "x");
+        }
+        System.out.println();
+    }
+
+    /**
+     * Race times of [cars] cars after [laps] laps through the kernel (lap-time product and lap total)
+     * on seeded random inputs, the same for every kernel
+     */
+    static double[] runLaps(LapKernel kernel, int cars, int laps) {
+        SplittableRandom random = new SplittableRandom(5L);
+        double[] baseLapTimes = new double[cars];
+        for (int i = 0; i < cars; i++) baseLapTimes[i] = 70.0 + random.nextDouble() * 20.0;
+
+        double[] lapTimes = new double[cars];
+        double[] totals = new double[cars];
+        for (int lap = 0; lap < laps; lap++) {
+            double weatherFactor = lap % 7 == 0 ? 1.2 : 1.0;
+            double safetyCarMultiplier = lap % 11 == 0 ? 1.5 : 1.0;
+            kernel.lapTimes(baseLapTimes, weatherFactor, safetyCarMultiplier, lapTimes, cars);
+            kernel.addLap(totals, lapTimes, cars);
+        }
+        return totals;
+    }
+
+    private static double bestNanosPerLap(LapKernel kernel, int cars, int laps) {
+        runLaps(kernel, cars, laps); // Warm-up
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            runLaps(kernel, cars, laps);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / laps;
+    }
+
+    private static double bestMicrosPerRace(LapKernel kernel, List<Pair<Driver, Team>> field, Track track) {
+        int races = 2_000;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < races; i++) {
+                new RaceEngine(field, track, WeatherCondition.DRY, i, RaceVariance.MONTE_CARLO, false, null, kernel).run();
+            }
+            // Round 0 is the warm-up
+            if (round > 0) best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000.0 / races;
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
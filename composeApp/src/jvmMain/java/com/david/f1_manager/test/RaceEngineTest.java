@@ -0,0 +1,875 @@
+package com.david.f1_manager.test;
+
+import com.david.f1_manager.Driver;
+import com.david.f1_manager.Team;
+import com.david.f1_manager.Track;
+import com.david.f1_manager.car.*;
+import com.david.f1_manager.domain.MonteCarloRaceEngine;
+import com.david.f1_manager.domain.MonteCarloResult;
+import com.david.f1_manager.domain.OvertakeDetector;
+import com.david.f1_manager.domain.RaceEngine;
+import com.david.f1_manager.domain.RaceEntry;
+import com.david.f1_manager.domain.RaceEventJournal;
+import com.david.f1_manager.domain.RaceCommand;
+import com.david.f1_manager.domain.RaceEventLog;
+import com.david.f1_manager.domain.RaceVariance;
+import com.david.f1_manager.domain.RaceOutcome;
+import com.david.f1_manager.domain.RaceReplay;
+import com.david.f1_manager.domain.RaceResultCache;
+import com.david.f1_manager.domain.RaceScheduler;
+import com.david.f1_manager.domain.RaceStanding;
+import com.david.f1_manager.domain.RaceState;
+import com.david.f1_manager.domain.LapKernel;
+import com.david.f1_manager.domain.SectorModel;
+import com.david.f1_manager.domain.WeatherCondition;
+import com.david.f1_manager.domain.WhatIfAnalyzer;
+import com.david.f1_manager.domain.WhatIfResult;
+import com.david.f1_manager.domain.WhatIfScenario;
+import com.david.f1_manager.domain.WinProbabilityEstimate;
+import com.david.f1_manager.domain.WinProbabilityTicker;
+import kotlin.Pair;
+import kotlin.Unit;
+
+import static com.david.f1_manager.test.TestFixtures.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple test class for the headless RaceEngine
+ * Tests full-race execution, standings order, lap time calculation and the race result cache
+ */
+public class RaceEngineTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Race Engine Test Suite ===\n");
+
+        testHeadlessRaceRunsAllLaps();
+        testFasterDriverWins();
+        testLapTimeFormula();
+        testCompiledEntryBalancedTrack();
+        testDuplicateDriverNames();
+        testMultiCarOvertake();
+        testEventRingAndJournal();
+        testHeadlessRaceSpeed();
+        testMonteCarloProbabilities();
+        testMonteCarloSameSeedSameResult();
+        testReplayIsBitIdentical();
+        testSchedulerRunsManyRaces();
+        testSchedulerReleasesOnErrorAndClose();
+        testSectorSplit();
+        testSectorKernelSpeed();
+        testVectorKernelBitIdentical();
+        testCommandQueueManyProducers();
+        testForkIsIndependentCopy();
+        testWhatIfPitNow();
+        testWinProbabilityTicker();
+        testRaceResultCache();
+
+        printSummary();
+    }
+
+    private static void testHeadlessRaceRunsAllLaps() {
+        System.out.print("Test: Headless Race Runs All Laps... ");
+        try {
+            Track track = new Track("T1", "Monza", 53);
+            RaceEngine engine = new RaceEngine(buildField(), track, WeatherCondition.DRY, 1L);
+            RaceOutcome outcome = engine.run();
+
+            if (engine.getCurrentLap() == 53 && engine.isFinished() &&
+                outcome.getStandings().size() == 4 && !outcome.getEvents().isEmpty()) {
+                pass();
+            } else {
+                fail("Expected 53 laps and 4 standings, got lap " + engine.getCurrentLap() +
+                    " and " + outcome.getStandings().size() + " standings");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testFasterDriverWins() {
+        System.out.print("Test: Faster Driver Wins... ");
+        try {
+            Track track = new Track("T2", "Silverstone", 52);
+            RaceOutcome outcome = new RaceEngine(buildField(), track, WeatherCondition.DRY, 1L).run();
+            List<RaceStanding> standings = outcome.getStandings();
+
+            // Field is built from fastest to slowest driver with identical cars
+            if (standings.get(0).getDriverName().equals("Driver 1") &&
+                standings.get(3).getDriverName().equals("Driver 4")) {
+                pass();
+            } else {
+                fail("Unexpected winner: " + standings.get(0).getDriverName());
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testLapTimeFormula() {
+        System.out.print("Test: Lap Time Formula (SPEED track, 1 lap)... ");
+        try {
+            Track track = new Track("T3", "Monza", 1);
+            track.setCharacteristics(Track.TrackCharacteristics.SPEED);
+
+            List<Pair<Driver, Team>> field = new ArrayList<>();
+            field.add(new Pair<>(new Driver("D1", "Solo", 80), buildTeam("S", 100)));
+
+            RaceOutcome outcome = new RaceEngine(field, track, WeatherCondition.DRY, 1L).run();
+
+            // Expected: 90 * (1 - (0.08 + 0.05 + 0.05)) = 73.8
+            double expected = 73.8;
+            double actual = outcome.getStandings().get(0).getTotalTime();
+
+            // Laps run in sectors, but every race time is still the plain sum of whole lap times, to the bit
+            Track wet = new Track("T3b", "Spa", 20);
+            List<Pair<Driver, Team>> wetField = buildField();
+            RaceOutcome wetOutcome = new RaceEngine(wetField, wet, WeatherCondition.LIGHT_RAIN, 1L).run();
+            double weatherFactor = 1.0 + (1.0 - RaceEngine.getGripMultiplier(WeatherCondition.LIGHT_RAIN));
+            boolean exact = true;
+            for (RaceStanding standing : wetOutcome.getStandings()) {
+                double baseLapTime = RaceEntry.compile(wetField.get(standing.getGridSlot()).getFirst(),
+                    wetField.get(standing.getGridSlot()).getSecond(), wet).getBaseLapTime();
+                double sum = 0.0;
+                for (int lap = 0; lap < wet.getLaps(); lap++) {
+                    sum += baseLapTime * weatherFactor * 1.0;
+                }
+                exact &= standing.getTotalTime() == sum;
+            }
+
+            if (Math.abs(actual - expected) < 0.0001 && exact) {
+                pass();
+            } else {
+                fail("Expected lap time: " + expected + ", got: " + actual + ", exact lap sums " + exact);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testCompiledEntryBalancedTrack() {
+        System.out.print("Test: Compiled Race Entry (BALANCED track)... ");
+        try {
+            Track track = new Track("T7", "Silverstone", 52);
+            Team team = buildTeam("B", 80);
+            Driver driver = new Driver("D1", "Balanced", 90);
+
+            RaceEntry entry = RaceEntry.compile(driver, team, track);
+
+            // Expected: 90 * (1 - (0.09 + 0.8 * 0.05 + 0.8 * 0.03)) = 75.06
+            double expected = 90.0 * (1.0 - (0.09 + 0.04 + 0.024));
+
+            if (Math.abs(entry.getBaseLapTime() - expected) < 0.0001 &&
+                entry.getDriverName().equals("Balanced") && entry.getTeamName().equals("B")) {
+                pass();
+            } else {
+                fail("Expected base lap time: " + expected + ", got: " + entry.getBaseLapTime());
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testDuplicateDriverNames() {
+        System.out.print("Test: Duplicate Driver Names Tracked By Grid Slot... ");
+        try {
+            Track track = new Track("T8", "Imola", 10);
+            Team team = buildTeam("Twins", 90);
+
+            List<Pair<Driver, Team>> field = new ArrayList<>();
+            field.add(new Pair<>(new Driver("D1", "Same Name", 90), team));
+            field.add(new Pair<>(new Driver("D2", "Same Name", 90), team));
+
+            RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY, 1L);
+            engine.start();
+            engine.addCrash(List.of(1));
+            List<RaceStanding> standings = engine.run().getStandings();
+
+            // Only the second car crashed, so it must be last and 20s behind
+            double gap = standings.get(1).getGapToLeader();
+            if (standings.get(0).getGridSlot() == 0 && standings.get(1).getGridSlot() == 1 &&
+                Math.abs(gap - 20.0) < 0.0001) {
+                pass();
+            } else {
+                fail("Crash applied to wrong car, gap = " + gap);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testMultiCarOvertake() {
+        System.out.print("Test: Multi-Car Overtake Pairs... ");
+        try {
+            List<RaceEntry> entries = new ArrayList<>();
+            entries.add(new RaceEntry("A", "Team", 80.0));
+            entries.add(new RaceEntry("B", "Team", 80.0));
+            entries.add(new RaceEntry("C", "Team", 80.0));
+            RaceState state = new RaceState(entries);
+            OvertakeDetector overtakes = new OvertakeDetector(3);
+
+            // Lap 1: grid order A, B, C
+            state.getCumulativeTimes()[0] = 80.0;
+            state.getCumulativeTimes()[1] = 81.0;
+            state.getCumulativeTimes()[2] = 82.0;
+            state.repairOrder(overtakes);
+
+            // Lap 2: C jumps from third to first, passing both A and B
+            state.getCumulativeTimes()[2] = 79.0;
+            state.repairOrder(overtakes);
+
+            if (overtakes.getCount() == 2 &&
+                overtakes.overtaker(0) == 2 && overtakes.overtaken(0) == 1 &&
+                overtakes.overtaker(1) == 2 && overtakes.overtaken(1) == 0 &&
+                state.getOrder()[0] == 2 && state.getPositions()[0] == 1) {
+                pass();
+            } else {
+                fail("Expected C to pass B and A, got " + overtakes.getCount() + " overtakes");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testEventRingAndJournal() {
+        System.out.print("Test: Event Ring Buffer and Journal... ");
+        try {
+            Track track = new Track("T9", "Interlagos", 71);
+            List<Pair<Driver, Team>> field = buildField();
+            List<String> names = new ArrayList<>();
+            for (Pair<Driver, Team> entry : field) {
+                names.add(entry.getFirst().getName());
+            }
+
+            File file = File.createTempFile("race_journal", ".bin");
+            file.deleteOnExit();
+            RaceEventJournal journal = RaceEventJournal.create(file, track.getName(), track.getLaps(), names);
+
+            RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY,
+                3L, RaceVariance.NONE, true, journal);
+            engine.start();
+            engine.changeWeather(WeatherCondition.HEAVY_RAIN);
+            RaceOutcome outcome = engine.run();
+            journal.close();
+
+            List<RaceEventLog> history = RaceEventJournal.read(file);
+            RaceEventLog first = history.get(0);
+            RaceEventLog last = history.get(history.size() - 1);
+
+            // Ring keeps the latest 10, the journal keeps everything in order
+            if (outcome.getEvents().size() == 10 && history.size() > 10 &&
+                first.getMessage().equals("Race started at Interlagos!") &&
+                history.get(1).getMessage().equals("Weather: HEAVY RAIN! Grip: 80%") &&
+                last.getMessage().equals("Race finished! Winner: Driver 1") &&
+                outcome.getEvents().get(9).equals(last)) {
+                pass();
+            } else {
+                fail("Unexpected event history, " + history.size() + " journal events");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testHeadlessRaceSpeed() {
+        System.out.print("Test: Headless Race Speed (1000 races)... ");
+        try {
+            Track track = new Track("T4", "Spa", 44);
+            List<Pair<Driver, Team>> field = buildField();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                new RaceEngine(field, track, WeatherCondition.LIGHT_RAIN, 1L).run();
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Real-time playback would take 44 seconds per race
+            if (elapsedMs < 44_000) {
+                pass();
+            } else {
+                fail("1000 headless races took " + elapsedMs + " ms");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testMonteCarloProbabilities() {
+        System.out.print("Test: Monte Carlo Probabilities (10000 races)... ");
+        try {
+            Track track = new Track("T5", "Monaco", 78);
+            MonteCarloRaceEngine monteCarlo = new MonteCarloRaceEngine(buildField(), track, WeatherCondition.DRY);
+
+            MonteCarloResult result = monteCarlo.run(10_000, 42L);
+
+            double totalWin = 0.0;
+            for (int slot = 0; slot < result.getFieldSize(); slot++) {
+                totalWin += result.winProbability(slot);
+            }
+
+            // Every race has exactly one winner, and the best driver should win most often
+            if (Math.abs(totalWin - 1.0) < 1e-9 &&
+                result.winProbability(0) > result.winProbability(3) &&
+                result.podiumProbability(0) >= result.winProbability(0)) {
+                pass();
+            } else {
+                fail("Unexpected probabilities, total win = " + totalWin);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testMonteCarloSameSeedSameResult() {
+        System.out.print("Test: Monte Carlo Same Seed Same Result... ");
+        try {
+            Track track = new Track("T6", "Suzuka", 53);
+            MonteCarloRaceEngine monteCarlo = new MonteCarloRaceEngine(buildField(), track, WeatherCondition.HEAVY_RAIN);
+
+            MonteCarloResult first = monteCarlo.run(2_000, 7L);
+            MonteCarloResult second = monteCarlo.run(2_000, 7L);
+
+            for (int slot = 0; slot < first.getFieldSize(); slot++) {
+                for (int position = 0; position < first.getFieldSize(); position++) {
+                    if (first.positionProbability(slot, position) != second.positionProbability(slot, position)) {
+                        fail("Results differ for slot " + slot + ", position " + position);
+                        return;
+                    }
+                }
+            }
+            pass();
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testReplayIsBitIdentical() {
+        System.out.print("Test: Seeded Replay Is Bit-Identical... ");
+        try {
+            Track track = new Track("T7", "Silverstone", 52);
+            List<Pair<Driver, Team>> field = buildField();
+
+            // Live-style race with random variance and commands between laps
+            RaceEngine original = new RaceEngine(field, track, WeatherCondition.DRY, 99L, RaceVariance.MONTE_CARLO);
+            original.start();
+            for (int i = 0; i < 5; i++) original.step();
+            original.addCrash(List.of(1));
+            for (int i = 0; i < 3; i++) original.step();
+            original.deploySafetyCar();
+            original.step();
+            original.changeWeather(WeatherCondition.LIGHT_RAIN);
+            original.addPitStop(List.of(0, 2));
+            original.run();
+
+            RaceReplay replay = original.replay();
+            RaceEngine replayed = replay.run(field, track);
+            RaceEngine otherSeed = new RaceEngine(field, track, WeatherCondition.DRY, 100L, RaceVariance.MONTE_CARLO);
+            otherSeed.run();
+
+            List<RaceStanding> expected = original.getStandings();
+            List<RaceStanding> actual = replayed.getStandings();
+            for (int i = 0; i < expected.size(); i++) {
+                if (expected.get(i).getGridSlot() != actual.get(i).getGridSlot() ||
+                    expected.get(i).getTotalTime() != actual.get(i).getTotalTime()) {
+                    fail("Replay differs at position " + (i + 1));
+                    return;
+                }
+            }
+
+            // Replaying only part of the race stops at the requested lap
+            RaceEngine partial = replay.run(field, track, 10);
+            if (replay.getCommands().size() == 4 && partial.getCurrentLap() == 10 &&
+                otherSeed.getStandings().get(0).getTotalTime() != expected.get(0).getTotalTime()) {
+                pass();
+            } else {
+                fail("Unexpected replay log or partial replay, " + replay.getCommands().size() + " commands");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testSchedulerRunsManyRaces() {
+        System.out.print("Test: Scheduler Runs 200 Concurrent Races... ");
+        try (RaceScheduler scheduler = new RaceScheduler(2, 5L)) {
+            Track track = new Track("T8", "Zandvoort", 20);
+            List<Pair<Driver, Team>> field = buildField();
+
+            List<RaceEngine> engines = new ArrayList<>();
+            List<RaceScheduler.ScheduledRace> races = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY, i);
+                engine.start();
+                engines.add(engine);
+                races.add(scheduler.schedule(10L, engine::step));
+            }
+
+            // A race whose tick throws is released through onError, not onCancel
+            AtomicInteger cancels = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            RaceScheduler.ScheduledRace failing = scheduler.schedule(10L,
+                () -> { cancels.incrementAndGet(); return Unit.INSTANCE; },
+                e -> { errors.incrementAndGet(); return Unit.INSTANCE; },
+                () -> { throw new IllegalStateException("broken tick"); });
+
+            // Cancel one race and pause another for a while
+            races.get(0).cancel();
+            races.get(1).pause();
+            Thread.sleep(100);
+            int lapWhilePaused = engines.get(1).getCurrentLap();
+            Thread.sleep(100);
+            boolean heldWhilePaused = engines.get(1).getCurrentLap() == lapWhilePaused;
+            races.get(1).resume();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (scheduler.getActiveRaces() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            int finished = 0;
+            for (RaceEngine engine : engines) {
+                if (engine.isFinished()) finished++;
+            }
+
+            boolean failed = failing.isDone() && errors.get() == 1 && cancels.get() == 0;
+
+            if (scheduler.getActiveRaces() == 0 && finished == 199 && heldWhilePaused &&
+                !engines.get(0).isFinished() && races.get(0).isDone() && failed) {
+                pass();
+            } else {
+                fail(finished + " races finished, " + scheduler.getActiveRaces() + " still active, " +
+                    errors.get() + " errors, " + cancels.get() + " cancels for the failing race");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testSchedulerReleasesOnErrorAndClose() {
+        System.out.print("Test: Scheduler Releases Races on Error and Close... ");
+        try {
+            RaceScheduler scheduler = new RaceScheduler(1, 5L);
+            AtomicInteger errors = new AtomicInteger();
+            AtomicInteger cancels = new AtomicInteger();
+
+            // An Error ends the race and is rethrown on the worker, not passed to onError
+            RaceScheduler.ScheduledRace broken = scheduler.schedule(10L,
+                () -> { cancels.incrementAndGet(); return Unit.INSTANCE; },
+                e -> { errors.incrementAndGet(); return Unit.INSTANCE; },
+                () -> { throw new StackOverflowError("broken tick"); });
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!broken.isDone() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            boolean releasedOnError = broken.isDone() && scheduler.getActiveRaces() == 0 &&
+                errors.get() == 0 && cancels.get() == 0;
+
+            // Closing cancels every race, waiting on the wheel or paused off it
+            RaceScheduler.ScheduledRace waiting = scheduler.schedule(60_000L,
+                () -> { cancels.incrementAndGet(); return Unit.INSTANCE; },
+                e -> Unit.INSTANCE,
+                () -> true);
+            RaceScheduler.ScheduledRace paused = scheduler.schedule(10L,
+                () -> { cancels.incrementAndGet(); return Unit.INSTANCE; },
+                e -> Unit.INSTANCE,
+                () -> true);
+            paused.pause();
+            Thread.sleep(50);
+            scheduler.close();
+
+            if (releasedOnError && waiting.isDone() && paused.isDone() &&
+                scheduler.getActiveRaces() == 0 && cancels.get() == 2) {
+                pass();
+            } else {
+                fail("error released: " + releasedOnError + ", " + scheduler.getActiveRaces() + " still active, " +
+                    cancels.get() + " cancels");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testSectorSplit() {
+        System.out.print("Test: Sector Split (SPEED track)... ");
+        try {
+            Track track = new Track("T9", "Monza", 53);
+            track.setCharacteristics(Track.TrackCharacteristics.SPEED);
+
+            // Same overall performance, strength in different parts
+            Team engineTeam = buildTeam("Engine", 80);
+            engineTeam.getCar().setEngine(new Engine("E2", "Strong Engine", 100));
+            engineTeam.getCar().setAerodynamics(new Aerodynamics("A2", "Weak Aero", 60));
+            Team aeroTeam = buildTeam("Aero", 80);
+            aeroTeam.getCar().setEngine(new Engine("E3", "Weak Engine", 60));
+            aeroTeam.getCar().setAerodynamics(new Aerodynamics("A3", "Strong Aero", 100));
+
+            double[] engineSectors = SectorModel.split(75.0, engineTeam.getCar(), track.getCharacteristics());
+            double[] aeroSectors = SectorModel.split(75.0, aeroTeam.getCar(), track.getCharacteristics());
+            double engineLap = engineSectors[0] + engineSectors[1] + engineSectors[2];
+            double aeroLap = aeroSectors[0] + aeroSectors[1] + aeroSectors[2];
+
+            // The aero car is quicker over a lap on a BALANCED track, the engine car about a second quicker
+            // in sector 1: it passes the engine car once, in sector 2, and the engine car's sector 1 gains
+            // over the next laps hand nothing back at the line, so they are no overtakes
+            Track balanced = new Track("T9B", "Imola", 5);
+            balanced.setCharacteristics(Track.TrackCharacteristics.BALANCED);
+            List<Pair<Driver, Team>> field = new ArrayList<>();
+            field.add(new Pair<>(new Driver("SE", "Engine Driver", 76), engineTeam));
+            field.add(new Pair<>(new Driver("SA", "Aero Driver", 80), aeroTeam));
+            List<String> overtakes = new ArrayList<>();
+            for (RaceEventLog event : new RaceEngine(field, balanced, WeatherCondition.DRY, 1L).run().getEvents()) {
+                if (event.getMessage().contains("overtakes")) overtakes.add(event.getLap() + ": " + event.getMessage());
+            }
+
+            // Sectors move time around the lap but keep the lap total
+            if (Math.abs(engineLap - 75.0) < 1e-9 && Math.abs(aeroLap - 75.0) < 1e-9 &&
+                engineSectors[0] < aeroSectors[0] && engineSectors[1] > aeroSectors[1] &&
+                overtakes.equals(Collections.singletonList("1: Aero Driver overtakes Engine Driver in sector 2!"))) {
+                pass();
+            } else {
+                fail("Unexpected sectors: " + java.util.Arrays.toString(engineSectors) +
+                    " vs " + java.util.Arrays.toString(aeroSectors) + ", overtakes " + overtakes);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testSectorKernelSpeed() {
+        System.out.print("Test: Sector Kernel Speed (20 cars, 3 sectors, 70 laps)... ");
+        try {
+            Track track = new Track("T10", "Barcelona", 70);
+            track.setCharacteristics(Track.TrackCharacteristics.TECHNICAL);
+            List<Pair<Driver, Team>> field = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Team team = buildTeam("Grid " + i, 60 + i * 2);
+                field.add(new Pair<>(new Driver("G" + i, "Grid Driver " + i, 70 + i), team));
+            }
+
+            // Warm up the JIT before timing
+            for (int i = 0; i < 500; i++) {
+                new RaceEngine(field, track, WeatherCondition.DRY, i, RaceVariance.MONTE_CARLO, false).run();
+            }
+
+            int races = 2000;
+            long start = System.nanoTime();
+            for (int i = 0; i < races; i++) {
+                new RaceEngine(field, track, WeatherCondition.DRY, i, RaceVariance.MONTE_CARLO, false).run();
+            }
+            double microsPerRace = (System.nanoTime() - start) / 1_000.0 / races;
+
+            if (microsPerRace < 1_000.0) {
+                pass();
+            } else {
+                fail("A 70-lap race took " + microsPerRace + " us");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testVectorKernelBitIdentical() {
+        System.out.print("Test: Vector Lap Kernel Bit-Identical... ");
+        try {
+            LapKernel vector = LapKernel.loadVectorKernel();
+            if (vector == null) {
+                // Run with --add-modules jdk.incubator.vector to cover the SIMD path
+                System.out.print("(vector API not available, scalar only) ");
+                pass();
+                return;
+            }
+
+            // Large field: odd size so the scalar tail is exercised too
+            int cars = 1003;
+            double[] scalarTimes = LapKernelBench.runLaps(LapKernel.getScalar(), cars, 200);
+            double[] vectorTimes = LapKernelBench.runLaps(vector, cars, 200);
+
+            // Whole races with both kernels must match exactly too
+            Track track = new Track("T11", "Baku", 51);
+            List<Pair<Driver, Team>> field = buildField();
+            RaceEngine scalarRace = new RaceEngine(field, track, WeatherCondition.LIGHT_RAIN, 11L,
+                RaceVariance.MONTE_CARLO, true, null, LapKernel.getScalar());
+            RaceEngine vectorRace = new RaceEngine(field, track, WeatherCondition.LIGHT_RAIN, 11L,
+                RaceVariance.MONTE_CARLO, true, null, vector);
+            scalarRace.run();
+            vectorRace.run();
+
+            boolean sameRace = true;
+            for (int i = 0; i < field.size(); i++) {
+                RaceStanding a = scalarRace.getStandings().get(i);
+                RaceStanding b = vectorRace.getStandings().get(i);
+                sameRace &= a.getGridSlot() == b.getGridSlot() && a.getTotalTime() == b.getTotalTime();
+            }
+
+            // Batch races skip the sectors and run only the lap kernel
+            RaceOutcome scalarBatch = new RaceEngine(field, track, WeatherCondition.LIGHT_RAIN, 12L,
+                RaceVariance.MONTE_CARLO, false, null, LapKernel.getScalar()).run();
+            RaceOutcome vectorBatch = new RaceEngine(field, track, WeatherCondition.LIGHT_RAIN, 12L,
+                RaceVariance.MONTE_CARLO, false, null, vector).run();
+            sameRace &= scalarBatch.getStandings().equals(vectorBatch.getStandings());
+
+            if (java.util.Arrays.equals(scalarTimes, vectorTimes) && sameRace) {
+                pass();
+            } else {
+                fail("Vector kernel results differ from scalar");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testCommandQueueManyProducers() {
+        System.out.print("Test: Command Queue With Many Producers... ");
+        try {
+            Track track = new Track("T12", "Singapore", 200);
+            List<Pair<Driver, Team>> field = buildField();
+            RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY, 21L);
+            engine.start();
+
+            // Four control sources submit pit stops while the race thread keeps stepping
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                final int slot = p;
+                Thread producer = new Thread(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        engine.submit(new RaceCommand.PitStop(List.of(slot)));
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+
+            int laps = 0;
+            while (producers.stream().anyMatch(Thread::isAlive) && laps < 150) {
+                engine.step();
+                laps++;
+            }
+            for (Thread producer : producers) producer.join();
+            engine.run();
+
+            // Every command was applied exactly once, and the race replays the same way
+            RaceReplay replay = engine.replay();
+            RaceEngine replayed = replay.run(field, track);
+            boolean same = true;
+            for (int i = 0; i < field.size(); i++) {
+                same &= engine.getStandings().get(i).getTotalTime() == replayed.getStandings().get(i).getTotalTime();
+            }
+
+            if (replay.getCommands().size() == 1000 && same) {
+                pass();
+            } else {
+                fail(replay.getCommands().size() + " of 1000 commands applied");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testForkIsIndependentCopy() {
+        System.out.print("Test: Forked Race Is An Independent Copy... ");
+        try {
+            Track track = new Track("T13", "Montreal", 70);
+            RaceEngine engine = new RaceEngine(buildField(), track, WeatherCondition.DRY, 4L);
+            engine.start();
+            for (int i = 0; i < 20; i++) engine.step();
+            engine.addPitStop(List.of(0));
+
+            double leaderTimeAtFork = engine.getStandings().get(0).getTotalTime();
+            RaceEngine fork = engine.fork(4L);
+            fork.addCrash(List.of(1));
+            fork.run();
+
+            // The fork ran to the end without touching the original...
+            boolean untouched = engine.getCurrentLap() == 20 &&
+                engine.getStandings().get(0).getTotalTime() == leaderTimeAtFork;
+
+            // ...and with no variance, continuing the original gives the fork's result minus the crash
+            engine.run();
+            boolean sameFuture = true;
+            for (int slot = 0; slot < engine.getFieldSize(); slot++) {
+                double expected = totalTimeOf(engine, slot);
+                double actual = totalTimeOf(fork, slot);
+                sameFuture &= actual == (slot == 1 ? expected + 20.0 : expected);
+            }
+
+            if (untouched && sameFuture && fork.isFinished()) {
+                pass();
+            } else {
+                fail("Fork was not independent (untouched=" + untouched + ", sameFuture=" + sameFuture + ")");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testWhatIfPitNow() {
+        System.out.print("Test: What-If Pit Now (256 futures)... ");
+        try {
+            Track track = new Track("T14", "Hungaroring", 70);
+            List<Pair<Driver, Team>> field = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                field.add(new Pair<>(new Driver("W" + i, "Driver " + i, 90 - i), buildTeam("W" + i, 85)));
+            }
+            RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY, 8L);
+            engine.start();
+            for (int i = 0; i < 30; i++) engine.step();
+
+            WhatIfAnalyzer analyzer = new WhatIfAnalyzer();
+            analyzer.analyze(engine.fork(1L), WhatIfScenario.pitNow(0, "Driver 0"), 64, 1L); // warm-up
+
+            long start = System.nanoTime();
+            WhatIfResult result = analyzer.analyze(engine.fork(2L), WhatIfScenario.pitNow(0, "Driver 0"), 256, 2L);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Losing 3 seconds can only cost the leader places, and must be back well before the next lap
+            if (result.getFutures() == 256 && result.getFromLap() == 30 &&
+                result.expectedPositionChange(0) >= 0.0 && elapsedMs < 1_000) {
+                pass();
+            } else {
+                fail("Change " + result.expectedPositionChange(0) + " in " + elapsedMs + " ms");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testWinProbabilityTicker() {
+        System.out.print("Test: Win Probability Ticker... ");
+        try {
+            Track track = new Track("T15", "Jeddah", 50);
+            RaceEngine engine = new RaceEngine(buildField(), track, WeatherCondition.DRY, 15L);
+            engine.start();
+            for (int i = 0; i < 10; i++) engine.step();
+
+            List<WinProbabilityEstimate> estimates = java.util.Collections.synchronizedList(new ArrayList<>());
+            WinProbabilityTicker ticker = new WinProbabilityTicker(estimate -> {
+                estimates.add(estimate);
+                return kotlin.Unit.INSTANCE;
+            });
+
+            ticker.update(engine.fork(1L));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!lastConverged(estimates, 10) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            // A newer lap replaces the old estimate
+            engine.step();
+            ticker.update(engine.fork(1L));
+            while (!lastConverged(estimates, 11) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            WinProbabilityEstimate lapEleven = estimates.get(estimates.size() - 1);
+
+            // A lap published every frame (MAX playback) does not restart the estimate every frame
+            int restartsBefore = ticker.getRestarts();
+            for (int i = 0; i < 30; i++) {
+                engine.step();
+                ticker.update(engine.fork(1L));
+            }
+            boolean throttled = ticker.getRestarts() - restartsBefore <= 5;
+
+            ticker.close();
+            Thread.sleep(50);
+            int countAfterClose = estimates.size();
+            Thread.sleep(100);
+
+            WinProbabilityEstimate last = lapEleven;
+            double totalWin = 0.0;
+            for (int slot = 0; slot < last.getResult().getFieldSize(); slot++) {
+                totalWin += last.getResult().winProbability(slot);
+            }
+
+            // Refined progressively from small batches, then stopped early and after close()
+            boolean progressive = estimates.get(0).getResult().getSimulations() < last.getResult().getSimulations();
+            if (last.getLap() == 11 && last.isConverged() && progressive && throttled &&
+                Math.abs(totalWin - 1.0) < 1e-9 && estimates.size() == countAfterClose) {
+                pass();
+            } else {
+                fail("Unexpected estimates, last lap " + last.getLap() + ", half-width " + last.getHalfWidth() +
+                    ", restarts " + (ticker.getRestarts() - restartsBefore) + " in a burst of 30");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static boolean lastConverged(List<WinProbabilityEstimate> estimates, int lap) {
+        if (estimates.isEmpty()) return false;
+        WinProbabilityEstimate last = estimates.get(estimates.size() - 1);
+        return last.getLap() == lap && last.isConverged();
+    }
+
+    private static void testRaceResultCache() {
+        System.out.print("Test: Race Result Cache (content keys, LRU, file)... ");
+        try {
+            Track track = new Track("T20", "Imola", 15);
+            File file = File.createTempFile("race_cache", ".bin");
+            file.deleteOnExit();
+            file.delete();
+
+            // Equal content hits, even built from new objects; any change to the race misses
+            RaceResultCache cache = new RaceResultCache(2, file);
+            RaceOutcome first = cache.race(buildField(), track, WeatherCondition.DRY, 7L);
+            boolean hit = cache.race(buildField(), track, WeatherCondition.DRY, 7L) == first;
+
+            List<Pair<Driver, Team>> fasterDriver = buildField();
+            fasterDriver.get(3).getFirst().setSkill(99);
+            RaceOutcome changed = cache.race(fasterDriver, track, WeatherCondition.DRY, 7L);
+
+            List<Pair<Driver, Team>> betterEngine = buildField();
+            betterEngine.get(0).getSecond().getCar().getEngine().setPerformance(91);
+            cache.race(betterEngine, track, WeatherCondition.DRY, 7L);  // Evicts the least recently used: first
+
+            boolean lru = cache.race(fasterDriver, track, WeatherCondition.DRY, 7L) == changed &&
+                cache.race(buildField(), track, WeatherCondition.DRY, 7L) != first &&
+                cache.getHits() == 2 && cache.getMisses() == 4 && cache.getSize() == 2;
+
+            boolean keys = !RaceResultCache.key(0, buildField(), track, WeatherCondition.DRY, RaceVariance.NONE,
+                Collections.emptyList(), 7L, 1).equals(RaceResultCache.key(0, buildField(), track,
+                WeatherCondition.LIGHT_RAIN, RaceVariance.NONE, Collections.emptyList(), 7L, 1)) &&
+                !RaceResultCache.key(0, buildField(), track, WeatherCondition.DRY, RaceVariance.NONE,
+                Collections.emptyList(), 7L, 1).equals(RaceResultCache.key(0, buildField(),
+                new Track("T21", "Monza", 15), WeatherCondition.DRY, RaceVariance.NONE, Collections.emptyList(), 7L, 1));
+
+            // A cached result is the result
+            RaceOutcome fresh = new RaceEngine(buildField(), track, WeatherCondition.DRY, 7L).run();
+            boolean same = first.getStandings().equals(fresh.getStandings()) && first.getEvents().equals(fresh.getEvents());
+
+            // Survives a restart
+            cache.checkpoint();
+            RaceResultCache reloaded = new RaceResultCache(2, file);
+            boolean persisted = reloaded.getSize() == 2 &&
+                reloaded.race(fasterDriver, track, WeatherCondition.DRY, 7L).equals(changed) && reloaded.getHits() == 1;
+
+            // Monte Carlo runs are cached by seed and count too
+            RaceResultCache runs = new RaceResultCache();
+            MonteCarloResult mc = new MonteCarloRaceEngine(buildField(), track, WeatherCondition.DRY,
+                RaceVariance.MONTE_CARLO, Collections.emptyList(), ForkJoinPool.commonPool(), runs).run(64, 3L);
+            MonteCarloResult again = new MonteCarloRaceEngine(buildField(), track, WeatherCondition.DRY,
+                RaceVariance.MONTE_CARLO, Collections.emptyList(), ForkJoinPool.commonPool(), runs).run(64, 3L);
+            MonteCarloResult uncached = new MonteCarloRaceEngine(buildField(), track).run(64, 3L);
+            boolean monteCarlo = again == mc && runs.getMisses() == 1;
+            for (int slot = 0; slot < mc.getFieldSize(); slot++) {
+                for (int position = 0; position < mc.getFieldSize(); position++) {
+                    monteCarlo &= mc.positionCount(slot, position) == uncached.positionCount(slot, position);
+                }
+            }
+
+            if (hit && lru && keys && same && persisted && monteCarlo) {
+                pass();
+            } else {
+                fail("Cache: hit=" + hit + ", lru=" + lru + ", keys=" + keys + ", same=" + same +
+                    ", persisted=" + persisted + ", monteCarlo=" + monteCarlo);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,554 @@
+package com.david.f1_manager.test;
+
+import com.david.f1_manager.Driver;
+import com.david.f1_manager.Team;
+import com.david.f1_manager.Track;
+import com.david.f1_manager.car.*;
+import com.david.f1_manager.domain.LineupOptimizer;
+import com.david.f1_manager.domain.LineupPlan;
+import com.david.f1_manager.domain.LineupResult;
+import com.david.f1_manager.domain.PitAdvice;
+import com.david.f1_manager.domain.PitCall;
+import com.david.f1_manager.domain.PitCallAdvisor;
+import com.david.f1_manager.domain.RaceConstants;
+import com.david.f1_manager.domain.RaceEngine;
+import com.david.f1_manager.domain.RaceReplay;
+import com.david.f1_manager.domain.RaceVariance;
+import com.david.f1_manager.domain.LapKernel;
+import com.david.f1_manager.domain.StrategyScore;
+import com.david.f1_manager.domain.StrategySweep;
+import com.david.f1_manager.domain.StrategySweepResult;
+import com.david.f1_manager.domain.WeatherCondition;
+import com.david.f1_manager.race.FuelModel;
+import com.david.f1_manager.race.PitPlan;
+import com.david.f1_manager.race.PitStrategyOptimizer;
+import com.david.f1_manager.race.TireDegradationTable;
+import com.david.f1_manager.race.TireModel;
+import kotlin.Pair;
+import kotlin.Unit;
+
+import static com.david.f1_manager.test.TestFixtures.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simple test class for race strategy: pit plans, tire wear and the strategy optimizer
+ */
+public class RaceStrategyTest {
+
+    private static final Tires.TireCompound[] COMPOUNDS = Tires.TireCompound.values();
+
+    public static void main(String[] args) {
+        System.out.println("=== Race Strategy Test Suite ===\n");
+
+        testDegradationTablesMatchModel();
+        testFuelClosedForm();
+        testOptimizerMatchesBruteForce();
+        testOptimizerRespectsStrategy();
+        testOptimizerSpeed();
+        testRaceRunsPitPlan();
+        testReplayKeepsPitPlans();
+        testCalledStopChangesTires();
+        testPitCallAdvisor();
+        testStrategySweep();
+        testLineupOptimizer();
+
+        printSummary();
+    }
+
+    private static void testDegradationTablesMatchModel() {
+        System.out.print("Test: Degradation Tables Match Tire Model... ");
+        try {
+            boolean matches = true;
+            for (int performance : new int[]{1, 37, 50, 100}) {
+                TireDegradationTable table = TireDegradationTable.forPerformance(performance);
+                for (Tires.TireCompound compound : COMPOUNDS) {
+                    int c = compound.ordinal();
+                    // Past MAX_STINT_LAPS the table falls back to the model
+                    for (int laps = 0; laps <= TireDegradationTable.MAX_STINT_LAPS + 20; laps++) {
+                        matches &= table.stintTime(c, laps) == TireModel.stintTime(compound, laps, performance);
+                        matches &= table.lapTimeDelta(c, laps) == TireModel.lapTimeDelta(compound, laps, performance);
+                    }
+                    double middle = TireModel.stintTime(compound, 30, performance) - TireModel.stintTime(compound, 10, performance);
+                    matches &= Math.abs(table.stintTime(c, 10, 30) - middle) < 1e-9;
+                }
+            }
+
+            // Built once per level and shared
+            boolean shared = TireDegradationTable.forPerformance(50) == TireDegradationTable.forPerformance(50) &&
+                TireDegradationTable.forPerformance(150) == TireDegradationTable.forPerformance(100);
+
+            if (matches && shared) {
+                pass();
+            } else {
+                fail("Tables differ from TireModel or are not shared");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testFuelClosedForm() {
+        System.out.print("Test: Fuel Closed Form Matches Lap-by-Lap Sum... ");
+        try {
+            boolean matches = true;
+            for (double load : new double[]{0.0, 45.0, 78.0, 91.0, 100.0}) {
+                for (int raceLaps : new int[]{1, 44, 70, 78}) {
+                    double sum = 0.0;
+                    for (int lap = 1; lap <= raceLaps; lap++) {
+                        sum += FuelModel.lapTimeDelta(load, raceLaps, lap);
+                        matches &= Math.abs(FuelModel.cumulativeTime(load, raceLaps, lap) - sum) < 1e-9;
+                    }
+                }
+            }
+
+            // Penalty falls as fuel burns, and filling exactly what the race needs beats both more and less
+            double optimal = FuelModel.optimalFuelLoad(70);
+            boolean falling = FuelModel.lapTimeDelta(optimal, 70, 1) > FuelModel.lapTimeDelta(optimal, 70, 70);
+            boolean best = FuelModel.raceTime(optimal, 70) < FuelModel.raceTime(optimal - 5, 70) &&
+                FuelModel.raceTime(optimal, 70) < FuelModel.raceTime(optimal + 5, 70);
+
+            // Short races still start with the least the setup screen offers; races longer than a full
+            // tank lasts are not charged for fuel the car could not carry
+            boolean inRange = FuelModel.optimalFuelLoad(15) == FuelModel.MIN_FUEL_LOAD &&
+                FuelModel.optimalFuelLoad(90) == FuelModel.MAX_FUEL_LOAD;
+            double burn = FuelModel.burnPerLap(FuelModel.MAX_FUEL_LOAD, 90);
+            boolean capped = Math.abs(FuelModel.lapTimeDelta(FuelModel.MAX_FUEL_LOAD, 90, 90) -
+                FuelModel.TIME_PER_KG * (FuelModel.MAX_FUEL_LOAD - burn * 89)) < 1e-12;
+
+            if (matches && falling && best && inRange && capped) {
+                pass();
+            } else {
+                fail("Closed form " + matches + ", falling " + falling + ", optimal load " + best +
+                    ", in range " + inRange + ", capped " + capped);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testOptimizerMatchesBruteForce() {
+        System.out.print("Test: Optimizer Matches Brute Force (14 laps, up to 3 stops)... ");
+        try {
+            int laps = 14;
+            PitStrategyOptimizer optimizer = new PitStrategyOptimizer(laps, 40, RaceConstants.PIT_STOP_TIME, 80.0);
+            PitPlan plan = optimizer.optimize();
+            double bruteForce = bestPlanTime(laps, 40, 1, 0, PitStrategyOptimizer.MAX_STOPS, -1);
+
+            double tiresAndStops = plan.getTimeLoss() - FuelModel.raceTime(plan.getInitialFuelLoad(), laps);
+            if (Math.abs(tiresAndStops - bruteForce) < 1e-9 &&
+                Math.abs(planTime(plan, 40) - plan.getTimeLoss()) < 1e-9) {
+                pass();
+            } else {
+                fail("DP " + plan.getTimeLoss() + " (" + plan + ") vs brute force " + bruteForce);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testOptimizerRespectsStrategy() {
+        System.out.print("Test: Optimizer Respects Stops and Starting Compound... ");
+        try {
+            PitStrategyOptimizer optimizer = new PitStrategyOptimizer(20, 60, RaceConstants.PIT_STOP_TIME, 80.0);
+            PitPlan twoStops = optimizer.optimize(2, Tires.TireCompound.SOFT, 30.0);
+            PitPlan noStops = optimizer.optimize(0, Tires.TireCompound.HARD);
+            double bruteForce = bestPlanTime(20, 60, 1, 0, 2, Tires.TireCompound.SOFT.ordinal());
+
+            if (twoStops.getPitStopCount() == 2 &&
+                twoStops.getStartingCompound() == Tires.TireCompound.SOFT &&
+                twoStops.getRaceLaps() == 20 &&
+                twoStops.getInitialFuelLoad() == 30.0 &&
+                Math.abs(twoStops.getTimeLoss() - FuelModel.raceTime(30.0, 20) -
+                    exactStops(20, 60, 2, Tires.TireCompound.SOFT)) < 1e-9 &&
+                bruteForce <= twoStops.getTimeLoss() - FuelModel.raceTime(30.0, 20) + 1e-9 &&
+                noStops.getPitStopCount() == 0 &&
+                noStops.getStartingCompound() == Tires.TireCompound.HARD) {
+                pass();
+            } else {
+                fail("Unexpected plans: " + twoStops + " / " + noStops);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testOptimizerSpeed() {
+        System.out.print("Test: Optimizer Speed (70 laps, 3 compounds, up to 3 stops)... ");
+        try {
+            Track track = new Track("S1", "Hungaroring", 70);
+            Team team = buildTeam("Speed", 80);
+            PitStrategyOptimizer optimizer = new PitStrategyOptimizer(track, team.getCar(), new Driver("D", "Driver", 90));
+            for (int i = 0; i < 2_000; i++) {
+                optimizer.optimize(); // Warm-up
+            }
+
+            long start = System.nanoTime();
+            PitPlan plan = null;
+            for (int i = 0; i < 100; i++) {
+                plan = optimizer.optimize();
+            }
+            double averageMs = (System.nanoTime() - start) / 100 / 1_000_000.0;
+
+            if (plan.getRaceLaps() == 70 && averageMs < 5.0) {
+                pass();
+            } else {
+                fail("Took " + averageMs + " ms for " + plan);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testRaceRunsPitPlan() {
+        System.out.print("Test: Race Runs Pit Plan... ");
+        try {
+            Track track = new Track("S2", "Monza", 30);
+            List<Pair<Driver, Team>> field = buildField(75, 80, 85, 90);
+            PitPlan plan = new PitPlan(Arrays.asList(
+                new PitPlan.Stint(Tires.TireCompound.SOFT, 1, 12),
+                new PitPlan.Stint(Tires.TireCompound.HARD, 13, 30)
+            ), 0.0);
+
+            RaceEngine planned = new RaceEngine(field, track, WeatherCondition.DRY, 1L,
+                RaceVariance.NONE, true, null,
+                LapKernel.getScalar(), Arrays.asList(plan, null));
+            planned.run();
+            RaceEngine ideal = new RaceEngine(field, track, WeatherCondition.DRY, 1L);
+            ideal.run();
+
+            // Slot 0 loses exactly its tire wear plus one stop; slot 1 has no plan and is unaffected
+            int performance = field.get(0).getSecond().getCar().getTires().getPerformance();
+            double expected = planTime(plan, performance);
+            double lost = totalTimeOf(planned, 0) - totalTimeOf(ideal, 0);
+
+            if (Math.abs(lost - expected) < 1e-6 && totalTimeOf(planned, 1) == totalTimeOf(ideal, 1)) {
+                pass();
+            } else {
+                fail("Lost " + lost + "s, expected " + expected + "s");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testReplayKeepsPitPlans() {
+        System.out.print("Test: Replay Keeps Pit Plans... ");
+        try {
+            Track track = new Track("S3", "Suzuka", 40);
+            List<Pair<Driver, Team>> field = buildField(75, 80, 85, 90);
+            List<PitPlan> plans = new ArrayList<>();
+            for (Pair<Driver, Team> participant : field) {
+                plans.add(new PitStrategyOptimizer(track, participant.getSecond().getCar(), participant.getFirst()).optimize());
+            }
+
+            RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY, 3L,
+                RaceVariance.MONTE_CARLO, true, null,
+                LapKernel.getBest(), plans);
+            engine.run();
+            RaceReplay replay = engine.replay();
+            RaceEngine again = replay.run(field, track);
+
+            boolean identical = true;
+            for (int slot = 0; slot < field.size(); slot++) {
+                identical &= totalTimeOf(engine, slot) == totalTimeOf(again, slot);
+            }
+            if (identical && replay.getPitPlans().equals(plans)) {
+                pass();
+            } else {
+                fail("Replay differs from the original race");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Least time lost over laps firstLap..laps, trying every pit lap and compound (exponential, small races only)
+     * @param compound compound of the stint starting at firstLap, or -1 for any
+     */
+    private static void testCalledStopChangesTires() {
+        System.out.print("Test: Called Stop Changes Tires... ");
+        try {
+            Track track = new Track("S4", "Spa", 40);
+            List<Pair<Driver, Team>> field = buildField(75, 80, 85, 90);
+            List<PitPlan> plans = new ArrayList<>();
+            for (Pair<Driver, Team> participant : field) {
+                plans.add(new PitStrategyOptimizer(track, participant.getSecond().getCar(), participant.getFirst()).optimize(1, Tires.TireCompound.SOFT));
+            }
+
+            RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY, 5L,
+                RaceVariance.MONTE_CARLO, true, null,
+                LapKernel.getBest(), plans);
+            engine.start();
+            for (int i = 0; i < 5; i++) engine.step();
+            RaceEngine before = engine.fork(engine.getSeed());
+
+            // Called stop onto HARD between laps 5 and 6 takes the place of the planned stop
+            engine.addPitStop(List.of(0), Tires.TireCompound.HARD);
+            engine.step();
+            boolean changed = engine.tireCompound(0) == Tires.TireCompound.HARD &&
+                engine.pitStopCount(0) == 1 && engine.lastPitLap(0) == 5 &&
+                PitCallAdvisor.actualCall(before, engine, 0) == PitCall.PIT_HARD &&
+                PitCallAdvisor.actualCall(before, engine, 1) == PitCall.STAY_OUT;
+
+            while (engine.step()) {
+                // Run to the finish
+            }
+            // Only the called stop: the planned one was used up by it
+            changed &= engine.pitStopCount(0) == 1 && engine.pitStopCount(1) == 1;
+
+            RaceEngine again = engine.replay().run(field, track);
+            boolean identical = again.tireCompound(0) == Tires.TireCompound.HARD;
+            for (int slot = 0; slot < field.size(); slot++) {
+                identical &= totalTimeOf(engine, slot) == totalTimeOf(again, slot);
+            }
+
+            if (changed && identical) {
+                pass();
+            } else {
+                fail("Called stop: changed=" + changed + ", replayed=" + identical);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testPitCallAdvisor() {
+        System.out.print("Test: Pit Call Advisor Reuses Its Tree... ");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Track track = new Track("S5", "Interlagos", 40);
+            List<Pair<Driver, Team>> field = buildField(75, 80, 85, 90);
+            List<PitPlan> plans = new ArrayList<>();
+            for (Pair<Driver, Team> participant : field) {
+                plans.add(new PitStrategyOptimizer(track, participant.getSecond().getCar(), participant.getFirst()).optimize());
+            }
+            RaceEngine engine = new RaceEngine(field, track, WeatherCondition.DRY, 9L,
+                RaceVariance.MONTE_CARLO, true, null,
+                LapKernel.getBest(), plans);
+            engine.start();
+            for (int i = 0; i < 10; i++) engine.step();
+
+            LinkedBlockingQueue<List<PitAdvice>> received = new LinkedBlockingQueue<>();
+            PitCallAdvisor advisor = new PitCallAdvisor(List.of(1, 3), advice -> {
+                received.add(advice);
+                return Unit.INSTANCE;
+            }, 100L, pool);
+
+            advisor.update(engine.fork(engine.getSeed()));
+            List<PitAdvice> first = received.poll(5, TimeUnit.SECONDS);
+            int nodesAfterFirst = advisor.getNodeCount();
+
+            // One lap later the trees move down to the stay-out child instead of starting over
+            engine.step();
+            advisor.update(engine.fork(engine.getSeed()));
+            List<PitAdvice> second = received.poll(5, TimeUnit.SECONDS);
+            int nodesAfterSecond = advisor.getNodeCount();
+            advisor.close();
+
+            boolean advised = first != null && second != null && first.size() == 2 && second.size() == 2 &&
+                first.get(0).getSlot() == 1 && first.get(0).getLap() == 10 && second.get(0).getLap() == 11 &&
+                first.get(0).getExpectedPosition() >= 1.0 && first.get(0).getExpectedPosition() <= field.size();
+            boolean reused = nodesAfterFirst > 2 * 5 && nodesAfterSecond >= nodesAfterFirst;
+
+            if (advised && reused) {
+                pass();
+            } else {
+                fail("Advice: " + first + " / " + second + ", nodes " + nodesAfterFirst + " -> " + nodesAfterSecond);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void testStrategySweep() {
+        System.out.print("Test: Strategy Sweep Streams a Ranking... ");
+        try {
+            Track track = new Track("S6", "Zandvoort", 20);
+            List<Pair<Driver, Team>> field = buildField(75, 80, 85, 90);
+            Team player = field.get(2).getSecond();
+
+            List<StrategySweepResult> updates = new ArrayList<>();
+            StrategySweepResult result = new StrategySweep(field, track, WeatherCondition.DRY, player, 11L, 20)
+                .run(progress -> {
+                    updates.add(progress);
+                    return Unit.INSTANCE;
+                });
+
+            // 4 stop counts x 3 compounds x 11 fuel loads (50-100 kg in 5 kg steps)
+            int expected = 4 * 3 * 11;
+            boolean streamed = updates.size() == expected && updates.get(0).getCompleted() == 1 &&
+                !updates.get(0).isComplete() && updates.get(expected - 1).isComplete();
+
+            boolean sorted = result.isComplete() && result.getRanking().size() == expected;
+            List<StrategyScore> ranking = result.getRanking();
+            for (int i = 1; i < ranking.size(); i++) {
+                sorted &= ranking.get(i - 1).getExpectedPosition() <= ranking.get(i).getExpectedPosition();
+            }
+            for (StrategyScore score : ranking) {
+                sorted &= score.getExpectedPosition() >= 1.0 && score.getPositionVariance() >= -1e-9;
+            }
+
+            // Same seed, same ranking, whichever threads ran which strategy
+            StrategySweepResult again = new StrategySweep(field, track, WeatherCondition.DRY, player, 11L, 20).run();
+            boolean repeatable = true;
+            for (int i = 0; i < expected; i++) {
+                repeatable &= again.getRanking().get(i).getStrategy().getId().equals(ranking.get(i).getStrategy().getId()) &&
+                    again.getRanking().get(i).getExpectedPosition() == ranking.get(i).getExpectedPosition();
+            }
+
+            if (streamed && sorted && repeatable) {
+                pass();
+            } else {
+                fail("Sweep: streamed=" + streamed + ", sorted=" + sorted + ", repeatable=" + repeatable);
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static void testLineupOptimizer() {
+        System.out.print("Test: Lineup Optimizer Over a Large Pool... ");
+        try {
+            // Ten opponents with two drivers each, and a player team with a weak lineup
+            Random random = new Random(5);
+            List<Driver> pool = new ArrayList<>();
+            List<Team> opponents = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Team team = buildTeam("Rival " + i, 60 + i * 4);
+                for (int d = 0; d < 2; d++) {
+                    Driver driver = new Driver("R" + i + "_" + d, "Rival Driver " + i + "_" + d, 60 + random.nextInt(40));
+                    team.addDriver(driver);
+                    pool.add(driver);
+                }
+                opponents.add(team);
+            }
+            Team player = buildTeam("Player", 80);
+            for (int d = 0; d < 2; d++) {
+                Driver driver = new Driver("P" + d, "Player Driver " + d, 55);
+                player.addDriver(driver);
+                pool.add(driver);
+            }
+            for (int i = 0; i < 3000; i++) {
+                pool.add(new Driver("F" + i, "Free Agent " + i, 40 + random.nextInt(56)));
+            }
+            List<Track> tracks = Arrays.asList(new Track("L1", "Monza", 20), new Track("L2", "Monaco", 25),
+                new Track("L3", "Silverstone", 15));
+
+            long start = System.nanoTime();
+            LineupResult result = new LineupOptimizer(player, opponents, pool, tracks, 3L, 40).optimize();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            LineupPlan best = result.getBest();
+            boolean valid = best.getDrivers().size() == 2 && best.getDrivers().get(0) != best.getDrivers().get(1) &&
+                best.getFillsTeam() &&
+                result.getDriversConsidered() == pool.size() && result.getShortlisted() == RaceConstants.LINEUP_SHORTLIST &&
+                result.getFinalists().size() == RaceConstants.LINEUP_FINALISTS;
+
+            // Every finalist is raced on the same seeds as the current lineup, so the best cannot trail it
+            boolean better = result.getCurrent() != null &&
+                best.getExpectedPoints() >= result.getCurrent().getExpectedPoints() &&
+                best.getAnalyticPoints() > result.getCurrent().getAnalyticPoints();
+
+            // The opponents keep full lineups: seats the player takes are refilled from the pool
+            boolean fullField = true;
+            for (LineupPlan plan : result.getFinalists()) {
+                fullField &= new LineupOptimizer(player, opponents, pool, tracks, 3L, 40).field(plan.getDrivers()).size() == 22;
+            }
+
+            LineupResult again = new LineupOptimizer(player, opponents, pool, tracks, 3L, 40).optimize();
+            boolean repeatable = again.getBest().getDrivers().equals(best.getDrivers()) &&
+                again.getBest().getExpectedPoints() == best.getExpectedPoints();
+
+            // A pool too small to fill both seats gives a lineup that cannot be signed; an empty one is refused
+            Team newcomer = buildTeam("Newcomer", 70);
+            LineupPlan single = new LineupOptimizer(newcomer, Collections.emptyList(),
+                Collections.singletonList(new Driver("S0", "Solo", 80)), tracks, 3L, 5).optimize().getBest();
+            boolean shortPool = single.getDrivers().size() == 1 && !single.getFillsTeam();
+            try {
+                new LineupOptimizer(newcomer, Collections.emptyList(), Collections.emptyList(), tracks, 3L, 5).optimize();
+                shortPool = false;
+            } catch (IllegalArgumentException expected) {
+                // Refused
+            }
+
+            if (valid && better && fullField && repeatable && shortPool && millis < 10_000) {
+                pass();
+            } else {
+                fail("Lineup: valid=" + valid + ", better=" + better + ", fullField=" + fullField +
+                    ", repeatable=" + repeatable + ", shortPool=" + shortPool + ", " + millis + " ms");
+            }
+        } catch (Exception e) {
+            fail("Exception thrown: " + e.getMessage());
+        }
+    }
+
+    private static double bestPlanTime(int laps, int performance, int firstLap, double soFar, int stopsLeft, int compound) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < COMPOUNDS.length; c++) {
+            if (compound >= 0 && c != compound) continue;
+
+            // Run to the flag on this set
+            best = Math.min(best, soFar + TireModel.stintTime(COMPOUNDS[c], laps - firstLap + 1, performance));
+
+            // Or pit at the end of some lap and start again
+            if (stopsLeft > 0) {
+                for (int pit = firstLap; pit < laps; pit++) {
+                    double stint = TireModel.stintTime(COMPOUNDS[c], pit - firstLap + 1, performance);
+                    best = Math.min(best, bestPlanTime(laps, performance, pit + 1,
+                        soFar + stint + RaceConstants.PIT_STOP_TIME, stopsLeft - 1, -1));
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Least time lost with exactly the given number of stops, by brute force
+     */
+    private static double exactStops(int laps, int performance, int stops, Tires.TireCompound start) {
+        return exactStops(laps, performance, 1, stops, start.ordinal());
+    }
+
+    private static double exactStops(int laps, int performance, int firstLap, int stopsLeft, int compound) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < COMPOUNDS.length; c++) {
+            if (compound >= 0 && c != compound) continue;
+
+            if (stopsLeft == 0) {
+                best = Math.min(best, TireModel.stintTime(COMPOUNDS[c], laps - firstLap + 1, performance));
+                continue;
+            }
+            for (int pit = firstLap; pit < laps; pit++) {
+                double stint = TireModel.stintTime(COMPOUNDS[c], pit - firstLap + 1, performance);
+                best = Math.min(best, stint + RaceConstants.PIT_STOP_TIME +
+                    exactStops(laps, performance, pit + 1, stopsLeft - 1, -1));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Time lost by a plan, stint by stint and lap by lap for fuel
+     */
+    private static double planTime(PitPlan plan, int performance) {
+        double total = plan.getPitStopCount() * RaceConstants.PIT_STOP_TIME;
+        for (int lap = 1; lap <= plan.getRaceLaps(); lap++) {
+            total += FuelModel.lapTimeDelta(plan.getInitialFuelLoad(), plan.getRaceLaps(), lap);
+        }
+        for (PitPlan.Stint stint : plan.getStints()) {
+            total += TireModel.stintTime(stint.getCompound(), stint.getLaps(), performance);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,95 @@
+package com.david.f1_manager.test;
+
+import com.david.f1_manager.Driver;
+import com.david.f1_manager.Team;
+import com.david.f1_manager.ai.AITeam;
+import com.david.f1_manager.car.*;
+import com.david.f1_manager.domain.RaceEngine;
+import com.david.f1_manager.domain.RaceStanding;
+import kotlin.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Teams, fields, result counters and the summary shared by the race test suites
+ */
+final class TestFixtures {
+
+    private static int passedTests = 0;
+    private static int failedTests = 0;
+
+    private TestFixtures() {
+    }
+
+    static void pass() {
+        System.out.println("PASSED");
+        passedTests++;
+    }
+
+    static void fail(String reason) {
+        System.out.println("FAILED - " + reason);
+        failedTests++;
+    }
+
+    static void printSummary() {
+        System.out.println("\n=== Test Summary ===");
+        System.out.println("Passed: " + passedTests);
+        System.out.println("Failed: " + failedTests);
+        System.out.println("Total:  " + (passedTests + failedTests));
+
+        if (failedTests == 0) {
+            System.out.println("\nAll tests passed!");
+        } else {
+            System.out.println("\nSome tests failed!");
+        }
+    }
+
+    /**
+     * Four drivers of skill 95, 90, 85 and 80 in identical cars with every part at 90
+     */
+    static List<Pair<Driver, Team>> buildField() {
+        return buildField(90, 90, 90, 90);
+    }
+
+    /**
+     * Drivers of skill 95, 90, 85... one per team, each team's parts at the given rating
+     */
+    static List<Pair<Driver, Team>> buildField(int... partPerformances) {
+        List<Pair<Driver, Team>> field = new ArrayList<>();
+        for (int i = 1; i <= partPerformances.length; i++) {
+            Team team = buildTeam("Team " + i, partPerformances[i - 1]);
+            field.add(new Pair<>(new Driver("D" + i, "Driver " + i, 100 - i * 5), team));
+        }
+        return field;
+    }
+
+    static Team buildTeam(String name, int partPerformance) {
+        Team team = new Team("team_" + name, name);
+        team.setCar(buildCar(name, partPerformance));
+        return team;
+    }
+
+    static AITeam buildAITeam(String name, AITeam.AIStrategy strategy, int partPerformance) {
+        AITeam team = new AITeam("team_" + name, name, strategy);
+        team.setCar(buildCar(name, partPerformance));
+        return team;
+    }
+
+    static double totalTimeOf(RaceEngine engine, int slot) {
+        for (RaceStanding standing : engine.getStandings()) {
+            if (standing.getGridSlot() == slot) return standing.getTotalTime();
+        }
+        throw new IllegalArgumentException("No standing for slot " + slot);
+    }
+
+    private static Car buildCar(String name, int partPerformance) {
+        Car car = new Car("C_" + name, name + " Car");
+        car.setEngine(new Engine("E", "Engine", partPerformance));
+        car.setAerodynamics(new Aerodynamics("A", "Aero", partPerformance));
+        car.setTires(new Tires("T", "Tires", partPerformance, Tires.TireCompound.MEDIUM));
+        car.setSuspension(new Suspension("S", "Suspension", partPerformance));
+        car.setGearbox(new Gearbox("G", "Gearbox", partPerformance));
+        return car;
+    }
+}
@@ -9,7 +9,9 @@ import androidx.compose.ui.Modifier
 import androidx.compose.ui.unit.dp
 import com.david.f1_manager.data.DataStore
 import com.david.f1_manager.UserRole
+import com.david.f1_manager.domain.PlaybackSpeed
 import com.david.f1_manager.domain.WeatherCondition
+import com.david.f1_manager.race.RaceStrategy
 import com.david.f1_manager.ui.navigation.Screen
 import com.david.f1_manager.ui.screens.admin.AdminLoginScreen
 import com.david.f1_manager.ui.screens.home.HomeScreen
@@ -28,6 +30,8 @@ fun App() {
     var currentRaceParticipants by remember { mutableStateOf<List<Pair<Driver, Team>>>(emptyList()) }
     var currentRaceTrack by remember { mutableStateOf<Track?>(null) }
     var currentRaceWeather by remember { mutableStateOf(WeatherCondition.DRY) }
+    var currentRaceSpeed by remember { mutableStateOf(PlaybackSpeed.X1) }
+    var currentRaceStrategy by remember { mutableStateOf<RaceStrategy?>(null) }
 
     // Data initialization
     remember {
@@ -61,11 +65,15 @@ fun App() {
                         raceParticipants = currentRaceParticipants,
                         raceTrack = currentRaceTrack,
                         raceWeather = currentRaceWeather,
+                        raceSpeed = currentRaceSpeed,
+                        raceStrategy = currentRaceStrategy,
                         onNavigate = { screen -> currentScreen = screen },
-                        onStartRace = { participants, track, weather ->
+                        onStartRace = { participants, track, weather, speed, strategy ->
                             currentRaceParticipants = participants
                             currentRaceTrack = track
                             currentRaceWeather = weather
+                            currentRaceSpeed = speed
+                            currentRaceStrategy = strategy
                         },
                         onLogout = {
                             currentUser = null
@@ -86,8 +94,10 @@ private fun MainContent(
     raceParticipants: List<Pair<Driver, Team>>,
     raceTrack: Track?,
     raceWeather: WeatherCondition,
+    raceSpeed: PlaybackSpeed,
+    raceStrategy: RaceStrategy?,
     onNavigate: (Screen) -> Unit,
-    onStartRace: (List<Pair<Driver, Team>>, Track, WeatherCondition) -> Unit,
+    onStartRace: (List<Pair<Driver, Team>>, Track, WeatherCondition, PlaybackSpeed, RaceStrategy) -> Unit,
     onLogout: () -> Unit
 ) {
     val currentRole = currentUser?.role ?: UserRole.VIEWER
@@ -115,8 +125,8 @@ private fun MainContent(
                 Screen.RaceSetup -> {
                     RaceSetupScreen(
                         currentRole = currentRole,
-                        onStartRace = { raceId, participants, track, weather ->
-                            onStartRace(participants, track, weather)
+                        onStartRace = { raceId, participants, track, weather, speed, strategy ->
+                            onStartRace(participants, track, weather, speed, strategy)
                             onNavigate(Screen.RaceView(raceId))
                         }
                     )
@@ -128,6 +138,8 @@ private fun MainContent(
                             participants = raceParticipants,
                             track = raceTrack,
                             initialWeather = raceWeather,
+                            playbackSpeed = raceSpeed,
+                            playerStrategy = raceStrategy,
                             onBack = {
                                 onNavigate(Screen.Home)
                             }
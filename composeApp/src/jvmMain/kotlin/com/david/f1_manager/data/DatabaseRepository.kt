@@ -12,6 +12,7 @@ import com.david.f1_manager.car.Engine
 import com.david.f1_manager.car.Gearbox
 import com.david.f1_manager.car.Suspension
 import com.david.f1_manager.car.Tires
+import java.util.SplittableRandom
 
 class DatabaseRepository {
 
@@ -357,9 +358,14 @@ class DatabaseRepository {
         return cars
     }
 
+    /**
+     * Load teams; AI strategies come from [strategySeed] and the team id,
+     * so every load assigns the same strategy to the same team
+     */
     fun loadTeams(
         cars: Map<String, Car>,
-        drivers: Map<String, Driver>
+        drivers: Map<String, Driver>,
+        strategySeed: Long = DEFAULT_STRATEGY_SEED
     ): Pair<Map<String, Team>, List<AITeam>> {
         val teams = mutableMapOf<String, Team>()
         val aiTeams = mutableListOf<AITeam>()
@@ -377,8 +383,10 @@ class DatabaseRepository {
 
             // Determine if it's an AI team (simple check: starts with "ai")
             val team = if (id.startsWith("ai")) {
-                // For AI teams we pick a random strategy at load time
-                AITeam(id, name, AITeam.AIStrategy.entries.random())
+                // For AI teams we pick a seeded random strategy at load time
+                val strategies = AITeam.AIStrategy.entries
+                val random = SplittableRandom(strategySeed xor id.hashCode().toLong())
+                AITeam(id, name, strategies[random.nextInt(strategies.size)])
             } else {
                 Team(id, name)
             }
@@ -512,4 +520,9 @@ class DatabaseRepository {
 
         return rowsAffected > 0
     }
-}
\ No newline at end of file
+
+    companion object {
+        // Seed for AI strategy assignment when none is given
+        const val DEFAULT_STRATEGY_SEED = 0x5EED_F1L
+    }
+}
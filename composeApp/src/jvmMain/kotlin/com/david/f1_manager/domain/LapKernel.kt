@@ -0,0 +1,85 @@
+package com.david.f1_manager.domain
+
+/**
+ * The data-parallel part of a lap, over every car's slot in the race state:
+ *   lapTimes[slot] = baseLapTimes[slot] * weatherFactor * safetyCarMultiplier   (lapTimes)
+ *   cumulativeTimes[slot] += lapTimes[slot]                                     (addLap)
+ * RaceEngine adds tire, fuel, AI and noise deltas to the lap times in between, one car at a time
+ *
+ * Implementations must multiply in this order and then add (no fused multiply-add), so every
+ * kernel gives bit-identical race times and seeded races replay the same everywhere
+ */
+interface LapKernel {
+    val name: String
+
+    fun lapTimes(
+        baseLapTimes: DoubleArray,
+        weatherFactor: Double,
+        safetyCarMultiplier: Double,
+        lapTimes: DoubleArray,
+        count: Int
+    )
+
+    fun addLap(cumulativeTimes: DoubleArray, lapTimes: DoubleArray, count: Int)
+
+    companion object {
+        // Set -Df1manager.vector=false to force the scalar kernel
+        private const val VECTOR_PROPERTY = "f1manager.vector"
+        private const val VECTOR_KERNEL_CLASS = "com.david.f1_manager.domain.VectorLapKernel"
+
+        /**
+         * Plain loops, always available
+         */
+        @JvmStatic
+        val scalar: LapKernel = ScalarLapKernel
+
+        /**
+         * SIMD kernel when jdk.incubator.vector is available (run with --add-modules jdk.incubator.vector),
+         * otherwise the scalar one
+         */
+        @JvmStatic
+        val best: LapKernel by lazy { loadVectorKernel() ?: scalar }
+
+        /**
+         * The Vector API kernel, or null when the incubator module is not available or the CPU has no SIMD lanes
+         * Loaded reflectively so nothing links against jdk.incubator.vector unless it is there
+         */
+        @JvmStatic
+        fun loadVectorKernel(): LapKernel? {
+            if (!System.getProperty(VECTOR_PROPERTY, "true").toBoolean()) return null
+
+            return try {
+                Class.forName(VECTOR_KERNEL_CLASS).getMethod("create").invoke(null) as LapKernel?
+            } catch (e: ReflectiveOperationException) {
+                null
+            } catch (e: LinkageError) {
+                null
+            }
+        }
+    }
+}
+
+/**
+ * One car at a time
+ */
+private object ScalarLapKernel : LapKernel {
+    override val name = "scalar"
+
+    override fun lapTimes(
+        baseLapTimes: DoubleArray,
+        weatherFactor: Double,
+        safetyCarMultiplier: Double,
+        lapTimes: DoubleArray,
+        count: Int
+    ) {
+        for (slot in 0 until count) {
+            lapTimes[slot] = baseLapTimes[slot] * weatherFactor * safetyCarMultiplier
+        }
+    }
+
+    override fun addLap(cumulativeTimes: DoubleArray, lapTimes: DoubleArray, count: Int) {
+        for (slot in 0 until count) {
+            cumulativeTimes[slot] += lapTimes[slot]
+        }
+    }
+}
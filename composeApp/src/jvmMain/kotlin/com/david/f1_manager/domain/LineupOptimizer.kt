@@ -0,0 +1,272 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.race.PitStrategyOptimizer
+import java.util.IdentityHashMap
+import java.util.concurrent.ForkJoinPool
+import kotlin.math.abs
+import kotlin.math.exp
+import kotlin.math.sqrt
+
+/**
+ * A lineup for the player's team and the points it is expected to score over the season
+ *
+ * @param transfers drivers signed from opponents, with the team they leave
+ * @param refills drivers opponents sign to fill the seats transfers leave, with the team they join
+ * @param analyticPoints season points from the analytic race-time model
+ * @param expectedPoints season points from Monte Carlo races (NaN if the lineup was not raced)
+ */
+class LineupPlan(
+    val drivers: List<Driver>,
+    val transfers: List<Pair<Driver, Team>>,
+    val refills: List<Pair<Driver, Team>>,
+    val analyticPoints: Double,
+    val expectedPoints: Double,
+    val simulations: Int
+) {
+    /**
+     * True if the lineup fills every seat; a shorter one (too small a pool) cannot be signed
+     */
+    val fillsTeam: Boolean
+        get() = drivers.size >= Team.MAX_DRIVERS
+}
+
+/**
+ * Outcome of LineupOptimizer.optimize()
+ *
+ * @param best finalist with the most Monte Carlo points
+ * @param current the team's lineup today, raced the same way (null if the team has no drivers)
+ * @param finalists lineups raced with Monte Carlo, best first
+ */
+class LineupResult(
+    val best: LineupPlan,
+    val current: LineupPlan?,
+    val finalists: List<LineupPlan>,
+    val driversConsidered: Int,
+    val shortlisted: Int
+)
+
+/**
+ * Picks the two drivers from the whole pool that score the player's team the most championship
+ * points over a season of [tracks], in its current car against the current [opponents]
+ *
+ * Free drivers can simply be signed; a driver signed from an opponent leaves a seat that the
+ * opponent fills with the best driver nobody has signed. Lineups are judged in two stages:
+ * - analytic: each car's race time is treated as normal - laps x lap time from RaceEntry's bonuses
+ *   plus its fastest pit plan, with the spread Monte Carlo lap noise and crashes give it - so the
+ *   chance of finishing in each position, and the expected points, follow in closed form. Every
+ *   driver in the pool is scored on their own this way; only the LINEUP_SHORTLIST best go on, and
+ *   every pair of those is scored together
+ * - Monte Carlo: the LINEUP_FINALISTS best pairs and the current lineup are raced on every track
+ *   with MonteCarloRaceEngine (AI decisions, safety cars and all), on the same seeds, and the one
+ *   with the most points wins
+ * Scoring a driver is a few thousand operations, so pools of thousands take well under a second
+ * before the Monte Carlo stage.
+ */
+class LineupOptimizer @JvmOverloads constructor(
+    private val playerTeam: Team,
+    private val opponents: List<Team>,
+    pool: Collection<Driver>,
+    private val tracks: List<Track>,
+    private val seed: Long = 0L,
+    private val runsPerTrack: Int = RaceConstants.LINEUP_MONTE_CARLO_RUNS,
+    private val forkJoinPool: ForkJoinPool = ForkJoinPool.commonPool(),
+    private val cache: RaceResultCache? = null
+) {
+    private val pool = pool.distinct()
+
+    // Opponent each signed driver races for
+    private val signedBy = IdentityHashMap<Driver, Team>().apply {
+        opponents.forEach { team -> team.drivers.forEach { put(it, team) } }
+    }
+
+    // Drivers nobody has signed, best first: the ones opponents sign to fill a seat
+    private val freeAgents = this.pool
+        .filter { it !in signedBy && it !in playerTeam.drivers }
+        .sortedWith(BEST_FIRST)
+
+    // Lap time without the driver's part, and pit plan time loss, per team and track
+    private val carLapTimes = IdentityHashMap<Team, DoubleArray>()
+    private val planLosses = IdentityHashMap<Team, DoubleArray>()
+
+    init {
+        require(tracks.isNotEmpty()) { "A season needs at least one track" }
+        (opponents + playerTeam).forEach { team ->
+            carLapTimes[team] = DoubleArray(tracks.size) { t -> carLapTime(team, tracks[t]) }
+            planLosses[team] = DoubleArray(tracks.size) { t -> planLoss(team, tracks[t]) }
+        }
+    }
+
+    fun optimize(): LineupResult {
+        require(pool.isNotEmpty()) { "The driver pool is empty" }
+
+        // Stage 1: every driver on their own, then every pair from the shortlist
+        val shortlist = pool
+            .map { driver -> driver to analyticPoints(listOf(driver)) }
+            .sortedWith(compareByDescending<Pair<Driver, Double>> { it.second }.thenBy { it.first.id })
+            .take(RaceConstants.LINEUP_SHORTLIST)
+            .map { it.first }
+
+        val pairs = mutableListOf<Pair<List<Driver>, Double>>()
+        if (shortlist.size < 2) {
+            pairs.add(shortlist to analyticPoints(shortlist))
+        } else {
+            for (i in shortlist.indices) {
+                for (j in i + 1 until shortlist.size) {
+                    val lineup = listOf(shortlist[i], shortlist[j])
+                    pairs.add(lineup to analyticPoints(lineup))
+                }
+            }
+        }
+        pairs.sortByDescending { it.second }
+
+        // Stage 2: race the finalists
+        val finalists: List<LineupPlan>
+        val current: LineupPlan?
+        try {
+            finalists = pairs.take(RaceConstants.LINEUP_FINALISTS)
+                .map { (lineup, analytic) -> race(lineup, analytic) }
+                .sortedByDescending { it.expectedPoints }
+            current = playerTeam.drivers.takeIf { it.isNotEmpty() }?.let { race(it, analyticPoints(it)) }
+        } finally {
+            cache?.checkpoint()
+        }
+        return LineupResult(finalists.first(), current, finalists, pool.size, shortlist.size)
+    }
+
+    /**
+     * Field the season would be raced with: the lineup in the player's car, opponents with any
+     * seat the lineup took filled from the free agents
+     */
+    fun field(lineup: List<Driver>): List<Pair<Driver, Team>> {
+        val field = mutableListOf<Pair<Driver, Team>>()
+        lineup.forEach { field.add(it to playerTeam) }
+
+        // The player's current drivers become free if the lineup drops them; at most one seat
+        // per lineup driver needs filling, so only the first few free agents matter
+        val available = (playerTeam.drivers.filter { it !in lineup } +
+            freeAgents.asSequence().filter { it !in lineup }.take(lineup.size))
+            .sortedWith(BEST_FIRST)
+            .iterator()
+        for (team in opponents) {
+            for (driver in team.drivers) {
+                if (driver !in lineup) {
+                    field.add(driver to team)
+                } else if (available.hasNext()) {
+                    field.add(available.next() to team)
+                }
+            }
+        }
+        return field
+    }
+
+    /**
+     * Season points for the lineup from the analytic race-time model
+     */
+    fun analyticPoints(lineup: List<Driver>): Double {
+        val field = field(lineup)
+        val n = field.size
+        val means = DoubleArray(n)
+        val variances = DoubleArray(n)
+        val distribution = DoubleArray(n + 1)
+        val variance = RaceVariance.MONTE_CARLO
+        var total = 0.0
+
+        for (t in tracks.indices) {
+            val laps = tracks[t].laps
+            for (slot in 0 until n) {
+                val (driver, team) = field[slot]
+                val lapTime = carLapTimes.getValue(team)[t] -
+                    RaceConstants.BASE_LAP_TIME_SECONDS * driver.skill / 100.0 * RaceConstants.MAX_DRIVER_BONUS
+                val crash = variance.crashChancePerLap
+                means[slot] = laps * lapTime + planLosses.getValue(team)[t] +
+                    laps * crash * RaceConstants.CRASH_PENALTY
+                // Uniform lap noise of +/- jitter, and a Bernoulli crash penalty, every lap
+                val noise = lapTime * variance.lapTimeJitter
+                variances[slot] = laps * (noise * noise / 3.0 +
+                    crash * (1.0 - crash) * RaceConstants.CRASH_PENALTY * RaceConstants.CRASH_PENALTY)
+            }
+
+            for (slot in lineup.indices) {
+                // Finishing position = number of cars ahead, a sum of independent Bernoullis
+                distribution.fill(0.0)
+                distribution[0] = 1.0
+                var cars = 0
+                for (other in 0 until n) {
+                    if (other == slot) continue
+                    val ahead = normalCdf(
+                        (means[slot] - means[other]) / sqrt(variances[slot] + variances[other])
+                    )
+                    cars++
+                    for (k in cars downTo 1) {
+                        distribution[k] = distribution[k] * (1.0 - ahead) + distribution[k - 1] * ahead
+                    }
+                    distribution[0] *= 1.0 - ahead
+                }
+                for (position in 0..minOf(cars, RaceConstants.CHAMPIONSHIP_POINTS.size - 1)) {
+                    total += distribution[position] * RaceConstants.CHAMPIONSHIP_POINTS[position]
+                }
+            }
+        }
+        return total
+    }
+
+    /**
+     * Season points for the lineup from seeded Monte Carlo races on every track
+     * Every lineup uses the same seeds, so they are compared on the same futures
+     */
+    fun monteCarloPoints(lineup: List<Driver>): Double {
+        var total = 0.0
+        for ((t, track) in tracks.withIndex()) {
+            val field = field(lineup)
+            val plans = PitPlanner.planField(field, track, null, null)
+            val result = MonteCarloRaceEngine(
+                field, track, WeatherCondition.DRY, RaceVariance.MONTE_CARLO, plans, forkJoinPool, cache
+            ).run(runsPerTrack, seed + t)
+            for (slot in lineup.indices) {
+                for (position in 0 until minOf(result.fieldSize, RaceConstants.CHAMPIONSHIP_POINTS.size)) {
+                    total += result.positionProbability(slot, position) * RaceConstants.CHAMPIONSHIP_POINTS[position]
+                }
+            }
+        }
+        return total
+    }
+
+    private fun race(lineup: List<Driver>, analytic: Double): LineupPlan {
+        val transfers = lineup.mapNotNull { driver -> signedBy[driver]?.let { driver to it } }
+        val refills = field(lineup).drop(lineup.size).filter { (driver, team) -> signedBy[driver] !== team }
+        return LineupPlan(lineup, transfers, refills, analytic, monteCarloPoints(lineup), runsPerTrack * tracks.size)
+    }
+
+    /**
+     * Lap time of the team's car on the track with a driver of skill 0 (the driver bonus is linear in skill)
+     */
+    private fun carLapTime(team: Team, track: Track): Double {
+        val reference = Driver("lineup_reference", "Reference", 50)
+        val carBonus = RaceEntry.totalBonus(reference, team.car, track) - 0.5 * RaceConstants.MAX_DRIVER_BONUS
+        return RaceConstants.BASE_LAP_TIME_SECONDS * (1.0 - carBonus)
+    }
+
+    private fun planLoss(team: Team, track: Track): Double {
+        val tirePerformance = team.car?.tires?.performance ?: RaceEntry.DEFAULT_TIRE_PERFORMANCE
+        return PitStrategyOptimizer(track.laps, tirePerformance, RaceConstants.PIT_STOP_TIME, 0.0).optimize().timeLoss
+    }
+
+    companion object {
+        private val BEST_FIRST = compareByDescending<Driver> { it.skill }.thenBy { it.id }
+
+        /**
+         * Standard normal CDF (Abramowitz and Stegun 7.1.26, error below 1e-7)
+         */
+        @JvmStatic
+        fun normalCdf(x: Double): Double {
+            val z = abs(x) / sqrt(2.0)
+            val t = 1.0 / (1.0 + 0.3275911 * z)
+            val poly = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+            val erf = 1.0 - poly * exp(-z * z)
+            return if (x >= 0) 0.5 * (1.0 + erf) else 0.5 * (1.0 - erf)
+        }
+    }
+}
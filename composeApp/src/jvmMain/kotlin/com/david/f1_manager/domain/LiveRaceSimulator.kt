@@ -4,25 +4,74 @@ import androidx.compose.runtime.*
 import com.david.f1_manager.Driver
 import com.david.f1_manager.Team
 import com.david.f1_manager.Track
-import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.delay
-import kotlinx.coroutines.launch
+import com.david.f1_manager.car.Tires
+import com.david.f1_manager.race.PitPlan
+import java.io.File
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * Live race simulator that runs lap-by-lap with real-time updates
- * 1 lap = 1 second in real time
- * Enhanced with weather, safety car, and auto-overtake detection
+ * 1 lap = 1 second in real time at 1x; see [PlaybackSpeed] for faster playback and step mode
+ * The UI is refreshed at most ~30 times per second, however many laps run in between
+ * Thin Compose observer of RaceEngine: the engine does the simulation,
+ * this class paces it on the shared RaceScheduler and mirrors its state into snapshot state for the UI
+ * The full event history is written to [journalFile] when one is given
+ * Each grid slot runs its entry of [pitPlans] (see PitPlanner), and [advisedSlots] get live pit-call advice
+ * The same [seed] and the same triggers at the same laps give the same race (see replay())
  */
 class LiveRaceSimulator(
-    private val participants: List<Pair<Driver, Team>>,
-    private val track: Track,
-    initialWeather: WeatherCondition = WeatherCondition.DRY
+    participants: List<Pair<Driver, Team>>,
+    track: Track,
+    initialWeather: WeatherCondition,
+    seed: Long,
+    playbackSpeed: PlaybackSpeed = PlaybackSpeed.X1,
+    journalFile: File? = null,
+    pitPlans: List<PitPlan?> = emptyList(),
+    advisedSlots: List<Int> = emptyList(),
+    private val scheduler: RaceScheduler = RaceScheduler.shared
 ) {
+    private val journal = journalFile?.let { file ->
+        RaceEventJournal.create(file, track.name, track.laps, participants.map { it.first.name })
+    }
+
+    private val engine = RaceEngine(participants, track, initialWeather, seed, journal = journal, pitPlans = pitPlans)
+
+    // Ticks this race on the scheduler; null until the race starts
+    private var scheduledRace: RaceScheduler.ScheduledRace? = null
+
+    // Lap progress carried between frames at fixed speeds (only touched by the tick)
+    private var lapProgress = 0.0
+
+    @Volatile
+    private var lastTickNanos = 0L
+
+    // Laps requested with nextLap(), run by the next tick
+    private val requestedLaps = AtomicInteger()
+
+    // Copy of the race as last published, forked for what-if questions from any thread
+    @Volatile
+    private var snapshot = engine.fork(seed)
+
+    private val whatIfAnalyzer = WhatIfAnalyzer()
+
+    // Background Monte Carlo from every published state; closed when the race ends
+    private val winProbabilityTicker = WinProbabilityTicker({ estimate -> winProbabilities = estimate })
+
+    // Tree search for the player's pit calls from every published state; closed when the race ends
+    private val pitCallAdvisor = if (advisedSlots.isNotEmpty()) {
+        PitCallAdvisor(advisedSlots, { advice -> pitAdvice = advice })
+    } else {
+        null
+    }
+
+    // Event version already copied into eventLog
+    private var publishedEventVersion = -1L
+
     var currentLap by mutableStateOf(0)
         private set
 
-    var standings by mutableStateOf<List<RaceStanding>>(emptyList())
+    var standings by mutableStateOf(engine.standings)
         private set
 
     var isRacing by mutableStateOf(false)
@@ -31,300 +80,272 @@ class LiveRaceSimulator(
     var isFinished by mutableStateOf(false)
         private set
 
+    var isPaused by mutableStateOf(false)
+        private set
+
+    // Why the race stopped early, if a tick failed; the race then has no result
+    var failure by mutableStateOf<String?>(null)
+        private set
+
+    var playbackSpeed by mutableStateOf(playbackSpeed)
+        private set
+
     // Structured event log with emojis
     var eventLog by mutableStateOf<List<RaceEventLog>>(emptyList())
         private set
 
     // Weather state that affects all drivers
-    var weatherState by mutableStateOf(WeatherState(WeatherCondition.DRY, 1.0))
+    var weatherState by mutableStateOf(engine.weatherState)
         private set
 
     // Safety car state that slows all drivers
-    var safetyCarState by mutableStateOf(SafetyCarState())
+    var safetyCarState by mutableStateOf(engine.safetyCarState)
         private set
 
-    // Time penalties for each participant (in seconds)
-    private val penalties = mutableMapOf<String, Double>()
-
-    // Cumulative race times tracked lap-by-lap (in seconds)
-    // This allows weather changes to affect only future laps, not historical ones
-    private val cumulativeTimes = mutableMapOf<String, Double>()
-
-    init {
-        // Initialize standings with starting positions
-        standings = participants.mapIndexed { index, (driver, team) ->
-            RaceStanding(
-                position = index + 1,
-                driverName = driver.name,
-                teamName = team.name,
-                totalTime = 0.0,
-                gap = if (index == 0) "Leader" else "0.0s"
-            )
-        }
+    // Latest answered what-if question
+    var whatIfResult by mutableStateOf<WhatIfResult?>(null)
+        private set
 
-        // Initialize weather state from parameter
-        weatherState = WeatherState(initialWeather, getGripMultiplier(initialWeather))
+    var isAnalyzing by mutableStateOf(false)
+        private set
 
-        // Initialize cumulative times to 0.0 for all drivers
-        participants.forEach { (driver, _) ->
-            cumulativeTimes[driver.name] = 0.0
-        }
-    }
+    // Live win/podium probabilities, refined in the background while the race runs
+    var winProbabilities by mutableStateOf<WinProbabilityEstimate?>(null)
+        private set
+
+    // Latest pit-call advice for the advised slots
+    var pitAdvice by mutableStateOf<List<PitAdvice>>(emptyList())
+        private set
 
     /**
-     * Lap time calculation with percentage-based bonuses.
-     *
-     * Formula breakdown:
-     *   baseLapTime = 90 seconds (reference lap time)
-     *   totalBonus = driver (0-10%) + car (0-5%) + track (0-5%) = max 20% improvement
-     *   weatherPenalty = 0% (dry), 10% (light rain), 20% (heavy rain)
-     *   safetyCarMultiplier = 1.0 (normal) or 1.5 (50% slower under safety car)
-     *
-     *   finalLapTime = 90 * (1 - totalBonus) * (1 + weatherPenalty) * safetyCarMultiplier
-     *
-     * Example (Max Verstappen, 95 skill, RB20 with 93 performance, Monza SPEED, DRY):
-     *   driverBonus = 0.095 (9.5%), carBonus = 0.0465 (4.65%), trackBonus = 0.047 (4.7%)
-     *   totalBonus = 0.1885 (18.85% improvement)
-     *   lapTime = 90 * (1 - 0.1885) = 73.04 seconds
-     *
+     * Start the race simulation
      */
-    private fun calculateLapTime(driver: Driver, team: Team): Double {
-        val baseLapTime = RaceConstants.BASE_LAP_TIME_SECONDS
-
-        // 1. Driver skill bonus (0-10%)
-        val driverBonus = (driver.skill / 100.0) * RaceConstants.MAX_DRIVER_BONUS
-
-        // 2. Car performance bonus (0-5%)
-        val carPerformance = team.car?.calculateOverallPerformance() ?: 50.0
-        val carBonus = (carPerformance / 100.0) * RaceConstants.MAX_CAR_BONUS
-
-        // 3. Track characteristic bonus
-        val trackBonus = calculateTrackBonus(team, track.characteristics)
-
-        // 4. Weather penalty
-        val weatherPenalty = 1.0 - weatherState.gripMultiplier
-
-        // 5. Safety car slowdown
-        val safetyCarMultiplier = if (safetyCarState.isActive) RaceConstants.SAFETY_CAR_SPEED_MULTIPLIER else 1.0
+    fun startRace() {
+        if (isRacing || isFinished) return
 
-        // Final calculation
-        val totalBonus = driverBonus + carBonus + trackBonus
-        return baseLapTime * (1.0 - totalBonus) * (1.0 + weatherPenalty) * safetyCarMultiplier
+        isRacing = true
+        engine.start()
+        publish()
+
+        // One tick per frame; the journal is closed whether the race finishes, is cancelled or fails
+        lastTickNanos = System.nanoTime()
+        scheduledRace = scheduler.schedule(
+            FRAME_INTERVAL_MILLIS,
+            onCancel = { journal?.close() },
+            onError = ::stopOnError,
+            task = ::tick
+        )
     }
 
     /**
-     * Calculate track-specific bonus based on car characteristics
+     * A tick threw: stop the race as if it was cancelled and say why
      */
-    private fun calculateTrackBonus(team: Team, characteristic: Track.TrackCharacteristics?): Double {
-        val car = team.car ?: return 0.0
-
-        return when (characteristic) {
-            Track.TrackCharacteristics.SPEED -> {
-                // Engine power bonus (up to 5%)
-                val enginePerf = (car.engine?.performance ?: 50) / 100.0
-                enginePerf * RaceConstants.MAX_TRACK_BONUS_SPECIALIZED
-            }
-            Track.TrackCharacteristics.TECHNICAL -> {
-                // Aero bonus (up to 5%)
-                val aeroPerf = (car.aerodynamics?.performance ?: 50) / 100.0
-                aeroPerf * RaceConstants.MAX_TRACK_BONUS_SPECIALIZED
-            }
-            Track.TrackCharacteristics.BALANCED -> {
-                // BALANCED tracks get 3% max bonus (vs 5% for specialized tracks)
-                // Why? Because the reward is spread across all car components equally,
-                // no single strength dominates. On SPEED tracks, a great engine gives
-                // full 5% bonus. On BALANCED, you need the whole package to excel.
-                val overallPerf = car.calculateOverallPerformance() / 100.0
-                overallPerf * RaceConstants.MAX_TRACK_BONUS_BALANCED
-            }
-            else -> 0.0
-        }
+    private fun stopOnError(error: Exception) {
+        System.err.println("Race tick failed: ${error.message}")
+        journal?.close()
+        winProbabilityTicker.close()
+        pitCallAdvisor?.close()
+        failure = error.message ?: error.javaClass.simpleName
+        isRacing = false
+        isPaused = false
     }
 
     /**
-     * Start the race simulation
+     * Run the laps due since the last frame, then publish once
+     * @return true while the race is still running
      */
-    fun startRace() {
-        if (isRacing || isFinished) return
-
-        isRacing = true
-        currentLap = 0
-        addEventLog(RaceEventIcons.RACE_START, "Race started at ${track.name}!")
-
-        CoroutineScope(Dispatchers.Default).launch {
-            for (lap in 1..track.laps) {
-                delay(1000L) // 1 second per lap
-                currentLap = lap
-
-                // Accumulate lap times based on CURRENT conditions
-                // This ensures weather/safety car changes only affect the current lap
-                participants.forEach { (driver, team) ->
-                    val lapTime = calculateLapTime(driver, team)
-                    cumulativeTimes[driver.name] = (cumulativeTimes[driver.name] ?: 0.0) + lapTime
+    private fun tick(): Boolean {
+        val now = System.nanoTime()
+        val elapsedSeconds = (now - lastTickNanos) / 1_000_000_000.0
+        lastTickNanos = now
+
+        // Race control queued by the UI since the last frame
+        val commands = engine.applyPendingCommands()
+
+        val speed = playbackSpeed
+        var laps = requestedLaps.getAndSet(0)
+        when (speed) {
+            PlaybackSpeed.STEP -> lapProgress = 0.0
+            PlaybackSpeed.MAX -> {
+                // As many laps as fit in the frame budget
+                val deadline = now + MAX_SPEED_BUDGET_NANOS
+                while (engine.isRunning && System.nanoTime() < deadline) {
+                    engine.step()
+                    laps++
                 }
+            }
+            else -> {
+                lapProgress += elapsedSeconds * speed.lapsPerSecond
+                val dueLaps = lapProgress.toInt()
+                lapProgress -= dueLaps
+                laps += dueLaps
+            }
+        }
 
-                // Store previous standings for overtake detection
-                val previousStandings = standings.toList()
-
-                // Update standings based on lap times
-                updateStandings()
-
-                // Detect overtakes
-                detectOvertakes(previousStandings, standings)
-
-                // Countdown safety car duration each lap
-                // Safety car is deployed for 3-5 laps (random), then automatically removed
-                // During safety car: all drivers lap 50% slower (lapTime × 1.5)
-                if (safetyCarState.isActive) {
-                    val remaining = safetyCarState.lapsRemaining - 1
-                    if (remaining <= 0) {
-                        // Safety car period ended - return to normal racing
-                        safetyCarState = SafetyCarState(false, 0)
-                        addEventLog(RaceEventIcons.RACE_START, "Safety car returns to pits")
-                    } else {
-                        // Still under safety car - decrement remaining laps
-                        safetyCarState = safetyCarState.copy(lapsRemaining = remaining)
-                    }
-                }
+        if (laps == 0) {
+            if (commands > 0) publish()
+            return true
+        }
 
-                // Add lap completion event every 10 laps
-                if (lap % 10 == 0 || lap == track.laps) {
-                    addEventLog(RaceEventIcons.LAP_COMPLETE, "Lap $lap/${track.laps} completed")
-                }
-            }
+        if (speed != PlaybackSpeed.MAX) {
+            repeat(laps) { engine.step() }
+        }
+        publish()
 
+        if (!engine.isRunning) {
+            journal?.close()
+            winProbabilityTicker.close()
+            pitCallAdvisor?.close()
             isRacing = false
             isFinished = true
-            addEventLog(RaceEventIcons.RACE_FINISH, "Race finished! Winner: ${standings.firstOrNull()?.driverName ?: "Unknown"}")
         }
+        return engine.isRunning
     }
 
     /**
-     * Detect overtakes by comparing previous and current standings
+     * Change the playback speed mid-race
      */
-    private fun detectOvertakes(previous: List<RaceStanding>, current: List<RaceStanding>) {
-        previous.forEachIndexed { index, prevStanding ->
-            val currentPos = current.indexOfFirst { it.driverName == prevStanding.driverName }
-            if (currentPos != -1 && currentPos < index) {
-                val overtakenDriver = current.getOrNull(currentPos + 1)?.driverName ?: "unknown"
-                addEventLog(RaceEventIcons.OVERTAKE, "${prevStanding.driverName} overtakes $overtakenDriver!")
-            }
-        }
+    fun changePlaybackSpeed(speed: PlaybackSpeed) {
+        playbackSpeed = speed
     }
 
     /**
-     * Trigger a crash event for selected drivers
+     * Run one more lap (used in STEP mode)
      */
-    fun triggerCrash(driverNames: List<String>) {
-        if (!isRacing || driverNames.isEmpty()) return
-
-        driverNames.forEach { driverName ->
-            // CUMULATIVE penalties: Add 20s to any existing penalty total
-            // Multiple crashes stack: crash + crash = +40s total
-            // This simulates time lost from incidents (repairs, lost positions, etc.)
-            penalties[driverName] = (penalties[driverName] ?: 0.0) + RaceConstants.CRASH_PENALTY
-            addEventLog(RaceEventIcons.CRASH, "$driverName crashed! +20s penalty")
-        }
-        updateStandings()
+    fun nextLap() {
+        if (!isRacing) return
+
+        requestedLaps.incrementAndGet()
     }
 
     /**
-     * Trigger a pit stop event for selected drivers
+     * Hold the race after the current lap
      */
-    fun triggerPitStop(driverNames: List<String>) {
-        if (!isRacing || driverNames.isEmpty()) return
+    fun pauseRace() {
+        if (!isRacing || isPaused) return
 
-        driverNames.forEach { driverName ->
-            penalties[driverName] = (penalties[driverName] ?: 0.0) + RaceConstants.PIT_STOP_TIME
-            addEventLog(RaceEventIcons.PIT_STOP, "$driverName pits (+3s)")
-        }
-        updateStandings()
+        scheduledRace?.pause()
+        isPaused = true
     }
 
     /**
-     * Trigger a safety car event (affects all drivers)
+     * Continue a paused race
      */
-    fun triggerSafetyCar() {
-        if (!isRacing || safetyCarState.isActive) return
+    fun resumeRace() {
+        if (!isRacing || !isPaused) return
 
-        val laps = (RaceConstants.SAFETY_CAR_MIN_LAPS..RaceConstants.SAFETY_CAR_MAX_LAPS).random()
-        safetyCarState = SafetyCarState(isActive = true, lapsRemaining = laps)
-        addEventLog(RaceEventIcons.SAFETY_CAR, "SAFETY CAR deployed for $laps laps!")
+        // Don't count the paused time as laps to catch up on
+        lastTickNanos = System.nanoTime()
+        scheduledRace?.resume()
+        isPaused = false
     }
 
     /**
-     * Trigger a weather change event (affects all drivers)
+     * Stop the race for good (e.g. the user left the race screen); no result is produced
      */
-    fun triggerWeatherChange(newWeather: WeatherCondition) {
+    fun cancelRace() {
         if (!isRacing) return
 
-        val gripMultiplier = getGripMultiplier(newWeather)
-        weatherState = WeatherState(newWeather, gripMultiplier)
+        scheduledRace?.cancel()
+        winProbabilityTicker.close()
+        pitCallAdvisor?.close()
+        isRacing = false
+        isPaused = false
+    }
 
-        val weatherIcon = when (newWeather) {
-            WeatherCondition.DRY -> RaceEventIcons.WEATHER_DRY
-            WeatherCondition.LIGHT_RAIN -> RaceEventIcons.WEATHER_LIGHT_RAIN
-            WeatherCondition.HEAVY_RAIN -> RaceEventIcons.WEATHER_HEAVY_RAIN
-        }
+    /**
+     * Run alternate futures from the race as it stands, with and without [scenario], in the background
+     * The answer arrives in [whatIfResult]; works while paused too
+     */
+    fun askWhatIf(scenario: WhatIfScenario) {
+        if (!isRacing || isAnalyzing) return
+
+        isAnalyzing = true
+        val from = snapshot
+        CompletableFuture
+            .supplyAsync { whatIfAnalyzer.analyze(from, scenario, WHAT_IF_FUTURES, from.seed + from.currentLap) }
+            .whenComplete { result, error ->
+                if (error == null) {
+                    whatIfResult = result
+                } else {
+                    System.err.println("What-if analysis failed: ${error.message}")
+                }
+                isAnalyzing = false
+            }
+    }
 
-        addEventLog(weatherIcon, "Weather: ${newWeather.name.replace("_", " ")}! Grip: ${(gripMultiplier * 100).toInt()}%")
+    /**
+     * Trigger a crash event for selected drivers (by grid slot)
+     * Triggers only queue a command - the race thread applies it on its next frame
+     */
+    fun triggerCrash(slots: List<Int>) {
+        if (!isRacing || slots.isEmpty()) return
+
+        engine.submit(RaceCommand.Crash(slots.toList()))
     }
 
     /**
-     * Update standings based on current lap and penalties
+     * Trigger a pit stop event for selected drivers (by grid slot)
+     * Cars with a pit plan take [compound] tires, or their plan's next compound when it is null
      */
-    private fun updateStandings() {
-        // Calculate times for all participants
-        val unsortedStandings = participants.map { (driver, team) ->
-            // Use ACCUMULATED lap times (tracks weather changes lap-by-lap)
-            // This correctly handles weather changes - only future laps affected
-            val baseTime = cumulativeTimes[driver.name] ?: 0.0
-            val penalty = penalties[driver.name] ?: 0.0
-            val totalTime = baseTime + penalty
-
-            RaceStanding(
-                position = 0, // Will be updated after sorting
-                driverName = driver.name,
-                teamName = team.name,
-                totalTime = totalTime,
-                gap = "" // Will be calculated after sorting
-            )
-        }
+    fun triggerPitStop(slots: List<Int>, compound: Tires.TireCompound? = null) {
+        if (!isRacing || slots.isEmpty()) return
 
-        // Sort by time and assign positions with gaps
-        val sortedStandings = unsortedStandings.sortedBy { it.totalTime }
-        val leaderTime = sortedStandings.firstOrNull()?.totalTime ?: 0.0
+        engine.submit(RaceCommand.PitStop(slots.toList(), compound))
+    }
 
-        standings = sortedStandings.mapIndexed { index, standing ->
-            standing.copy(
-                position = index + 1,
-                gap = if (index == 0) "Leader" else "+${String.format("%.1f", standing.totalTime - leaderTime)}s"
-            )
-        }
+    /**
+     * Trigger a safety car event (affects all drivers)
+     */
+    fun triggerSafetyCar() {
+        if (!isRacing || safetyCarState.isActive) return
+
+        engine.submit(RaceCommand.SafetyCar)
     }
 
     /**
-     * Add event to log, keeping only last 10 events for UI display
+     * Trigger a weather change event (affects all drivers)
      */
-    private fun addEventLog(icon: String, message: String) {
-        eventLog = (eventLog + RaceEventLog(
-            lap = currentLap,
-            icon = icon,
-            message = message
-        )).takeLast(10)
+    fun triggerWeatherChange(newWeather: WeatherCondition) {
+        if (!isRacing) return
+
+        engine.submit(RaceCommand.WeatherChange(newWeather))
     }
 
     /**
-     * Convert weather condition to grip multiplier
-     * DRY: 1.0 (100% grip, 0% penalty)
-     * LIGHT_RAIN: 0.9 (90% grip, 10% penalty)
-     * HEAVY_RAIN: 0.8 (80% grip, 20% penalty)
+     * Seed and applied triggers so far, enough to re-run this race with RaceReplay
+     */
+    fun replay(): RaceReplay = engine.replay()
+
+    /**
+     * Copy the engine state into Compose state
      */
-    private fun getGripMultiplier(weather: WeatherCondition): Double {
-        return when (weather) {
-            WeatherCondition.DRY -> RaceConstants.GRIP_DRY
-            WeatherCondition.LIGHT_RAIN -> RaceConstants.GRIP_LIGHT_RAIN
-            WeatherCondition.HEAVY_RAIN -> RaceConstants.GRIP_HEAVY_RAIN
+    private fun publish() {
+        snapshot = engine.fork(engine.seed)
+        if (engine.isRunning) {
+            winProbabilityTicker.update(snapshot)
+            pitCallAdvisor?.update(snapshot)
         }
+        currentLap = engine.currentLap
+        standings = engine.standings
+        weatherState = engine.weatherState
+        safetyCarState = engine.safetyCarState
+
+        // Only rebuild the last 10 events for UI display when something new happened
+        if (engine.eventVersion != publishedEventVersion) {
+            publishedEventVersion = engine.eventVersion
+            eventLog = engine.recentEvents()
+        }
+    }
+
+    companion object {
+        // ~30 UI updates per second at most
+        private const val FRAME_INTERVAL_MILLIS = 33L
+
+        // Share of a frame spent simulating at MAX speed
+        private const val MAX_SPEED_BUDGET_NANOS = 20_000_000L
+
+        // Alternate futures per what-if question
+        private const val WHAT_IF_FUTURES = 256
     }
 }
@@ -0,0 +1,173 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.race.PitPlan
+import java.util.SplittableRandom
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveTask
+
+/**
+ * Runs many independent seeded headless races in parallel on a work-stealing pool
+ * and tallies where every driver finished
+ * Takes the same inputs RaceViewScreen passes to LiveRaceSimulator, including the field's [pitPlans]
+ * With a [cache], a run that was done before (same field, cars, plans, seed and count) is not raced again
+ */
+class MonteCarloRaceEngine @JvmOverloads constructor(
+    private val participants: List<Pair<Driver, Team>>,
+    private val track: Track,
+    private val weather: WeatherCondition = WeatherCondition.DRY,
+    private val variance: RaceVariance = RaceVariance.MONTE_CARLO,
+    private val pitPlans: List<PitPlan?> = emptyList(),
+    private val pool: ForkJoinPool = ForkJoinPool.commonPool(),
+    private val cache: RaceResultCache? = null
+) {
+    /**
+     * Run [simulations] races; the same seed always gives the same result
+     */
+    fun run(simulations: Int, seed: Long): MonteCarloResult {
+        require(simulations > 0) { "simulations must be positive, got: $simulations" }
+        if (cache != null) {
+            return cache.monteCarlo(participants, track, weather, variance, pitPlans, simulations, seed) {
+                simulate(simulations, seed)
+            }
+        }
+        return simulate(simulations, seed)
+    }
+
+    private fun simulate(simulations: Int, seed: Long): MonteCarloResult {
+        // The field is compiled once per batch; every race forks this engine, which is never run,
+        // so concurrent forks only read it and each race copies just the primitive race arrays
+        val template = RaceEngine(participants, track, weather, seed, variance, recordEvents = false, pitPlans = pitPlans)
+        val counts = pool.invoke(SimulationTask(template, SplittableRandom(seed), 0, simulations))
+        return MonteCarloResult(
+            participants.map { it.first.name },
+            participants.map { it.second.name },
+            simulations,
+            counts
+        )
+    }
+
+    /**
+     * Splits the simulation range in half until it is small enough to run on one worker
+     * Each leaf fills one position-count table: counts[slot * fieldSize + position]
+     * The random stream is split along with the range; the split tree depends only on
+     * the simulation count, so every race gets the same seed whichever thread runs it
+     */
+    private inner class SimulationTask(
+        private val template: RaceEngine,
+        private val random: SplittableRandom,
+        private val from: Int,
+        private val to: Int
+    ) : RecursiveTask<IntArray>() {
+
+        override fun compute(): IntArray {
+            if (to - from <= LEAF_SIZE) {
+                return simulateRange()
+            }
+
+            val mid = (from + to) ushr 1
+            val left = SimulationTask(template, random.split(), from, mid)
+            left.fork()
+            val right = SimulationTask(template, random, mid, to).compute()
+            val merged = left.join()
+            for (i in merged.indices) {
+                merged[i] += right[i]
+            }
+            return merged
+        }
+
+        private fun simulateRange(): IntArray {
+            val fieldSize = participants.size
+            val counts = IntArray(fieldSize * fieldSize)
+
+            repeat(to - from) {
+                val engine = template.fork(random.nextLong())
+                engine.run()
+
+                val order = engine.finishingOrder()
+                for (position in order.indices) {
+                    counts[order[position] * fieldSize + position]++
+                }
+            }
+            return counts
+        }
+    }
+
+    companion object {
+        // Races per leaf task - large enough to amortise task overhead
+        private const val LEAF_SIZE = 32
+    }
+}
+
+/**
+ * Finishing-position distribution for every driver across a Monte Carlo run
+ * Slots follow the order of the participants list
+ */
+class MonteCarloResult(
+    private val driverNames: List<String>,
+    private val teamNames: List<String>,
+    val simulations: Int,
+    private val positionCounts: IntArray  // positionCounts[slot * fieldSize + position]
+) {
+    val fieldSize: Int
+        get() = driverNames.size
+
+    fun driverName(slot: Int): String = driverNames[slot]
+
+    fun teamName(slot: Int): String = teamNames[slot]
+
+    /**
+     * Probability that the driver in [slot] finishes in [position] (0 = winner)
+     */
+    fun positionProbability(slot: Int, position: Int): Double {
+        return positionCounts[slot * fieldSize + position].toDouble() / simulations
+    }
+
+    fun winProbability(slot: Int): Double = positionProbability(slot, 0)
+
+    /**
+     * Races in which the driver in [slot] finished in [position] (0 = winner)
+     */
+    fun positionCount(slot: Int, position: Int): Int = positionCounts[slot * fieldSize + position]
+
+    /**
+     * Pooled result of two runs over the same field
+     */
+    operator fun plus(other: MonteCarloResult): MonteCarloResult {
+        require(other.fieldSize == fieldSize) { "Field sizes differ: $fieldSize vs ${other.fieldSize}" }
+        return MonteCarloResult(
+            driverNames,
+            teamNames,
+            simulations + other.simulations,
+            IntArray(positionCounts.size) { i -> positionCounts[i] + other.positionCounts[i] }
+        )
+    }
+
+    fun podiumProbability(slot: Int): Double {
+        var total = 0.0
+        for (position in 0 until minOf(3, fieldSize)) {
+            total += positionProbability(slot, position)
+        }
+        return total
+    }
+
+    /**
+     * Full finishing-position distribution for [slot], index 0 = P1
+     */
+    fun positionDistribution(slot: Int): DoubleArray {
+        return DoubleArray(fieldSize) { position -> positionProbability(slot, position) }
+    }
+
+    /**
+     * Expected finishing position (1-based)
+     */
+    fun expectedPosition(slot: Int): Double {
+        var expected = 0.0
+        for (position in 0 until fieldSize) {
+            expected += (position + 1) * positionProbability(slot, position)
+        }
+        return expected
+    }
+}
@@ -0,0 +1,40 @@
+package com.david.f1_manager.domain
+
+/**
+ * Collects exact overtaker/overtaken pairs for one lap
+ * Fed by RaceState.repairOrder(): every shift in the insertion sort is one car moving ahead of
+ * exactly one other car, so the pairs come out in O(n + overtakes) with no per-lap allocation
+ * (pair buffers are preallocated and only grow if a single lap reshuffles most of the field)
+ */
+class OvertakeDetector(fieldSize: Int) {
+    var count = 0
+        private set
+
+    private var overtakers = IntArray(maxOf(MIN_CAPACITY, fieldSize * 2))
+    private var overtakenSlots = IntArray(overtakers.size)
+
+    fun clear() {
+        count = 0
+    }
+
+    /**
+     * Record that [overtaker] moved ahead of [overtaken] (both grid slots)
+     */
+    fun record(overtaker: Int, overtaken: Int) {
+        if (count == overtakers.size) {
+            overtakers = overtakers.copyOf(count * 2)
+            overtakenSlots = overtakenSlots.copyOf(count * 2)
+        }
+        overtakers[count] = overtaker
+        overtakenSlots[count] = overtaken
+        count++
+    }
+
+    fun overtaker(index: Int): Int = overtakers[index]
+
+    fun overtaken(index: Int): Int = overtakenSlots[index]
+
+    companion object {
+        private const val MIN_CAPACITY = 16
+    }
+}
@@ -0,0 +1,340 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.car.Tires
+import java.io.Closeable
+import java.util.SplittableRandom
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.math.ln
+import kotlin.math.sqrt
+
+/**
+ * What the pit wall can call for a car before its next lap
+ */
+enum class PitCall(val compound: Tires.TireCompound?) {
+    STAY_OUT(null),  // Run the lap as planned (a stop the plan makes this lap still happens)
+    PIT_SOFT(Tires.TireCompound.SOFT),
+    PIT_MEDIUM(Tires.TireCompound.MEDIUM),
+    PIT_HARD(Tires.TireCompound.HARD);
+
+    companion object {
+        @JvmStatic
+        fun forCompound(compound: Tires.TireCompound): PitCall = entries.first { it.compound == compound }
+    }
+}
+
+/**
+ * Best call for one car from the race as it stood after [lap]
+ *
+ * @param expectedPosition expected finishing position after [call] (1 = win)
+ * @param expectedGain places gained on average by [call] over staying out (negative = lost)
+ * @param simulations futures behind the advice, including those kept from earlier laps
+ */
+class PitAdvice(
+    val slot: Int,
+    val lap: Int,
+    val call: PitCall,
+    val expectedPosition: Double,
+    val expectedGain: Double,
+    val simulations: Int
+)
+
+/**
+ * Pit-call advice for the player's cars, from Monte Carlo tree search over the live race
+ *
+ * Each node of a search tree is the car's call before one lap (stay out, or pit for one of the
+ * compounds); a search iteration forks the published race with Monte Carlo variance, follows
+ * UCT choices down the tree lap by lap, expands a leaf once it has been visited enough, runs the
+ * rest of the race on the car's pit plan and scores the finishing position.
+ * Every worker of [pool] grows its own tree per car (root parallelism), so the searches never
+ * share a node; their root statistics are summed for the advice. Trees live in flat arrays that
+ * are allocated once: when the race moves on one lap, the child for the call that was actually
+ * made becomes the new root and keeps its statistics, and only a full tree is cleared and
+ * refilled in place.
+ * Each published lap gets [budgetMillis] of search (less if a newer lap arrives first).
+ * The advice never changes the race by itself; acting on it is an ordinary pit stop trigger.
+ */
+class PitCallAdvisor @JvmOverloads constructor(
+    slots: List<Int>,
+    private val onAdvice: (List<PitAdvice>) -> Unit,
+    private val budgetMillis: Long = RaceConstants.PIT_ADVISOR_BUDGET_MILLIS,
+    private val pool: ForkJoinPool = WinProbabilityTicker.backgroundPool
+) : Closeable {
+    private val slots = slots.toIntArray()
+
+    private val workers = pool.parallelism
+
+    // trees[i * workers + w] is worker w's tree for slots[i], kept from lap to lap
+    private val trees = Array(this.slots.size * workers) { index -> SearchTree(this.slots[index / workers]) }
+
+    @Volatile
+    private var latest: RaceEngine? = null
+
+    @Volatile
+    private var closed = false
+
+    // True while a search loop is queued or running (at most one per advisor)
+    private val searching = AtomicBoolean(false)
+
+    // Snapshot the trees are rooted at (only touched by the search loop)
+    private var rooted: RaceEngine? = null
+
+    /**
+     * Total nodes in use over every tree, for tests and diagnostics
+     */
+    val nodeCount: Int
+        get() = trees.sumOf { it.size }
+
+    /**
+     * Search from [snapshot] (a fork nobody else steps), dropping older work
+     */
+    fun update(snapshot: RaceEngine) {
+        if (closed) return
+
+        latest = snapshot
+        if (searching.compareAndSet(false, true)) {
+            pool.execute(::search)
+        }
+    }
+
+    override fun close() {
+        closed = true
+        latest = null
+    }
+
+    /**
+     * Search each new snapshot for its time budget and report the advice, until the advisor is closed
+     */
+    private fun search() {
+        while (true) {
+            val snapshot = latest
+            if (closed || snapshot == null) {
+                searching.set(false)
+                return
+            }
+
+            if (snapshot === rooted || !snapshot.isRunning) {
+                // Go idle, unless a new snapshot slipped in after we looked
+                searching.set(false)
+                if (latest === snapshot || !searching.compareAndSet(false, true)) return
+                continue
+            }
+
+            reroot(snapshot)
+            val deadline = System.nanoTime() + budgetMillis * 1_000_000L
+            ForkJoinTask.invokeAll(trees.map { tree ->
+                ForkJoinTask.adapt { grow(tree, snapshot, deadline) }
+            })
+            if (closed) continue
+
+            val advice = slots.indices.mapNotNull { i -> advise(i, snapshot) }
+            if (advice.isNotEmpty()) onAdvice(advice)
+        }
+    }
+
+    /**
+     * Move every tree to [snapshot]: down to the call that was made if the race ran exactly one lap, else start over
+     */
+    private fun reroot(snapshot: RaceEngine) {
+        val previous = rooted
+        rooted = snapshot
+        for ((index, tree) in trees.withIndex()) {
+            val call = previous?.let { actualCall(it, snapshot, tree.slot) }
+            tree.reroot(call, SplittableRandom(snapshot.seed xor (snapshot.currentLap * 31L + index)))
+        }
+    }
+
+    private fun grow(tree: SearchTree, snapshot: RaceEngine, deadline: Long) {
+        if (!snapshot.hasPitPlan(tree.slot)) return
+
+        while (!closed && latest === snapshot && System.nanoTime() < deadline) {
+            tree.iterate(snapshot)
+        }
+    }
+
+    /**
+     * Sum the root statistics of every worker's tree for one car
+     * The most visited call is the advice; its expected position is compared with staying out
+     */
+    private fun advise(slotIndex: Int, snapshot: RaceEngine): PitAdvice? {
+        val visits = IntArray(CALLS.size)
+        val positions = DoubleArray(CALLS.size)
+        for (w in 0 until workers) {
+            trees[slotIndex * workers + w].addRootStats(visits, positions)
+        }
+
+        var best = -1
+        for (c in CALLS.indices) {
+            if (visits[c] > 0 && (best < 0 || visits[c] > visits[best])) best = c
+        }
+        if (best < 0) return null
+
+        val bestPosition = positions[best] / visits[best]
+        val stay = PitCall.STAY_OUT.ordinal
+        val stayPosition = if (visits[stay] > 0) positions[stay] / visits[stay] else bestPosition
+        return PitAdvice(
+            slot = slots[slotIndex],
+            lap = snapshot.currentLap,
+            call = CALLS[best],
+            expectedPosition = bestPosition,
+            expectedGain = stayPosition - bestPosition,
+            simulations = visits.sum()
+        )
+    }
+
+    /**
+     * One worker's search tree for one car, in arrays allocated once
+     * The children of a node sit in one block of CALLS.size nodes, in PitCall order
+     */
+    private class SearchTree(val slot: Int) {
+        private val firstChild = IntArray(MAX_NODES)   // -1 until expanded
+        private val visits = IntArray(MAX_NODES)
+        private val scores = DoubleArray(MAX_NODES)    // Sum of scores, 1 = win, 0 = last
+        private val positions = DoubleArray(MAX_NODES) // Sum of finishing positions, 1-based
+
+        // Nodes from the root down to the leaf of the current iteration
+        private val path = IntArray(MAX_DEPTH + 1)
+
+        private val pitSlots = listOf(slot)
+
+        private var root = 0
+
+        private var random = SplittableRandom()
+
+        var size = 0
+            private set
+
+        /**
+         * Keep the subtree under [call] as the new root, or clear the tree when the call
+         * is unknown, was never searched, or too little room is left to grow
+         */
+        fun reroot(call: PitCall?, random: SplittableRandom) {
+            this.random = random
+
+            val child = if (call != null && size > 0 && firstChild[root] >= 0) firstChild[root] + call.ordinal else -1
+            if (child >= 0 && MAX_NODES - size >= MAX_NODES / 4) {
+                root = child
+                return
+            }
+
+            size = 0
+            root = allocate(1)
+        }
+
+        fun iterate(snapshot: RaceEngine) {
+            val future = snapshot.fork(random.nextLong(), RaceVariance.MONTE_CARLO)
+
+            // Selection and expansion: one call per lap while inside the tree
+            var node = root
+            var depth = 0
+            path[0] = node
+            while (future.isRunning && depth < MAX_DEPTH) {
+                if (firstChild[node] < 0) {
+                    val ready = node == root || visits[node] >= EXPAND_VISITS
+                    if (!ready || size + CALLS.size > MAX_NODES) break
+                    firstChild[node] = allocate(CALLS.size)
+                }
+
+                val child = select(node)
+                val compound = CALLS[child - firstChild[node]].compound
+                if (compound != null) future.addPitStop(pitSlots, compound)
+                future.step()
+
+                node = child
+                depth++
+                path[depth] = node
+            }
+
+            // Rollout: the rest of the race on the car's pit plan
+            while (future.step()) {
+                // Keep stepping until the last lap is done
+            }
+
+            val position = future.positionOf(slot)
+            val score = if (future.fieldSize > 1) 1.0 - position.toDouble() / (future.fieldSize - 1) else 1.0
+            for (i in 0..depth) {
+                val n = path[i]
+                visits[n]++
+                scores[n] += score
+                positions[n] += position + 1.0
+            }
+        }
+
+        fun addRootStats(visitsOut: IntArray, positionsOut: DoubleArray) {
+            val first = if (size > 0) firstChild[root] else -1
+            if (first < 0) return
+
+            for (c in CALLS.indices) {
+                visitsOut[c] += visits[first + c]
+                positionsOut[c] += positions[first + c]
+            }
+        }
+
+        /**
+         * UCT: untried calls first, then the best mean score plus an exploration bonus
+         */
+        private fun select(node: Int): Int {
+            val first = firstChild[node]
+            val logVisits = ln(visits[node].coerceAtLeast(1).toDouble())
+            var best = first
+            var bestValue = Double.NEGATIVE_INFINITY
+            for (child in first until first + CALLS.size) {
+                val n = visits[child]
+                if (n == 0) return child
+
+                val value = scores[child] / n + RaceConstants.PIT_ADVISOR_EXPLORATION * sqrt(logVisits / n)
+                if (value > bestValue) {
+                    bestValue = value
+                    best = child
+                }
+            }
+            return best
+        }
+
+        private fun allocate(count: Int): Int {
+            val first = size
+            for (n in first until first + count) {
+                firstChild[n] = -1
+                visits[n] = 0
+                scores[n] = 0.0
+                positions[n] = 0.0
+            }
+            size += count
+            return first
+        }
+    }
+
+    companion object {
+        private val CALLS = PitCall.entries.toTypedArray()
+
+        // Nodes per tree (about 400 KB)
+        private const val MAX_NODES = 1 shl 14
+
+        // Deepest call searched, in laps from the root
+        private const val MAX_DEPTH = 24
+
+        // Visits a leaf needs before its calls are expanded
+        private const val EXPAND_VISITS = 8
+
+        /**
+         * Call the slot actually made between two published snapshots one lap apart,
+         * or null if that can't be told (the trees then start over)
+         * A stop between the laps records the earlier lap; a stop the plan made during the lap records the later one
+         */
+        @JvmStatic
+        fun actualCall(previous: RaceEngine, snapshot: RaceEngine, slot: Int): PitCall? {
+            if (snapshot.currentLap != previous.currentLap + 1) return null
+
+            return when (snapshot.pitStopCount(slot) - previous.pitStopCount(slot)) {
+                0 -> PitCall.STAY_OUT
+                1 -> when (snapshot.lastPitLap(slot)) {
+                    snapshot.currentLap -> PitCall.STAY_OUT
+                    previous.currentLap -> snapshot.tireCompound(slot)?.let { PitCall.forCompound(it) }
+                    else -> null
+                }
+                else -> null
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.race.PitPlan
+import com.david.f1_manager.race.PitStrategyOptimizer
+import com.david.f1_manager.race.RaceStrategy
+
+/**
+ * Pit plans for a whole grid, one per participant in grid order
+ * The player's drivers run the player's RaceStrategy; everyone else runs the fastest plan for their car
+ */
+object PitPlanner {
+    @JvmStatic
+    fun planField(
+        participants: List<Pair<Driver, Team>>,
+        track: Track,
+        playerTeam: Team?,
+        playerStrategy: RaceStrategy?
+    ): List<PitPlan> {
+        return participants.map { (driver, team) ->
+            val optimizer = PitStrategyOptimizer(track, team.car, driver)
+            if (playerStrategy != null && team === playerTeam) {
+                playerStrategy.pitPlan ?: optimizer.optimize(playerStrategy)
+            } else {
+                optimizer.optimize()
+            }
+        }
+    }
+
+    /**
+     * Grid slots driven for the player's team, the cars the pit wall calls for (see PitCallAdvisor)
+     */
+    @JvmStatic
+    fun playerSlots(participants: List<Pair<Driver, Team>>, playerTeam: Team?): List<Int> {
+        if (playerTeam == null) return emptyList()
+        return participants.indices.filter { participants[it].second === playerTeam }
+    }
+}
@@ -0,0 +1,16 @@
+package com.david.f1_manager.domain
+
+/**
+ * How fast a live race is played back
+ * MAX runs laps as fast as the CPU allows, STEP only advances when the user asks for the next lap
+ */
+enum class PlaybackSpeed(
+    val label: String,
+    val lapsPerSecond: Double
+) {
+    X1("1x", 1.0),
+    X4("4x", 4.0),
+    X16("16x", 16.0),
+    MAX("Max", Double.POSITIVE_INFINITY),
+    STEP("Step", 0.0)
+}
@@ -0,0 +1,31 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.car.Tires
+
+/**
+ * A user input applied to a running race between laps
+ * Every applied command is logged with its lap so the race can be replayed
+ */
+sealed class RaceCommand {
+    data class Crash(val slots: List<Int>) : RaceCommand()
+
+    /**
+     * Pit now; cars with a pit plan take fresh tires ([compound], or the plan's next one)
+     */
+    data class PitStop @JvmOverloads constructor(
+        val slots: List<Int>,
+        val compound: Tires.TireCompound? = null
+    ) : RaceCommand()
+
+    data object SafetyCar : RaceCommand()
+
+    data class WeatherChange(val weather: WeatherCondition) : RaceCommand()
+}
+
+/**
+ * A command and the lap that had just been completed when it was applied
+ */
+data class RecordedCommand(
+    val lap: Int,
+    val command: RaceCommand
+)
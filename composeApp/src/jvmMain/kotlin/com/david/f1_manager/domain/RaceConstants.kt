@@ -20,8 +20,47 @@ object RaceConstants {
     const val MAX_TRACK_BONUS_SPECIALIZED = 0.05
     const val MAX_TRACK_BONUS_BALANCED = 0.03
 
+    // Max share of a sector gained (or lost) by its dominant car part
+    const val SECTOR_PART_INFLUENCE = 0.05
+
     // Weather grip multipliers
     const val GRIP_DRY = 1.0
     const val GRIP_LIGHT_RAIN = 0.9
     const val GRIP_HEAVY_RAIN = 0.8
+
+    // Events kept in memory for the live event log (full history goes to the journal)
+    const val EVENT_LOG_CAPACITY = 10
+
+    // Monte Carlo race variance
+    const val MC_LAP_TIME_JITTER = 0.01
+    const val MC_CRASH_CHANCE_PER_LAP = 0.001
+    const val MC_SAFETY_CAR_CHANCE_PER_LAP = 0.01
+
+    // Live win-probability estimates: rollouts per batch, cap, and the 95% CI half-width that is good enough
+    const val WIN_PROBABILITY_BATCH = 64
+    const val WIN_PROBABILITY_MAX_ROLLOUTS = 4096
+    const val WIN_PROBABILITY_TARGET_HALF_WIDTH = 0.02
+    // Least time spent on one lap's estimate before a newer lap replaces it (unless it already converged)
+    const val WIN_PROBABILITY_MIN_RESTART_MILLIS = 250L
+
+    // Pit-call advisor: search time per published lap and UCT exploration constant
+    const val PIT_ADVISOR_BUDGET_MILLIS = 250L
+    const val PIT_ADVISOR_EXPLORATION = 0.7
+
+    // Strategy sweep: seeded races per strategy, and the fuel loads tried (the setup screen's slider range)
+    const val STRATEGY_SWEEP_RUNS = 200
+    const val STRATEGY_SWEEP_MIN_FUEL = 50
+    const val STRATEGY_SWEEP_FUEL_STEP = 5
+
+    // Championship points for P1-P10
+    @JvmField
+    val CHAMPIONSHIP_POINTS = intArrayOf(25, 18, 15, 12, 10, 8, 6, 4, 2, 1)
+
+    // Lineup optimizer: drivers kept after the analytic pass, lineups confirmed with Monte Carlo, races per track
+    const val LINEUP_SHORTLIST = 10
+    const val LINEUP_FINALISTS = 3
+    const val LINEUP_MONTE_CARLO_RUNS = 300
+
+    // Race result cache: results kept in memory and on disk before the least recently used is dropped
+    const val RACE_CACHE_CAPACITY = 512
 }
@@ -0,0 +1,584 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.ai.AIAction
+import com.david.f1_manager.ai.AIDecisionEngine
+import com.david.f1_manager.car.Tires
+import com.david.f1_manager.race.FuelModel
+import com.david.f1_manager.race.PitPlan
+import java.util.SplittableRandom
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Headless race engine that advances a race lap by lap
+ * Holds no Compose state and never waits, so a whole race can run as fast as the CPU allows
+ * LiveRaceSimulator drives the same engine one lap per second and mirrors its state into the UI
+ *
+ * Not thread-safe: only the thread running the race should call its methods.
+ * Other threads (UI, AI, scripts) send race control through [submit], which is applied at the next tick
+ *
+ * @param seed drives every random draw (safety car durations and [variance]);
+ *   the same seed, inputs and commands give a bit-identical race
+ * @param variance random lap-time noise and incidents (NONE for live races)
+ * @param recordEvents false skips overtake detection and event records (used by batch runs)
+ * @param journal optional file log that receives every event (the in-memory ring keeps only the latest)
+ * @param kernel per-lap time updates (SIMD when available; every kernel gives identical times)
+ * @param pitPlans pit plan per grid slot; those slots pit on the planned laps and lose time to tire wear
+ *   and fuel weight (see TireDegradationTable and FuelModel), slots without a plan (or beyond the list)
+ *   run on ideal tires with no fuel. AI teams' cars with a plan race it through AIDecisionEngine
+ */
+class RaceEngine private constructor(
+    // Lap-time snapshot for every participant, compiled once and shared with forks
+    private val entries: List<RaceEntry>,
+    pitPlans: List<PitPlan?>,
+    sourceState: RaceState?,
+    private val track: Track,
+    private val initialWeather: WeatherCondition,
+    val seed: Long,
+    private val variance: RaceVariance,
+    private val recordEvents: Boolean,
+    private val journal: RaceEventJournal?,
+    private val kernel: LapKernel
+) {
+    @JvmOverloads
+    constructor(
+        participants: List<Pair<Driver, Team>>,
+        track: Track,
+        initialWeather: WeatherCondition,
+        seed: Long,
+        variance: RaceVariance = RaceVariance.NONE,
+        recordEvents: Boolean = true,
+        journal: RaceEventJournal? = null,
+        kernel: LapKernel = LapKernel.best,
+        pitPlans: List<PitPlan?> = emptyList()
+    ) : this(
+        participants.map { (driver, team) -> RaceEntry.compile(driver, team, track) },
+        pitPlans,
+        null,
+        track,
+        initialWeather,
+        seed,
+        variance,
+        recordEvents,
+        journal,
+        kernel
+    )
+
+    // Single random stream for this race, seeded explicitly
+    private val random = SplittableRandom(seed)
+
+    // Every command applied so far, in order (see replay())
+    private val commandLog = ArrayList<RecordedCommand>()
+
+    // Commands from any thread, waiting for the next tick boundary (lock-free, many producers)
+    private val pendingCommands = ConcurrentLinkedQueue<RaceCommand>()
+
+    var currentLap = 0
+        private set
+
+    var isStarted = false
+        private set
+
+    var isFinished = false
+        private set
+
+    /**
+     * Current standings, built from the running order only when read
+     */
+    val standings: List<RaceStanding>
+        get() {
+            val cached = publishedStandings
+            if (cached != null) return cached
+            return buildStandings().also { publishedStandings = it }
+        }
+
+    // Standings list from the last read; cleared whenever times or order change
+    private var publishedStandings: List<RaceStanding>? = null
+
+    var weatherState = WeatherState(initialWeather, getGripMultiplier(initialWeather))
+        private set
+
+    var safetyCarState = SafetyCarState()
+        private set
+
+    // Latest events as compact records for the live view (empty, never written, for batch races)
+    private val eventRing = RaceEventRing(if (recordEvents) RaceConstants.EVENT_LOG_CAPACITY else 0)
+
+    // Builds display text for event records, only when they are first read
+    private val eventFormatter by lazy(LazyThreadSafetyMode.NONE) {
+        RaceEventFormatter(track.name, track.laps, entries.map { it.driverName })
+    }
+
+    /**
+     * Increases with every recorded event, so observers can skip unchanged logs
+     */
+    val eventVersion: Long
+        get() = eventRing.version
+
+    // Per-slot times and penalties as primitive arrays (a copy of the parent's when forked)
+    private val state = sourceState?.copy() ?: RaceState(entries, pitPlans)
+
+    val fieldSize: Int
+        get() = state.fieldSize
+
+    val totalLaps: Int
+        get() = track.laps
+
+    val isRunning: Boolean
+        get() = isStarted && !isFinished
+
+    // Overtake pairs from the last lap, reused every lap; null when events are not recorded
+    private val overtakes = if (recordEvents) OvertakeDetector(state.fieldSize) else null
+
+    // Lap-by-lap calls for AI cars; null when no AI car has a pit plan
+    private val ai = if ((0 until state.fieldSize).any { state.aiStrategies[it] != null && state.pitPlans[it] != null }) {
+        AIDecisionEngine()
+    } else {
+        null
+    }
+
+    /**
+     * Run the whole race headless and return the final standings and latest events
+     */
+    fun run(): RaceOutcome {
+        start()
+        while (step()) {
+            // Keep stepping until the last lap is done
+        }
+        return RaceOutcome(standings, recentEvents())
+    }
+
+    /**
+     * Latest events (up to EVENT_LOG_CAPACITY) formatted for display, oldest first
+     */
+    fun recentEvents(): List<RaceEventLog> = eventRing.snapshot(eventFormatter)
+
+    /**
+     * Mark the race as started
+     */
+    fun start() {
+        if (isStarted) return
+
+        isStarted = true
+        currentLap = 0
+        addEvent(RaceEventType.RACE_START)
+    }
+
+    /**
+     * Advance the race by one lap
+     * @return true while there are laps left to run
+     */
+    fun step(): Boolean {
+        if (!isRunning) return false
+
+        applyPendingCommands()
+
+        val lap = currentLap + 1
+        currentLap = lap
+
+        // Accumulate lap times based on CURRENT conditions
+        // This ensures weather/safety car changes only affect the current lap
+        // Weather and safety car are the only per-lap factors; everything else is compiled into the entry
+        val weatherFactor = 1.0 + (1.0 - weatherState.gripMultiplier)
+        val safetyCarMultiplier = if (safetyCarState.isActive) RaceConstants.SAFETY_CAR_SPEED_MULTIPLIER else 1.0
+
+        val fieldSize = state.fieldSize
+        val lapFactors = state.lapFactors
+        val lapTimes = state.lapTimes
+        val aiActions = state.aiActions
+        if (ai != null) {
+            // AI cars read the gaps as they stand after the last lap
+            state.repairOrder()
+            ai.decide(state, lap, track.laps, aiActions)
+        }
+        kernel.lapTimes(state.baseLapTimes, weatherFactor, safetyCarMultiplier, lapTimes, fieldSize)
+        for (slot in 0 until fieldSize) {
+            val baseLapTime = state.baseLapTimes[slot]
+            var lapTime = lapTimes[slot]
+
+            // Tire compound and wear, fuel on board and AI pace, as a share of the slot's lap time
+            val plan = state.pitPlans[slot]
+            if (plan != null) {
+                val delta = state.tireTables[slot].lapTimeDelta(state.compounds[slot], state.tireAge(slot)) +
+                    FuelModel.lapTimeDelta(plan.initialFuelLoad, track.laps, lap) +
+                    aiActions[slot].lapTimeDelta
+                lapTime *= 1.0 + delta / baseLapTime
+            }
+
+            // Random lap-time noise (+/- jitter), only when variance is enabled
+            if (variance.lapTimeJitter > 0.0) {
+                lapTime *= 1.0 + variance.lapTimeJitter * (2.0 * random.nextDouble() - 1.0)
+            }
+            lapTimes[slot] = lapTime
+            if (recordEvents) lapFactors[slot] = lapTime / baseLapTime
+
+            // Random crash for this driver
+            if (variance.crashChancePerLap > 0.0 && random.nextDouble() < variance.crashChancePerLap) {
+                state.penalties[slot] += RaceConstants.CRASH_PENALTY
+                addEvent(RaceEventType.CRASH, slot)
+            }
+        }
+
+        // The whole lap time is added in one step, so race times are bit-identical to unsplit laps
+        // (three rounded sector sums are not). Overtakes are the net passes over the lap - one repair
+        // from the order at the line last lap - so a car passed and handed back mid-lap is no overtake
+        if (recordEvents) System.arraycopy(state.cumulativeTimes, 0, state.lapStartTimes, 0, fieldSize)
+        kernel.addLap(state.cumulativeTimes, lapTimes, fieldSize)
+        if (recordEvents) {
+            val detector = overtakes!!
+            state.repairOrder(detector)
+            reportOvertakes(detector)
+        }
+        runPlannedPitStops(lap)
+        publishedStandings = null
+
+        // Countdown safety car duration each lap
+        // Safety car is deployed for 3-5 laps (random), then automatically removed
+        // During safety car: all drivers lap 50% slower (lapTime × 1.5)
+        if (safetyCarState.isActive) {
+            val remaining = safetyCarState.lapsRemaining - 1
+            if (remaining <= 0) {
+                // Safety car period ended - return to normal racing
+                safetyCarState = SafetyCarState(false, 0)
+                addEvent(RaceEventType.SAFETY_CAR_IN)
+            } else {
+                // Still under safety car - decrement remaining laps
+                safetyCarState = safetyCarState.copy(lapsRemaining = remaining)
+            }
+        }
+
+        // Random safety car deployment
+        if (variance.safetyCarChancePerLap > 0.0 && !safetyCarState.isActive &&
+            random.nextDouble() < variance.safetyCarChancePerLap) {
+            startSafetyCar()
+        }
+
+        // Add lap completion event every 10 laps
+        if (lap % 10 == 0 || lap == track.laps) {
+            addEvent(RaceEventType.LAP_COMPLETE)
+        }
+
+        if (lap >= track.laps) {
+            isFinished = true
+            addEvent(RaceEventType.RACE_FINISH, if (state.fieldSize > 0) state.order[0] else -1)
+            journal?.flush()
+        }
+
+        return !isFinished
+    }
+
+    /**
+     * Wear every slot's tires by a lap and pit the slots whose stint ends on [lap]:
+     * on the planned lap, or when an AI car calls it
+     * Planned stops are part of the plan, not commands, so they are not logged for replay
+     */
+    private fun runPlannedPitStops(lap: Int) {
+        var pitted = false
+        for (slot in 0 until state.fieldSize) {
+            val plan = state.pitPlans[slot] ?: continue
+            val action = state.aiActions[slot]
+            state.tireWear[slot] += action.tireWear
+
+            val next = state.nextStints[slot]
+            val stints = plan.stints
+            val pitNow = if (state.aiStrategies[slot] != null) {
+                action == AIAction.PIT
+            } else {
+                stints[next - 1].lastLap == lap
+            }
+            if (next < stints.size && pitNow) {
+                state.penalties[slot] += RaceConstants.PIT_STOP_TIME
+                val compound = changeTires(slot, plan, null)
+                addEvent(RaceEventType.PIT_STOP, slot, value = compound.ordinal + 1)
+                pitted = true
+            }
+        }
+        if (pitted) state.repairOrder()
+    }
+
+    /**
+     * Fit a fresh set of [compound] (default: the plan's next stint, else the current compound)
+     * Any stop, planned or not, takes the place of the next planned stop; later ones stay as planned
+     */
+    private fun changeTires(slot: Int, plan: PitPlan, compound: Tires.TireCompound?): Tires.TireCompound {
+        val next = state.nextStints[slot]
+        val stints = plan.stints
+        val fitted = compound
+            ?: if (next < stints.size) stints[next].compound else COMPOUNDS[state.compounds[slot]]
+
+        state.compounds[slot] = fitted.ordinal
+        state.tireWear[slot] = 0
+        state.pitStops[slot]++
+        state.lastPitLaps[slot] = currentLap
+        if (next < stints.size) state.nextStints[slot] = next + 1
+        return fitted
+    }
+
+    /**
+     * Log one event per exact overtaker/overtaken pair from the last order repair,
+     * with the sector (1-based) where the pass was made
+     */
+    private fun reportOvertakes(overtakes: OvertakeDetector) {
+        for (i in 0 until overtakes.count) {
+            val overtaker = overtakes.overtaker(i)
+            val overtaken = overtakes.overtaken(i)
+            addEvent(RaceEventType.OVERTAKE, overtaker, overtaken, passSector(overtaker, overtaken) + 1)
+        }
+    }
+
+    /**
+     * Sector of the lap just run in which [overtaker] got ahead of [overtaken] for good: the first
+     * one after which it stays ahead to the line (see SectorModel for the split)
+     */
+    private fun passSector(overtaker: Int, overtaken: Int): Int {
+        var sector = SectorModel.SECTOR_COUNT - 1
+        while (sector > 0 && sectorEndTime(overtaker, sector - 1) < sectorEndTime(overtaken, sector - 1)) {
+            sector--
+        }
+        return sector
+    }
+
+    /**
+     * Race time of [slot], penalties included, at the end of [sector] of the lap just run
+     */
+    private fun sectorEndTime(slot: Int, sector: Int): Double {
+        var time = state.lapStartTimes[slot] + state.penalties[slot]
+        for (s in 0..sector) {
+            time += state.sectorTimes[s * state.fieldSize + slot] * state.lapFactors[slot]
+        }
+        return time
+    }
+
+    /**
+     * Branch off an independent copy of the race as it stands, for what-if futures
+     * Cheap: shares the compiled entries and copies only the primitive race arrays.
+     * The fork keeps no event log or journal, gets its own random stream from [seed],
+     * and does not see commands queued on this engine. Call from the race thread
+     * (an engine that is never run can be forked from any number of threads at once).
+     */
+    @JvmOverloads
+    fun fork(seed: Long, variance: RaceVariance = this.variance): RaceEngine {
+        val fork = RaceEngine(entries, emptyList(), state, track, initialWeather, seed, variance, false, null, kernel)
+        fork.currentLap = currentLap
+        fork.isStarted = isStarted
+        fork.isFinished = isFinished
+        fork.weatherState = weatherState
+        fork.safetyCarState = safetyCarState
+        return fork
+    }
+
+    fun driverName(slot: Int): String = entries[slot].driverName
+
+    /**
+     * Compound the slot is running (null without a pit plan)
+     */
+    fun tireCompound(slot: Int): Tires.TireCompound? = state.compounds[slot].let { if (it >= 0) COMPOUNDS[it] else null }
+
+    fun tireAge(slot: Int): Int = state.tireAge(slot)
+
+    /**
+     * Tire-changing stops made so far by the slot, planned or not
+     */
+    fun pitStopCount(slot: Int): Int = state.pitStops[slot]
+
+    /**
+     * Lap count when the slot last changed tires, -1 if it has not
+     */
+    fun lastPitLap(slot: Int): Int = state.lastPitLaps[slot]
+
+    fun hasPitPlan(slot: Int): Boolean = state.pitPlans[slot] != null
+
+    fun teamName(slot: Int): String = entries[slot].teamName
+
+    /**
+     * Queue a command from any thread; it is applied at the next tick boundary
+     */
+    fun submit(command: RaceCommand) {
+        pendingCommands.add(command)
+    }
+
+    /**
+     * Apply all queued commands on the race thread
+     * @return number of commands taken from the queue
+     */
+    fun applyPendingCommands(): Int {
+        var applied = 0
+        while (true) {
+            val command = pendingCommands.poll() ?: return applied
+            apply(command)
+            applied++
+        }
+    }
+
+    /**
+     * Apply a user command between laps
+     */
+    fun apply(command: RaceCommand) {
+        when (command) {
+            is RaceCommand.Crash -> addCrash(command.slots)
+            is RaceCommand.PitStop -> addPitStop(command.slots, command.compound)
+            is RaceCommand.SafetyCar -> deploySafetyCar()
+            is RaceCommand.WeatherChange -> changeWeather(command.weather)
+        }
+    }
+
+    /**
+     * Seed, variance and command log needed to re-run this race exactly
+     */
+    fun replay(): RaceReplay = RaceReplay(seed, initialWeather, variance, commandLog.toList(), state.pitPlans.toList())
+
+    /**
+     * Add a crash penalty to the drivers in the selected grid slots
+     */
+    fun addCrash(slots: List<Int>) {
+        if (!isRunning || slots.isEmpty()) return
+        commandLog.add(RecordedCommand(currentLap, RaceCommand.Crash(slots.toList())))
+
+        slots.forEach { slot ->
+            // CUMULATIVE penalties: Add 20s to any existing penalty total
+            // Multiple crashes stack: crash + crash = +40s total
+            // This simulates time lost from incidents (repairs, lost positions, etc.)
+            state.penalties[slot] += RaceConstants.CRASH_PENALTY
+            addEvent(RaceEventType.CRASH, slot)
+        }
+        updateStandings()
+    }
+
+    /**
+     * Add a pit stop to the drivers in the selected grid slots
+     * Cars with a pit plan also take fresh tires: [compound], or the plan's next one
+     */
+    @JvmOverloads
+    fun addPitStop(slots: List<Int>, compound: Tires.TireCompound? = null) {
+        if (!isRunning || slots.isEmpty()) return
+        commandLog.add(RecordedCommand(currentLap, RaceCommand.PitStop(slots.toList(), compound)))
+
+        slots.forEach { slot ->
+            state.penalties[slot] += RaceConstants.PIT_STOP_TIME
+            val plan = state.pitPlans[slot]
+            if (plan != null) {
+                val fitted = changeTires(slot, plan, compound)
+                addEvent(RaceEventType.PIT_STOP, slot, value = fitted.ordinal + 1)
+            } else {
+                addEvent(RaceEventType.PIT_STOP, slot)
+            }
+        }
+        updateStandings()
+    }
+
+    /**
+     * Deploy the safety car (affects all drivers)
+     */
+    fun deploySafetyCar() {
+        if (!isRunning || safetyCarState.isActive) return
+        commandLog.add(RecordedCommand(currentLap, RaceCommand.SafetyCar))
+
+        startSafetyCar()
+    }
+
+    /**
+     * Send out the safety car for 3-5 laps drawn from the race's random stream
+     */
+    private fun startSafetyCar() {
+        val laps = random.nextInt(RaceConstants.SAFETY_CAR_MIN_LAPS, RaceConstants.SAFETY_CAR_MAX_LAPS + 1)
+        safetyCarState = SafetyCarState(isActive = true, lapsRemaining = laps)
+        addEvent(RaceEventType.SAFETY_CAR, value = laps)
+    }
+
+    /**
+     * Change the weather (affects all drivers)
+     */
+    fun changeWeather(newWeather: WeatherCondition) {
+        if (!isRunning) return
+        commandLog.add(RecordedCommand(currentLap, RaceCommand.WeatherChange(newWeather)))
+
+        weatherState = WeatherState(newWeather, getGripMultiplier(newWeather))
+        addEvent(RaceEventType.WEATHER, value = newWeather.ordinal)
+    }
+
+    /**
+     * Update running order based on current lap and penalties
+     */
+    private fun updateStandings() {
+        // Use ACCUMULATED lap times (tracks weather changes lap-by-lap)
+        // This correctly handles weather changes - only future laps affected
+        state.repairOrder()
+        publishedStandings = null
+    }
+
+    /**
+     * Build the standings list from the running order (names resolved here)
+     */
+    private fun buildStandings(): List<RaceStanding> {
+        // Batch runs skip the per-lap repair, so make sure the order is current
+        state.repairOrder()
+        return List(state.fieldSize) { position ->
+            val slot = state.order[position]
+            val entry = entries[slot]
+            RaceStanding(
+                position = position + 1,
+                gridSlot = slot,
+                driverName = entry.driverName,
+                teamName = entry.teamName,
+                totalTime = state.totalTime(slot),
+                gapToLeader = state.gapToLeader(slot)
+            )
+        }
+    }
+
+    /**
+     * Current position of one grid slot (0 = leader), without copying the order
+     */
+    fun positionOf(slot: Int): Int {
+        state.repairOrder()
+        return state.positions[slot]
+    }
+
+    /**
+     * Grid slots (indices into participants) ordered by current total time, leader first
+     */
+    fun finishingOrder(): IntArray {
+        state.repairOrder()
+        return state.order.copyOf()
+    }
+
+    /**
+     * Record an event in the ring buffer and the journal (no message text is built here)
+     */
+    private fun addEvent(type: RaceEventType, slotA: Int = -1, slotB: Int = -1, value: Int = 0) {
+        if (!recordEvents) return
+
+        eventRing.add(currentLap, type, slotA, slotB, value)
+        journal?.append(currentLap, type, slotA, slotB, value)
+    }
+
+    companion object {
+        private val COMPOUNDS = Tires.TireCompound.entries.toTypedArray()
+
+        /**
+         * Convert weather condition to grip multiplier
+         * DRY: 1.0 (100% grip, 0% penalty)
+         * LIGHT_RAIN: 0.9 (90% grip, 10% penalty)
+         * HEAVY_RAIN: 0.8 (80% grip, 20% penalty)
+         */
+        @JvmStatic
+        fun getGripMultiplier(weather: WeatherCondition): Double {
+            return when (weather) {
+                WeatherCondition.DRY -> RaceConstants.GRIP_DRY
+                WeatherCondition.LIGHT_RAIN -> RaceConstants.GRIP_LIGHT_RAIN
+                WeatherCondition.HEAVY_RAIN -> RaceConstants.GRIP_HEAVY_RAIN
+            }
+        }
+    }
+}
+
+/**
+ * Final standings and latest events of a race run by RaceEngine
+ * (attach a RaceEventJournal for the full event history)
+ */
+data class RaceOutcome(
+    val standings: List<RaceStanding>,
+    val events: List<RaceEventLog>
+)
@@ -0,0 +1,120 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.ai.AITeam
+import com.david.f1_manager.car.Car
+
+/**
+ * Per-driver snapshot compiled once at race start
+ * Folds driver skill, car bonus and track bonus into one base lap time,
+ * so each lap only needs the weather and safety car multipliers:
+ *
+ *   lapTime = baseLapTime * (1 + weatherPenalty) * safetyCarMultiplier
+ *
+ * The base lap time is also split into sector times (see SectorModel);
+ * tire wear on top of it depends on the compound being run (see TireDegradationTable)
+ */
+class RaceEntry @JvmOverloads constructor(
+    val driverName: String,
+    val teamName: String,
+    val baseLapTime: Double,  // Dry, green-flag lap time in seconds
+    val sectorTimes: DoubleArray = SectorModel.evenSplit(baseLapTime),  // Adds up to baseLapTime
+    val tirePerformance: Int = DEFAULT_TIRE_PERFORMANCE,  // Tires part performance, sets the wear rate
+    val aiStrategy: AITeam.AIStrategy? = null  // Set for AI teams' cars (see AIDecisionEngine)
+) {
+    companion object {
+        // Tire wear rate for cars without a Tires part
+        const val DEFAULT_TIRE_PERFORMANCE = 50
+
+        /**
+         * Lap time calculation with percentage-based bonuses.
+         *
+         * Formula breakdown:
+         *   baseLapTime = 90 seconds (reference lap time)
+         *   totalBonus = driver (0-10%) + car (0-5%) + track (0-5%) = max 20% improvement
+         *   weatherPenalty = 0% (dry), 10% (light rain), 20% (heavy rain)
+         *   safetyCarMultiplier = 1.0 (normal) or 1.5 (50% slower under safety car)
+         *
+         *   finalLapTime = 90 * (1 - totalBonus) * (1 + weatherPenalty) * safetyCarMultiplier
+         *
+         * Only the first part, 90 * (1 - totalBonus), is compiled here - it does not change during a race.
+         *
+         * Example (Max Verstappen, 95 skill, RB20 with 93 performance, Monza SPEED, DRY):
+         *   driverBonus = 0.095 (9.5%), carBonus = 0.0465 (4.65%), trackBonus = 0.047 (4.7%)
+         *   totalBonus = 0.1885 (18.85% improvement)
+         *   lapTime = 90 * (1 - 0.1885) = 73.04 seconds
+         *
+         */
+        @JvmStatic
+        fun compile(driver: Driver, team: Team, track: Track): RaceEntry {
+            val baseLapTime = RaceConstants.BASE_LAP_TIME_SECONDS * (1.0 - totalBonus(driver, team, track))
+            return RaceEntry(
+                driverName = driver.name,
+                teamName = team.name,
+                baseLapTime = baseLapTime,
+                sectorTimes = SectorModel.split(baseLapTime, team.car, track.characteristics),
+                tirePerformance = team.car?.tires?.performance ?: DEFAULT_TIRE_PERFORMANCE,
+                aiStrategy = (team as? AITeam)?.strategy
+            )
+        }
+
+        /**
+         * Driver + car + track bonus as a fraction of the base lap time
+         */
+        @JvmStatic
+        fun totalBonus(driver: Driver, team: Team, track: Track): Double = totalBonus(driver, team.car, track)
+
+        /**
+         * Driver + car + track bonus for a car that is not (yet) part of a team
+         */
+        @JvmStatic
+        fun totalBonus(driver: Driver, car: Car?, track: Track): Double {
+            // 1. Driver skill bonus (0-10%)
+            val driverBonus = (driver.skill / 100.0) * RaceConstants.MAX_DRIVER_BONUS
+
+            // 2. Car performance bonus (0-5%) - computed once and reused for BALANCED tracks
+            val carPerformance = car?.calculateOverallPerformance() ?: 50.0
+            val carBonus = (carPerformance / 100.0) * RaceConstants.MAX_CAR_BONUS
+
+            // 3. Track characteristic bonus
+            val trackBonus = calculateTrackBonus(car, track.characteristics, carPerformance)
+
+            return driverBonus + carBonus + trackBonus
+        }
+
+        /**
+         * Calculate track-specific bonus based on car characteristics
+         */
+        private fun calculateTrackBonus(
+            car: Car?,
+            characteristic: Track.TrackCharacteristics?,
+            carPerformance: Double
+        ): Double {
+            if (car == null) return 0.0
+
+            return when (characteristic) {
+                Track.TrackCharacteristics.SPEED -> {
+                    // Engine power bonus (up to 5%)
+                    val enginePerf = (car.engine?.performance ?: 50) / 100.0
+                    enginePerf * RaceConstants.MAX_TRACK_BONUS_SPECIALIZED
+                }
+                Track.TrackCharacteristics.TECHNICAL -> {
+                    // Aero bonus (up to 5%)
+                    val aeroPerf = (car.aerodynamics?.performance ?: 50) / 100.0
+                    aeroPerf * RaceConstants.MAX_TRACK_BONUS_SPECIALIZED
+                }
+                Track.TrackCharacteristics.BALANCED -> {
+                    // BALANCED tracks get 3% max bonus (vs 5% for specialized tracks)
+                    // Why? Because the reward is spread across all car components equally,
+                    // no single strength dominates. On SPEED tracks, a great engine gives
+                    // full 5% bonus. On BALANCED, you need the whole package to excel.
+                    val overallPerf = carPerformance / 100.0
+                    overallPerf * RaceConstants.MAX_TRACK_BONUS_BALANCED
+                }
+                else -> 0.0
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.david.f1_manager.domain
+
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.Closeable
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+
+/**
+ * Append-only full-history event log written as compact binary records to a local file
+ *
+ * File layout:
+ *   header: magic, format version, track name, total laps, driver count, driver names
+ *   records: lap (int), type (byte), slotA (short), slotB (short), value (int) - 13 bytes each
+ *
+ * Writes go through a buffered stream, so recording an event costs a few primitive writes
+ */
+class RaceEventJournal private constructor(
+    private val output: DataOutputStream
+) : Closeable {
+
+    fun append(lap: Int, type: RaceEventType, slotA: Int, slotB: Int, value: Int) {
+        output.writeInt(lap)
+        output.writeByte(type.ordinal)
+        output.writeShort(slotA)
+        output.writeShort(slotB)
+        output.writeInt(value)
+    }
+
+    fun flush() {
+        output.flush()
+    }
+
+    override fun close() {
+        output.close()
+    }
+
+    companion object {
+        private const val MAGIC = 0x46314556 // "F1EV"
+        private const val FORMAT_VERSION = 1
+
+        /**
+         * Folder for race journals in the user's home directory
+         */
+        @JvmStatic
+        fun defaultDirectory(): File = File(System.getProperty("user.home"), ".f1_manager/race_logs")
+
+        /**
+         * Create a new journal file and write its header
+         */
+        @JvmStatic
+        fun create(file: File, trackName: String, totalLaps: Int, driverNames: List<String>): RaceEventJournal {
+            file.parentFile?.mkdirs()
+            val output = DataOutputStream(BufferedOutputStream(FileOutputStream(file)))
+            output.writeInt(MAGIC)
+            output.writeShort(FORMAT_VERSION)
+            output.writeUTF(trackName)
+            output.writeInt(totalLaps)
+            output.writeShort(driverNames.size)
+            driverNames.forEach { output.writeUTF(it) }
+            return RaceEventJournal(output)
+        }
+
+        /**
+         * Read every event from a journal file, formatted for display
+         */
+        @JvmStatic
+        fun read(file: File): List<RaceEventLog> {
+            DataInputStream(BufferedInputStream(FileInputStream(file))).use { input ->
+                require(input.readInt() == MAGIC) { "Not a race event journal: ${file.name}" }
+                input.readShort() // format version
+
+                val trackName = input.readUTF()
+                val totalLaps = input.readInt()
+                val driverNames = List(input.readShort().toInt()) { input.readUTF() }
+                val formatter = RaceEventFormatter(trackName, totalLaps, driverNames)
+
+                val events = mutableListOf<RaceEventLog>()
+                while (true) {
+                    val lap = try {
+                        input.readInt()
+                    } catch (e: EOFException) {
+                        break
+                    }
+                    val type = RaceEventType.entries[input.readByte().toInt()]
+                    val slotA = input.readShort().toInt()
+                    val slotB = input.readShort().toInt()
+                    val value = input.readInt()
+                    events.add(formatter.format(lap, type, slotA, slotB, value))
+                }
+                return events
+            }
+        }
+    }
+}
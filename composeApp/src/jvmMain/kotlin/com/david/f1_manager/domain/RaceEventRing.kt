@@ -0,0 +1,46 @@
+package com.david.f1_manager.domain
+
+/**
+ * Fixed-capacity ring buffer of compact event records for the live view
+ * Preallocated primitive arrays: adding an event overwrites the oldest one and never allocates
+ */
+class RaceEventRing(val capacity: Int) {
+    private val laps = IntArray(capacity)
+    private val types = ByteArray(capacity)
+    private val slotsA = IntArray(capacity)
+    private val slotsB = IntArray(capacity)
+    private val values = IntArray(capacity)
+
+    // Index of the next write
+    private var head = 0
+
+    var size = 0
+        private set
+
+    // Total events ever added (lets observers skip rebuilding when nothing changed)
+    var version = 0L
+        private set
+
+    fun add(lap: Int, type: RaceEventType, slotA: Int, slotB: Int, value: Int) {
+        laps[head] = lap
+        types[head] = type.ordinal.toByte()
+        slotsA[head] = slotA
+        slotsB[head] = slotB
+        values[head] = value
+        head = (head + 1) % capacity
+        if (size < capacity) size++
+        version++
+    }
+
+    /**
+     * Buffered events formatted for display, oldest first
+     */
+    fun snapshot(formatter: RaceEventFormatter): List<RaceEventLog> {
+        if (size == 0) return emptyList()
+        val start = (head - size + capacity) % capacity
+        return List(size) { i ->
+            val index = (start + i) % capacity
+            formatter.format(laps[index], RaceEventType.entries[types[index].toInt()], slotsA[index], slotsB[index], values[index])
+        }
+    }
+}
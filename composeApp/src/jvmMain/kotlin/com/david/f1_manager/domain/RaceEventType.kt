@@ -0,0 +1,72 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.car.Tires
+
+/**
+ * Kinds of race events stored as compact records
+ * Each record is (lap, type, slotA, slotB, value); the message text is only built for display
+ */
+enum class RaceEventType {
+    RACE_START,
+    RACE_FINISH,     // slotA = winner
+    LAP_COMPLETE,
+    CRASH,           // slotA = driver
+    PIT_STOP,        // slotA = driver, value = new TireCompound ordinal + 1 for planned stops (0 = no tire change)
+    SAFETY_CAR,      // value = laps
+    SAFETY_CAR_IN,
+    OVERTAKE,        // slotA = overtaker, slotB = overtaken, value = sector of the pass (1-based)
+    WEATHER          // value = WeatherCondition ordinal
+}
+
+/**
+ * Turns compact event records into display events with emoji icons
+ */
+class RaceEventFormatter(
+    private val trackName: String,
+    private val totalLaps: Int,
+    private val driverNames: List<String>
+) {
+    fun format(lap: Int, type: RaceEventType, slotA: Int, slotB: Int, value: Int): RaceEventLog {
+        return when (type) {
+            RaceEventType.RACE_START ->
+                RaceEventLog(lap, RaceEventIcons.RACE_START, "Race started at $trackName!")
+            RaceEventType.RACE_FINISH ->
+                RaceEventLog(lap, RaceEventIcons.RACE_FINISH, "Race finished! Winner: ${driverName(slotA)}")
+            RaceEventType.LAP_COMPLETE ->
+                RaceEventLog(lap, RaceEventIcons.LAP_COMPLETE, "Lap $lap/$totalLaps completed")
+            RaceEventType.CRASH ->
+                RaceEventLog(lap, RaceEventIcons.CRASH, "${driverName(slotA)} crashed! +20s penalty")
+            RaceEventType.PIT_STOP ->
+                if (value > 0) {
+                    RaceEventLog(lap, RaceEventIcons.PIT_STOP,
+                        "${driverName(slotA)} pits for ${Tires.TireCompound.entries[value - 1]} tires (+3s)")
+                } else {
+                    RaceEventLog(lap, RaceEventIcons.PIT_STOP, "${driverName(slotA)} pits (+3s)")
+                }
+            RaceEventType.SAFETY_CAR ->
+                RaceEventLog(lap, RaceEventIcons.SAFETY_CAR, "SAFETY CAR deployed for $value laps!")
+            RaceEventType.SAFETY_CAR_IN ->
+                RaceEventLog(lap, RaceEventIcons.RACE_START, "Safety car returns to pits")
+            RaceEventType.OVERTAKE ->
+                RaceEventLog(lap, RaceEventIcons.OVERTAKE,
+                    "${driverName(slotA)} overtakes ${driverName(slotB)} in sector $value!")
+            RaceEventType.WEATHER -> formatWeather(lap, WeatherCondition.entries[value])
+        }
+    }
+
+    private fun formatWeather(lap: Int, weather: WeatherCondition): RaceEventLog {
+        val gripMultiplier = RaceEngine.getGripMultiplier(weather)
+        val weatherIcon = when (weather) {
+            WeatherCondition.DRY -> RaceEventIcons.WEATHER_DRY
+            WeatherCondition.LIGHT_RAIN -> RaceEventIcons.WEATHER_LIGHT_RAIN
+            WeatherCondition.HEAVY_RAIN -> RaceEventIcons.WEATHER_HEAVY_RAIN
+        }
+        return RaceEventLog(
+            lap,
+            weatherIcon,
+            "Weather: ${weather.name.replace("_", " ")}! Grip: ${(gripMultiplier * 100).toInt()}%"
+        )
+    }
+
+    private fun driverName(slot: Int): String = driverNames.getOrNull(slot) ?: "Unknown"
+}
@@ -0,0 +1,45 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.race.PitPlan
+
+/**
+ * Everything besides the grid and track that decides a race:
+ * the seed, the starting weather, the variance, every command in the order it was applied
+ * and the pit plan each grid slot ran
+ * Re-running it with the same participants and track gives a bit-identical race
+ */
+data class RaceReplay(
+    val seed: Long,
+    val initialWeather: WeatherCondition,
+    val variance: RaceVariance,
+    val commands: List<RecordedCommand>,
+    val pitPlans: List<PitPlan?> = emptyList()
+) {
+    /**
+     * Re-run the race up to [toLap] (the whole race by default)
+     * Stopping early is cheap, so a race can be bisected lap by lap
+     */
+    @JvmOverloads
+    fun run(
+        participants: List<Pair<Driver, Team>>,
+        track: Track,
+        toLap: Int = track.laps
+    ): RaceEngine {
+        val engine = RaceEngine(participants, track, initialWeather, seed, variance, pitPlans = pitPlans)
+        engine.start()
+
+        var next = 0
+        while (true) {
+            // Commands logged at this lap were applied before the next lap was run
+            while (next < commands.size && commands[next].lap == engine.currentLap) {
+                engine.apply(commands[next].command)
+                next++
+            }
+            if (engine.currentLap >= toLap || !engine.step()) break
+        }
+        return engine
+    }
+}
@@ -9,7 +9,8 @@ import java.time.LocalDateTime
 data class RaceResult(
     val trackName: String,
     val raceDate: LocalDateTime = LocalDateTime.now(),
-    val teamResults: List<TeamResult> = emptyList()
+    val teamResults: List<TeamResult> = emptyList(),
+    val replay: RaceReplay? = null  // Seed and commands to re-run the race
 )
 
 /**
@@ -0,0 +1,342 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.ai.AITeam
+import com.david.f1_manager.car.CarPart
+import com.david.f1_manager.race.PitPlan
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+
+/**
+ * Bounded cache of finished race results, keyed by a hash of everything that decides the result
+ *
+ * The key is the SHA-256 of a canonical encoding of the race: driver names and skills, team names
+ * and AI strategies, every part's rating (and the tire compound), track name, laps and characteristics,
+ * weather, variance, the field's pit plans (so the player's strategy), seed and simulation count.
+ * Editing any of these in DataStore gives a different key, so a stale result is never returned -
+ * it just stops being used and ages out. Bump MODEL_VERSION when the race model itself changes.
+ *
+ * Holds up to [capacity] headless (RaceOutcome) and Monte Carlo (MonteCarloResult) results and
+ * drops the least recently used. With a [file], the cache starts from what was saved there and
+ * save() writes it back. Callers that fill it call checkpoint() when a batch of runs is done (a
+ * strategy sweep, a lineup search), and the shared cache also checkpoints on exit.
+ *
+ * File layout:
+ *   header: magic, format version, entry count
+ *   entries, least recently used first: key, kind, then the result
+ */
+class RaceResultCache @JvmOverloads constructor(
+    private val capacity: Int = RaceConstants.RACE_CACHE_CAPACITY,
+    private val file: File? = null
+) {
+    private val entries = object : LinkedHashMap<String, Any>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Any>): Boolean = size > capacity
+    }
+
+    var hits = 0L
+        private set
+    var misses = 0L
+        private set
+
+    // Set when an entry is added, cleared when the entries are saved
+    @Volatile
+    private var dirty = false
+
+    init {
+        require(capacity > 0) { "capacity must be positive, got: $capacity" }
+        file?.takeIf { it.isFile }?.let { load(it) }
+    }
+
+    val size: Int
+        get() = synchronized(entries) { entries.size }
+
+    /**
+     * Monte Carlo result for the race, running [compute] only if it is not cached
+     */
+    fun monteCarlo(
+        participants: List<Pair<Driver, Team>>,
+        track: Track,
+        weather: WeatherCondition,
+        variance: RaceVariance,
+        pitPlans: List<PitPlan?>,
+        simulations: Int,
+        seed: Long,
+        compute: () -> MonteCarloResult
+    ): MonteCarloResult {
+        val key = key(KIND_MONTE_CARLO, participants, track, weather, variance, pitPlans, seed, simulations)
+        return lookup(key, compute)
+    }
+
+    /**
+     * Outcome of one headless race, run with RaceEngine only if it is not cached
+     */
+    @JvmOverloads
+    fun race(
+        participants: List<Pair<Driver, Team>>,
+        track: Track,
+        weather: WeatherCondition,
+        seed: Long,
+        variance: RaceVariance = RaceVariance.NONE,
+        pitPlans: List<PitPlan?> = emptyList()
+    ): RaceOutcome {
+        val key = key(KIND_HEADLESS, participants, track, weather, variance, pitPlans, seed, 1)
+        return lookup(key) {
+            RaceEngine(participants, track, weather, seed, variance, pitPlans = pitPlans).run()
+        }
+    }
+
+    fun clear() {
+        synchronized(entries) { entries.clear() }
+    }
+
+    /**
+     * Save the cache if anything was added since the last save; a failure is only reported,
+     * since a cache that was not saved just costs recomputation next time
+     */
+    fun checkpoint() {
+        if (!dirty) return
+        try {
+            save()
+        } catch (e: IOException) {
+            System.err.println("Failed to save race cache: ${e.message}")
+        }
+    }
+
+    /**
+     * Write the cache to its file, replacing the old one in one step
+     */
+    @Synchronized
+    fun save() {
+        val target = file ?: return
+        val snapshot = synchronized(entries) {
+            dirty = false
+            entries.entries.map { it.key to it.value }
+        }
+
+        target.parentFile?.mkdirs()
+        val temp = File(target.path + ".tmp")
+        DataOutputStream(BufferedOutputStream(FileOutputStream(temp))).use { output ->
+            output.writeInt(MAGIC)
+            output.writeShort(FORMAT_VERSION)
+            output.writeInt(snapshot.size)
+            for ((key, value) in snapshot) {
+                output.writeUTF(key)
+                when (value) {
+                    is MonteCarloResult -> {
+                        output.writeByte(KIND_MONTE_CARLO)
+                        writeMonteCarlo(output, value)
+                    }
+                    is RaceOutcome -> {
+                        output.writeByte(KIND_HEADLESS)
+                        writeOutcome(output, value)
+                    }
+                }
+            }
+        }
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING)
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun <T : Any> lookup(key: String, compute: () -> T): T {
+        synchronized(entries) {
+            entries[key]?.let {
+                hits++
+                return it as T
+            }
+            misses++
+        }
+
+        // Computed outside the lock; two threads racing for the same key get the same result anyway
+        val result = compute()
+        synchronized(entries) {
+            entries[key] = result
+            dirty = true
+        }
+        return result
+    }
+
+    private fun load(source: File) {
+        try {
+            DataInputStream(BufferedInputStream(FileInputStream(source))).use { input ->
+                if (input.readInt() != MAGIC || input.readShort().toInt() != FORMAT_VERSION) return
+                repeat(input.readInt()) {
+                    val key = input.readUTF()
+                    val value = when (input.readByte().toInt()) {
+                        KIND_MONTE_CARLO -> readMonteCarlo(input)
+                        KIND_HEADLESS -> readOutcome(input)
+                        else -> throw IOException("Unknown entry kind")
+                    }
+                    entries[key] = value
+                }
+            }
+        } catch (e: IOException) {
+            // A damaged cache only costs recomputation
+            System.err.println("Ignoring race cache ${source.name}: ${e.message}")
+            entries.clear()
+        }
+    }
+
+    companion object {
+        private const val MAGIC = 0x46315243 // "F1RC"
+        private const val FORMAT_VERSION = 1
+
+        // Part of every key: bump when a change to the race model changes results
+        private const val MODEL_VERSION = 1
+
+        private const val KIND_HEADLESS = 0
+        private const val KIND_MONTE_CARLO = 1
+
+        /**
+         * Cache file in the user's home directory
+         */
+        @JvmStatic
+        fun defaultFile(): File = File(System.getProperty("user.home"), ".f1_manager/race_cache.bin")
+
+        /**
+         * App-wide cache backed by defaultFile(), also saved when the JVM exits
+         */
+        @JvmStatic
+        val shared: RaceResultCache by lazy {
+            RaceResultCache(file = defaultFile()).also { cache ->
+                Runtime.getRuntime().addShutdownHook(Thread { cache.checkpoint() })
+            }
+        }
+
+        /**
+         * Content address of a race: hex SHA-256 of its canonical encoding
+         */
+        @JvmStatic
+        fun key(
+            kind: Int,
+            participants: List<Pair<Driver, Team>>,
+            track: Track,
+            weather: WeatherCondition,
+            variance: RaceVariance,
+            pitPlans: List<PitPlan?>,
+            seed: Long,
+            simulations: Int
+        ): String {
+            val bytes = ByteArrayOutputStream()
+            DataOutputStream(bytes).use { out ->
+                out.writeInt(MODEL_VERSION)
+                out.writeByte(kind)
+                out.writeLong(seed)
+                out.writeInt(simulations)
+
+                out.writeUTF(track.name)
+                out.writeInt(track.laps)
+                out.writeUTF(track.characteristics?.name ?: "")
+                out.writeUTF(weather.name)
+                out.writeDouble(variance.lapTimeJitter)
+                out.writeDouble(variance.crashChancePerLap)
+                out.writeDouble(variance.safetyCarChancePerLap)
+
+                out.writeInt(participants.size)
+                for ((slot, participant) in participants.withIndex()) {
+                    val (driver, team) = participant
+                    out.writeUTF(driver.name)
+                    out.writeInt(driver.skill)
+                    out.writeUTF(team.name)
+                    out.writeUTF((team as? AITeam)?.strategy?.name ?: "")
+
+                    val car = team.car
+                    out.writeBoolean(car != null)
+                    if (car != null) {
+                        listOf<CarPart?>(car.engine, car.aerodynamics, car.tires, car.suspension, car.gearbox)
+                            .forEach { out.writeInt(it?.performance ?: -1) }
+                        out.writeUTF(car.tires?.compound?.name ?: "")
+                    }
+
+                    val plan = pitPlans.getOrNull(slot)
+                    out.writeBoolean(plan != null)
+                    if (plan != null) {
+                        out.writeDouble(plan.initialFuelLoad)
+                        out.writeInt(plan.stints.size)
+                        plan.stints.forEach { stint ->
+                            out.writeUTF(stint.compound.name)
+                            out.writeInt(stint.firstLap)
+                            out.writeInt(stint.lastLap)
+                        }
+                    }
+                }
+            }
+
+            val digest = MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray())
+            return digest.joinToString("") { "%02x".format(it) }
+        }
+
+        private fun writeMonteCarlo(output: DataOutputStream, result: MonteCarloResult) {
+            output.writeShort(result.fieldSize)
+            for (slot in 0 until result.fieldSize) {
+                output.writeUTF(result.driverName(slot))
+                output.writeUTF(result.teamName(slot))
+            }
+            output.writeInt(result.simulations)
+            for (slot in 0 until result.fieldSize) {
+                for (position in 0 until result.fieldSize) {
+                    output.writeInt(result.positionCount(slot, position))
+                }
+            }
+        }
+
+        private fun readMonteCarlo(input: DataInputStream): MonteCarloResult {
+            val fieldSize = input.readShort().toInt()
+            val driverNames = ArrayList<String>(fieldSize)
+            val teamNames = ArrayList<String>(fieldSize)
+            repeat(fieldSize) {
+                driverNames.add(input.readUTF())
+                teamNames.add(input.readUTF())
+            }
+            val simulations = input.readInt()
+            val counts = IntArray(fieldSize * fieldSize) { input.readInt() }
+            return MonteCarloResult(driverNames, teamNames, simulations, counts)
+        }
+
+        private fun writeOutcome(output: DataOutputStream, outcome: RaceOutcome) {
+            output.writeShort(outcome.standings.size)
+            outcome.standings.forEach { standing ->
+                output.writeShort(standing.position)
+                output.writeShort(standing.gridSlot)
+                output.writeUTF(standing.driverName)
+                output.writeUTF(standing.teamName)
+                output.writeDouble(standing.totalTime)
+                output.writeDouble(standing.gapToLeader)
+            }
+            output.writeInt(outcome.events.size)
+            outcome.events.forEach { event ->
+                output.writeInt(event.lap)
+                output.writeUTF(event.icon)
+                output.writeUTF(event.message)
+            }
+        }
+
+        private fun readOutcome(input: DataInputStream): RaceOutcome {
+            val standings = List(input.readShort().toInt()) {
+                RaceStanding(
+                    position = input.readShort().toInt(),
+                    gridSlot = input.readShort().toInt(),
+                    driverName = input.readUTF(),
+                    teamName = input.readUTF(),
+                    totalTime = input.readDouble(),
+                    gapToLeader = input.readDouble()
+                )
+            }
+            val events = List(input.readInt()) {
+                RaceEventLog(input.readInt(), input.readUTF(), input.readUTF())
+            }
+            return RaceOutcome(standings, events)
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.david.f1_manager.domain
+
+import java.io.Closeable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.LockSupport
+import kotlin.math.max
+
+/**
+ * Drives the ticks of many concurrent races from a few threads
+ *
+ * A single timer thread turns a hashed timer wheel (one bucket per tick, wrapping around);
+ * races that are due are handed to a small worker pool, which runs one tick and puts the race
+ * back on the wheel. A race is never ticked by two workers at once.
+ *
+ * @param workerThreads threads that run race ticks
+ * @param tickMillis wheel resolution - races fire at most this late
+ * @param wheelSize buckets in the wheel (power of two)
+ */
+class RaceScheduler @JvmOverloads constructor(
+    workerThreads: Int = DEFAULT_WORKER_THREADS,
+    tickMillis: Long = DEFAULT_TICK_MILLIS,
+    wheelSize: Int = DEFAULT_WHEEL_SIZE
+) : Closeable {
+    init {
+        require(workerThreads > 0) { "workerThreads must be positive, got: $workerThreads" }
+        require(tickMillis > 0) { "tickMillis must be positive, got: $tickMillis" }
+        require(wheelSize > 0 && wheelSize and (wheelSize - 1) == 0) { "wheelSize must be a power of two, got: $wheelSize" }
+    }
+
+    private val tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis)
+    private val mask = wheelSize - 1
+    private val startNanos = System.nanoTime()
+
+    // Buckets are only touched by the timer thread; everyone else goes through incoming
+    private val wheel = Array(wheelSize) { ArrayList<ScheduledRace>() }
+    private val incoming = ConcurrentLinkedQueue<ScheduledRace>()
+
+    private val workers: ExecutorService = Executors.newFixedThreadPool(workerThreads) { task ->
+        Thread(task, "race-worker").apply { isDaemon = true }
+    }
+
+    @Volatile
+    private var running = true
+
+    private val active = AtomicInteger()
+
+    // Every race not yet released, so close() can release the ones still on the wheel or parked
+    private val races = ConcurrentHashMap.newKeySet<ScheduledRace>()
+
+    /**
+     * Races scheduled and not yet finished or cancelled (paused races count)
+     */
+    val activeRaces: Int
+        get() = active.get()
+
+    /**
+     * How late the most recent race tick started, in milliseconds
+     */
+    @Volatile
+    var tickLagMillis = 0.0
+        private set
+
+    /**
+     * Worst tick lag seen so far, in milliseconds
+     */
+    @Volatile
+    var maxTickLagMillis = 0.0
+        private set
+
+    private val timer = Thread(::turnWheel, "race-scheduler").apply {
+        isDaemon = true
+        start()
+    }
+
+    /**
+     * Tick [task] every [intervalMillis] until it returns false or the race is cancelled
+     * [onCancel] runs once if the race is cancelled, after any tick in progress has finished
+     * [onError] runs once instead if a tick throws; the race is not ticked again
+     * (an Error ends the race the same way and is rethrown instead of passed to [onError])
+     */
+    @JvmOverloads
+    fun schedule(
+        intervalMillis: Long,
+        onCancel: () -> Unit = {},
+        onError: (Exception) -> Unit = { System.err.println("Race tick failed: ${it.message}") },
+        task: () -> Boolean
+    ): ScheduledRace {
+        check(running) { "Scheduler is closed" }
+        require(intervalMillis > 0) { "intervalMillis must be positive, got: $intervalMillis" }
+
+        val race = ScheduledRace(TimeUnit.MILLISECONDS.toNanos(intervalMillis), onCancel, onError, task)
+        active.incrementAndGet()
+        races.add(race)
+        race.dueNanos = System.nanoTime() + race.intervalNanos
+        submit(race)
+        return race
+    }
+
+    /**
+     * Stop the wheel and cancel every race; [ScheduledRace.onCancel] runs for each of them,
+     * for a race in the middle of a tick once that tick has finished
+     */
+    override fun close() {
+        running = false
+        LockSupport.unpark(timer)
+        workers.shutdownNow()
+        for (race in races) {
+            race.cancel()
+            race.releaseIfIdle()
+        }
+    }
+
+    private fun submit(race: ScheduledRace) {
+        incoming.add(race)
+    }
+
+    /**
+     * Timer thread: wait for each tick, file new races into their buckets and fire the due ones
+     * Falls behind gracefully - missed ticks are processed back to back
+     */
+    private fun turnWheel() {
+        var tick = 0L
+        while (running) {
+            val tickStart = startNanos + tick * tickNanos
+            var wait = tickStart - System.nanoTime()
+            while (wait > 0 && running) {
+                LockSupport.parkNanos(wait)
+                wait = tickStart - System.nanoTime()
+            }
+
+            drainIncoming(tick)
+
+            val bucket = wheel[(tick and mask.toLong()).toInt()]
+            var i = 0
+            while (i < bucket.size) {
+                val race = bucket[i]
+                if (race.dueTick <= tick) {
+                    // Swap-remove: order inside a bucket does not matter
+                    bucket[i] = bucket[bucket.size - 1]
+                    bucket.removeAt(bucket.size - 1)
+                    workers.execute(race::fire)
+                } else {
+                    i++
+                }
+            }
+            tick++
+        }
+    }
+
+    private fun drainIncoming(tick: Long) {
+        while (true) {
+            val race = incoming.poll() ?: return
+            if (race.isCancelled) {
+                race.release()
+                continue
+            }
+
+            // Late races go in the current bucket and fire this tick
+            race.dueTick = max(tick, (race.dueNanos - startNanos + tickNanos - 1) / tickNanos)
+            wheel[(race.dueTick and mask.toLong()).toInt()].add(race)
+        }
+    }
+
+    private fun recordLag(lagNanos: Long) {
+        val lagMillis = lagNanos / 1_000_000.0
+        tickLagMillis = lagMillis
+        if (lagMillis > maxTickLagMillis) {
+            maxTickLagMillis = lagMillis
+        }
+    }
+
+    /**
+     * Handle for one scheduled race
+     */
+    inner class ScheduledRace internal constructor(
+        internal val intervalNanos: Long,
+        private val onCancel: () -> Unit,
+        private val onError: (Exception) -> Unit,
+        private val task: () -> Boolean
+    ) {
+        private val state = AtomicInteger(RUNNING)
+        private val released = AtomicBoolean(false)
+
+        // True while a worker is inside task(); set before the cancel check in fire()
+        @Volatile
+        private var ticking = false
+
+        // Handed between threads through the incoming queue and the worker pool
+        internal var dueNanos = 0L
+        internal var dueTick = 0L
+
+        val isPaused: Boolean
+            get() = state.get().let { it == PAUSED || it == PARKED }
+
+        val isCancelled: Boolean
+            get() = state.get() == CANCELLED
+
+        val isDone: Boolean
+            get() = released.get()
+
+        /**
+         * Stop ticking after the tick in progress (if any)
+         */
+        fun pause() {
+            state.compareAndSet(RUNNING, PAUSED)
+        }
+
+        /**
+         * Continue ticking; the next tick is one interval from now
+         */
+        fun resume() {
+            if (state.compareAndSet(PAUSED, RUNNING)) return
+            if (state.compareAndSet(PARKED, RUNNING)) {
+                dueNanos = System.nanoTime() + intervalNanos
+                submit(this)
+            }
+        }
+
+        /**
+         * Stop the race for good and release it from the scheduler
+         */
+        fun cancel() {
+            while (true) {
+                val current = state.get()
+                if (current == CANCELLED || current == DONE) return
+                if (state.compareAndSet(current, CANCELLED)) {
+                    // A parked race is on no queue, so nobody else will release it
+                    if (current == PARKED) release()
+                    return
+                }
+            }
+        }
+
+        /**
+         * Run one tick on a worker thread and put the race back on the wheel
+         */
+        internal fun fire() {
+            if (state.compareAndSet(PAUSED, PARKED)) return
+            ticking = true
+            if (isCancelled) {
+                ticking = false
+                release()
+                return
+            }
+
+            recordLag(System.nanoTime() - dueNanos)
+            val more = try {
+                task()
+            } catch (e: Throwable) {
+                // Failed: the owner cleans up in onError (or in onCancel, if a cancel got in first)
+                ticking = false
+                val failed = state.compareAndSet(RUNNING, DONE) || state.compareAndSet(PAUSED, DONE)
+                release()
+                if (e !is Exception) throw e
+                if (failed) onError(e)
+                return
+            }
+            ticking = false
+
+            if (!more) {
+                // Finished on its own (a cancel that got in first still runs onCancel)
+                if (!state.compareAndSet(RUNNING, DONE)) state.compareAndSet(PAUSED, DONE)
+                release()
+                return
+            }
+            if (isCancelled) {
+                release()
+                return
+            }
+
+            // Keep a steady cadence, but never try to catch up with a burst of ticks
+            dueNanos = max(dueNanos + intervalNanos, System.nanoTime())
+            submit(this)
+        }
+
+        /**
+         * Release the race unless a tick is running; that tick releases it when it sees the cancel
+         */
+        internal fun releaseIfIdle() {
+            if (!ticking) release()
+        }
+
+        internal fun release() {
+            if (!released.compareAndSet(false, true)) return
+            races.remove(this)
+            active.decrementAndGet()
+            if (isCancelled) onCancel()
+        }
+    }
+
+    companion object {
+        const val DEFAULT_WORKER_THREADS = 2
+        const val DEFAULT_TICK_MILLIS = 10L
+        const val DEFAULT_WHEEL_SIZE = 512
+
+        private const val RUNNING = 0
+        private const val PAUSED = 1   // Pause requested, still on the wheel
+        private const val PARKED = 2   // Paused and off the wheel until resumed
+        private const val CANCELLED = 3
+        private const val DONE = 4
+
+        /**
+         * Scheduler shared by all live races in the app
+         */
+        @JvmStatic
+        val shared: RaceScheduler by lazy { RaceScheduler() }
+    }
+}
@@ -6,8 +6,9 @@ package com.david.f1_manager.domain
  */
 data class RaceStanding(
     val position: Int,
+    val gridSlot: Int,      // Index into the race participants list (unique even if names repeat)
     val driverName: String,
     val teamName: String,
     val totalTime: Double,  // Total race time in seconds
-    val gap: String         // Gap to leader
+    val gapToLeader: Double // Gap to leader in seconds (0.0 for the leader)
 )
@@ -0,0 +1,157 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.ai.AIAction
+import com.david.f1_manager.ai.AITeam
+import com.david.f1_manager.race.PitPlan
+import com.david.f1_manager.race.TireDegradationTable
+
+/**
+ * Structure-of-arrays race state used by RaceEngine
+ * Every array is indexed by grid slot (the index into the participants list),
+ * so a lap is plain arithmetic over primitive arrays - no boxing, hashing or name lookups
+ * Driver and team names stay in RaceEntry and are only resolved when standings are published
+ * copy() forks the state cheaply: the compiled lap and sector times are shared, only the
+ * per-race arrays are copied
+ * Slots with a PitPlan also track the compound they run and the wear of their tires,
+ * and AI slots the action their team's AIDecisionEngine picked for the lap
+ */
+class RaceState private constructor(
+    val fieldSize: Int,
+
+    // Dry, green-flag lap time per slot (from RaceEntry), never written during a race
+    val baseLapTimes: DoubleArray,
+
+    // Dry, green-flag sector times, sector-major: sectorTimes[sector * fieldSize + slot], never written
+    val sectorTimes: DoubleArray,
+
+    // Cumulative race times tracked lap-by-lap (in seconds)
+    // This allows weather changes to affect only future laps, not historical ones
+    val cumulativeTimes: DoubleArray,
+
+    // Time penalties for each slot (in seconds)
+    val penalties: DoubleArray,
+
+    // Running order: order[position] = slot, leader first (starts in grid order)
+    val order: IntArray,
+
+    // Inverse of order: positions[slot] = position (0 = leader)
+    val positions: IntArray,
+
+    // Pit plan per slot (null = no tire model for that slot), immutable and shared
+    val pitPlans: Array<PitPlan?>,
+
+    // Tire wear lookup per slot, for its Tires performance (from RaceEntry), shared by every race
+    val tireTables: Array<TireDegradationTable>,
+
+    // TireCompound ordinal each slot is running, -1 without a pit plan
+    val compounds: IntArray,
+
+    // Wear on the current set of tires in half laps (a normal lap adds 2, see AIAction)
+    val tireWear: IntArray,
+
+    // Index of the next stint in the slot's pit plan
+    val nextStints: IntArray,
+
+    // Tire-changing stops made so far
+    val pitStops: IntArray,
+
+    // Race lap count when the slot last changed tires (-1 = never): stops called between
+    // laps record the lap just finished, planned stops the lap they end
+    val lastPitLaps: IntArray,
+
+    // AI team strategy per slot (null = not an AI car), never written
+    val aiStrategies: Array<AITeam.AIStrategy?>
+) {
+    @JvmOverloads
+    constructor(entries: List<RaceEntry>, pitPlans: List<PitPlan?> = emptyList()) : this(
+        fieldSize = entries.size,
+        baseLapTimes = DoubleArray(entries.size) { slot -> entries[slot].baseLapTime },
+        sectorTimes = DoubleArray(SectorModel.SECTOR_COUNT * entries.size) { i ->
+            entries[i % entries.size].sectorTimes[i / entries.size]
+        },
+        cumulativeTimes = DoubleArray(entries.size),
+        penalties = DoubleArray(entries.size),
+        order = IntArray(entries.size) { it },
+        positions = IntArray(entries.size) { it },
+        pitPlans = Array(entries.size) { slot -> pitPlans.getOrNull(slot) },
+        tireTables = Array(entries.size) { slot -> TireDegradationTable.forPerformance(entries[slot].tirePerformance) },
+        compounds = IntArray(entries.size) { slot -> pitPlans.getOrNull(slot)?.startingCompound?.ordinal ?: -1 },
+        tireWear = IntArray(entries.size),
+        nextStints = IntArray(entries.size) { 1 },
+        pitStops = IntArray(entries.size),
+        lastPitLaps = IntArray(entries.size) { -1 },
+        aiStrategies = Array(entries.size) { slot -> entries[slot].aiStrategy }
+    )
+
+    // Per-slot lap time over base lap time for the lap being run (weather, safety car, deltas, noise),
+    // scales the sector times when placing overtakes; scratch space reused every lap
+    val lapFactors = DoubleArray(fieldSize)
+
+    // Per-slot lap time and race time at the start of the lap being run, scratch space reused every lap
+    val lapTimes = DoubleArray(fieldSize)
+    val lapStartTimes = DoubleArray(fieldSize)
+
+    // AI action per slot for the lap being run (STEADY for everyone else), scratch space reused every lap
+    val aiActions = Array(fieldSize) { AIAction.STEADY }
+
+    /**
+     * Independent copy of the per-race arrays (compiled times are shared)
+     */
+    fun copy(): RaceState = RaceState(
+        fieldSize,
+        baseLapTimes,
+        sectorTimes,
+        cumulativeTimes.copyOf(),
+        penalties.copyOf(),
+        order.copyOf(),
+        positions.copyOf(),
+        pitPlans,
+        tireTables,
+        compounds.copyOf(),
+        tireWear.copyOf(),
+        nextStints.copyOf(),
+        pitStops.copyOf(),
+        lastPitLaps.copyOf(),
+        aiStrategies
+    )
+
+    /**
+     * Laps of age on the slot's current tires (pushing ages them faster, conserving slower)
+     */
+    fun tireAge(slot: Int): Int = tireWear[slot] / 2
+
+    /**
+     * Race time including penalties for one slot
+     */
+    fun totalTime(slot: Int): Double = cumulativeTimes[slot] + penalties[slot]
+
+    /**
+     * Re-sort the running order by total time
+     * Insertion sort: the order from the previous lap is nearly sorted, so this is close to O(n)
+     * and never allocates. Stable, so drivers on equal time keep their previous order.
+     *
+     * @param overtakes if given, receives one pair for every car that moved ahead of another
+     */
+    fun repairOrder(overtakes: OvertakeDetector? = null) {
+        overtakes?.clear()
+        for (i in 1 until fieldSize) {
+            val slot = order[i]
+            val time = totalTime(slot)
+            var j = i - 1
+            while (j >= 0 && totalTime(order[j]) > time) {
+                overtakes?.record(slot, order[j])
+                order[j + 1] = order[j]
+                j--
+            }
+            order[j + 1] = slot
+        }
+        for (position in 0 until fieldSize) {
+            positions[order[position]] = position
+        }
+    }
+
+    /**
+     * Gap to the race leader in seconds
+     */
+    fun gapToLeader(slot: Int): Double = totalTime(slot) - totalTime(order[0])
+}
@@ -0,0 +1,23 @@
+package com.david.f1_manager.domain
+
+/**
+ * Random noise and incident rates applied by RaceEngine
+ * Live races use NONE (only user-triggered events), batch simulations use MONTE_CARLO
+ */
+data class RaceVariance(
+    val lapTimeJitter: Double,          // +/- fraction of lap time per lap (0.01 = +/-1%)
+    val crashChancePerLap: Double,      // chance per driver per lap of a crash penalty
+    val safetyCarChancePerLap: Double   // chance per lap of a safety car deployment
+) {
+    companion object {
+        @JvmField
+        val NONE = RaceVariance(0.0, 0.0, 0.0)
+
+        @JvmField
+        val MONTE_CARLO = RaceVariance(
+            lapTimeJitter = RaceConstants.MC_LAP_TIME_JITTER,
+            crashChancePerLap = RaceConstants.MC_CRASH_CHANCE_PER_LAP,
+            safetyCarChancePerLap = RaceConstants.MC_SAFETY_CAR_CHANCE_PER_LAP
+        )
+    }
+}
@@ -0,0 +1,61 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Track
+import com.david.f1_manager.car.Car
+
+/**
+ * Splits a lap into three sectors, each dominated by one car part:
+ *   sector 1 - straights (engine)
+ *   sector 2 - high-speed corners (aerodynamics)
+ *   sector 3 - slow corners and kerbs (suspension)
+ *
+ * The lap total still follows the lap time formula in RaceEntry; the sectors only decide
+ * where on the lap each car gains or loses time. RaceEngine uses them to tell in which sector
+ * an overtake was made; race times and the order at the line come from whole laps
+ */
+object SectorModel {
+    const val SECTOR_COUNT = 3
+
+    // Share of the lap spent in each sector, by track type
+    private val SPEED_SHARES = doubleArrayOf(0.45, 0.30, 0.25)
+    private val TECHNICAL_SHARES = doubleArrayOf(0.25, 0.40, 0.35)
+    private val BALANCED_SHARES = doubleArrayOf(0.34, 0.33, 0.33)
+
+    /**
+     * Sector times for one car that add up to [baseLapTime]
+     * A part above 50 performance shortens its sector (up to SECTOR_PART_INFLUENCE),
+     * then all sectors are scaled back so the lap total is unchanged
+     */
+    @JvmStatic
+    fun split(baseLapTime: Double, car: Car?, characteristic: Track.TrackCharacteristics?): DoubleArray {
+        val shares = shares(characteristic)
+        val partPerformance = intArrayOf(
+            car?.engine?.performance ?: 50,
+            car?.aerodynamics?.performance ?: 50,
+            car?.suspension?.performance ?: 50
+        )
+
+        val weights = DoubleArray(SECTOR_COUNT)
+        var totalWeight = 0.0
+        for (sector in 0 until SECTOR_COUNT) {
+            val strength = (partPerformance[sector] - 50) / 50.0
+            weights[sector] = shares[sector] * (1.0 - RaceConstants.SECTOR_PART_INFLUENCE * strength)
+            totalWeight += weights[sector]
+        }
+        return DoubleArray(SECTOR_COUNT) { sector -> baseLapTime * weights[sector] / totalWeight }
+    }
+
+    /**
+     * Sector times with no car information (balanced shares)
+     */
+    @JvmStatic
+    fun evenSplit(baseLapTime: Double): DoubleArray = split(baseLapTime, null, null)
+
+    private fun shares(characteristic: Track.TrackCharacteristics?): DoubleArray {
+        return when (characteristic) {
+            Track.TrackCharacteristics.SPEED -> SPEED_SHARES
+            Track.TrackCharacteristics.TECHNICAL -> TECHNICAL_SHARES
+            else -> BALANCED_SHARES
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.car.Tires
+import com.david.f1_manager.race.FuelModel
+import com.david.f1_manager.race.PitPlan
+import com.david.f1_manager.race.PitStrategyOptimizer
+import com.david.f1_manager.race.RaceStrategy
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+
+/**
+ * How one strategy did for the player's drivers over the sweep's seeded races
+ *
+ * @param plan pit plan the strategy gives the player's first driver
+ * @param expectedPosition mean finishing position of the player's drivers (1 = win)
+ * @param positionVariance variance of those finishing positions
+ */
+class StrategyScore(
+    val strategy: RaceStrategy,
+    val plan: PitPlan?,
+    val expectedPosition: Double,
+    val positionVariance: Double,
+    val simulations: Int
+)
+
+/**
+ * Strategies evaluated so far, best expected position first (ties: lower variance first)
+ */
+class StrategySweepResult(
+    val ranking: List<StrategyScore>,
+    val completed: Int,
+    val total: Int
+) {
+    val isComplete: Boolean
+        get() = completed == total
+}
+
+/**
+ * Races every strategy the setup screen can choose - 0-3 stops x starting compound x fuel load
+ * in STRATEGY_SWEEP_FUEL_STEP kg steps - for the player's team against the selected field
+ *
+ * Each strategy runs [runsPerStrategy] seeded Monte Carlo races (MonteCarloRaceEngine) with the
+ * player's drivers on its pit plan and everyone else on their usual one. Every strategy uses the
+ * same [seed], so all of them race the same futures and their differences come from the strategy,
+ * not luck. Strategies run in parallel on [pool] and [run] reports the ranking after each one
+ * finishes, so a caller can show partial results long before the sweep is done. With a [cache],
+ * sweeping the same setup again only races the strategies it has not seen; the cache is
+ * checkpointed when the sweep ends.
+ */
+class StrategySweep @JvmOverloads constructor(
+    private val participants: List<Pair<Driver, Team>>,
+    private val track: Track,
+    private val weather: WeatherCondition,
+    private val playerTeam: Team,
+    private val seed: Long,
+    private val runsPerStrategy: Int = RaceConstants.STRATEGY_SWEEP_RUNS,
+    private val pool: ForkJoinPool = ForkJoinPool.commonPool(),
+    private val cache: RaceResultCache? = null
+) {
+    private val playerSlots = PitPlanner.playerSlots(participants, playerTeam)
+
+    // Opponents' plans do not depend on the player's strategy
+    private val fieldPlans = PitPlanner.planField(participants, track, null, null)
+
+    @Volatile
+    private var cancelled = false
+
+    init {
+        require(playerSlots.isNotEmpty()) { "The player's team ${playerTeam.name} is not in the field" }
+        require(runsPerStrategy > 0) { "runsPerStrategy must be positive, got: $runsPerStrategy" }
+    }
+
+    /**
+     * Every strategy in the sweep, in slider order
+     */
+    fun strategies(): List<RaceStrategy> {
+        val strategies = mutableListOf<RaceStrategy>()
+        for (stops in 0..PitStrategyOptimizer.MAX_STOPS) {
+            for (compound in Tires.TireCompound.entries) {
+                var fuel = RaceConstants.STRATEGY_SWEEP_MIN_FUEL
+                while (fuel <= FuelModel.MAX_FUEL_LOAD) {
+                    strategies.add(RaceStrategy("sweep_${stops}_${compound}_$fuel", stops, compound, fuel.toDouble()))
+                    fuel += RaceConstants.STRATEGY_SWEEP_FUEL_STEP
+                }
+            }
+        }
+        return strategies
+    }
+
+    /**
+     * Evaluate every strategy, calling [onProgress] with the ranking so far after each one
+     * [onProgress] is called from pool threads, one call at a time
+     * @return the full ranking, or what was done before cancel()
+     */
+    @JvmOverloads
+    fun run(onProgress: (StrategySweepResult) -> Unit = {}): StrategySweepResult {
+        val strategies = strategies()
+        val scores = ArrayList<StrategyScore>(strategies.size)
+        val lock = Any()
+
+        val tasks = strategies.map { strategy ->
+            ForkJoinTask.adapt {
+                if (!cancelled) {
+                    val score = evaluate(strategy)
+                    synchronized(lock) {
+                        scores.add(score)
+                        if (!cancelled) onProgress(ranked(scores, strategies.size))
+                    }
+                }
+            }
+        }
+        try {
+            pool.invoke(ForkJoinTask.adapt { ForkJoinTask.invokeAll(tasks) })
+        } finally {
+            cache?.checkpoint()
+        }
+
+        return synchronized(lock) { ranked(scores, strategies.size) }
+    }
+
+    /**
+     * Stop starting new strategies; those already running finish but are no longer reported
+     */
+    fun cancel() {
+        cancelled = true
+    }
+
+    /**
+     * Seeded races with the player's drivers on [strategy], scored over their finishing positions
+     */
+    fun evaluate(strategy: RaceStrategy): StrategyScore {
+        val plans = ArrayList<PitPlan?>(fieldPlans)
+        for (slot in playerSlots) {
+            val (driver, team) = participants[slot]
+            plans[slot] = PitStrategyOptimizer(track, team.car, driver).optimize(strategy)
+        }
+
+        val result = MonteCarloRaceEngine(participants, track, weather, RaceVariance.MONTE_CARLO, plans, pool, cache)
+            .run(runsPerStrategy, seed)
+
+        // Pool the finishing positions of all the player's drivers
+        var mean = 0.0
+        var meanSquare = 0.0
+        for (slot in playerSlots) {
+            for (position in 0 until result.fieldSize) {
+                val p = result.positionProbability(slot, position) / playerSlots.size
+                mean += (position + 1) * p
+                meanSquare += (position + 1) * (position + 1) * p
+            }
+        }
+        return StrategyScore(strategy, plans[playerSlots[0]], mean, meanSquare - mean * mean, runsPerStrategy)
+    }
+
+    private fun ranked(scores: List<StrategyScore>, total: Int): StrategySweepResult {
+        // Exact ties fall back to slider order, so the ranking does not depend on which thread finished first
+        val ranking = scores.sortedWith(compareBy<StrategyScore>(
+            { it.expectedPosition },
+            { it.positionVariance },
+            { it.strategy.pitStopCount },
+            { it.strategy.startingTireCompound },
+            { it.strategy.initialFuelLoad }
+        ))
+        return StrategySweepResult(ranking, scores.size, total)
+    }
+}
@@ -0,0 +1,93 @@
+package com.david.f1_manager.domain
+
+import com.david.f1_manager.Track
+import com.david.f1_manager.car.Car
+import com.david.f1_manager.car.CarPart
+import com.david.f1_manager.race.PartValue
+
+/**
+ * Seconds a race on [track] gets shorter from one more performance point in each part slot, or
+ * one more skill point for the driver
+ *
+ * A slot is null when the car has no part fitted there; a part or driver already at 100 gains 0.
+ *
+ * @param tires grip (lap time bonus) and tire wear together
+ * @param tireWear the share of [tires] from slower wear: the fastest pit plan gets cheaper
+ * @param driverSkill the same for every driver below 100
+ */
+class UpgradeGains(
+    val track: Track,
+    val weather: WeatherCondition,
+    val engine: Double?,
+    val aerodynamics: Double?,
+    val tires: Double?,
+    val tireWear: Double?,
+    val suspension: Double?,
+    val gearbox: Double?,
+    val driverSkill: Double
+) {
+    /**
+     * Slot with the biggest gain, or null if no part is fitted
+     */
+    val bestPart: String?
+        get() = listOf(
+            "Engine" to engine,
+            "Aerodynamics" to aerodynamics,
+            "Tires" to tires,
+            "Suspension" to suspension,
+            "Gearbox" to gearbox
+        ).filter { it.second != null }.maxByOrNull { it.second!! }?.first
+}
+
+/**
+ * Exact race-time sensitivities, worked out from the lap-time model instead of re-simulating
+ *
+ * A car's race time is a constant minus what each of its parts is worth (see PartValue, the same
+ * values CarBuildOptimizer ranks builds by), so one more point in a slot saves exactly the difference
+ * between the part's value at the two ratings: laps x 90 x weatherFactor x its bonus per point, plus
+ * for tires the cheaper fastest pit plan. Driver skill is linear in the same way.
+ * Safety cars, AI pace calls and Monte Carlo noise scale both sides alike and are left out.
+ */
+object UpgradeSensitivity {
+
+    /**
+     * Gains for [car] on every track, in order
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun forTracks(car: Car?, tracks: Collection<Track>, weather: WeatherCondition = WeatherCondition.DRY): List<UpgradeGains> {
+        return tracks.map { forTrack(car, it, weather) }
+    }
+
+    @JvmStatic
+    @JvmOverloads
+    fun forTrack(car: Car?, track: Track, weather: WeatherCondition = WeatherCondition.DRY): UpgradeGains {
+        fun gain(part: CarPart?): Double? {
+            if (part == null) return null
+            if (part.performance >= MAX_RATING) return 0.0
+            return PartValue.seconds(part, part.performance + 1, track, weather) - PartValue.seconds(part, track, weather)
+        }
+
+        val tires = car?.tires
+        val tireWear = tires?.let {
+            if (it.performance >= MAX_RATING) 0.0
+            else PartValue.tirePlanSeconds(track.laps, it.performance, weather) -
+                PartValue.tirePlanSeconds(track.laps, it.performance + 1, weather)
+        }
+
+        return UpgradeGains(
+            track = track,
+            weather = weather,
+            engine = gain(car?.engine),
+            aerodynamics = gain(car?.aerodynamics),
+            tires = gain(tires),
+            tireWear = tireWear,
+            suspension = gain(car?.suspension),
+            gearbox = gain(car?.gearbox),
+            driverSkill = track.laps * RaceConstants.BASE_LAP_TIME_SECONDS * PartValue.weatherFactor(weather) *
+                RaceConstants.MAX_DRIVER_BONUS / 100.0
+        )
+    }
+
+    private const val MAX_RATING = 100
+}
@@ -0,0 +1,154 @@
+package com.david.f1_manager.domain
+
+import java.util.SplittableRandom
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+import java.util.concurrent.RecursiveTask
+
+/**
+ * A "what if ...?" question for a live race: commands injected into the forked futures
+ * For these commands, lap counts laps after the fork (0 = right away)
+ */
+data class WhatIfScenario(
+    val label: String,
+    val commands: List<RecordedCommand>
+) {
+    companion object {
+        @JvmStatic
+        fun pitNow(slot: Int, driverName: String): WhatIfScenario {
+            return WhatIfScenario("$driverName pits now", listOf(RecordedCommand(0, RaceCommand.PitStop(listOf(slot)))))
+        }
+
+        @JvmStatic
+        fun weatherIn(laps: Int, weather: WeatherCondition): WhatIfScenario {
+            return WhatIfScenario(
+                "${weather.name.replace("_", " ")} in $laps laps",
+                listOf(RecordedCommand(laps, RaceCommand.WeatherChange(weather)))
+            )
+        }
+    }
+}
+
+/**
+ * Finishing distributions with and without a scenario, over the same futures
+ */
+class WhatIfResult(
+    val scenario: WhatIfScenario,
+    val fromLap: Int,
+    val baseline: MonteCarloResult,
+    val outcome: MonteCarloResult
+) {
+    val futures: Int
+        get() = outcome.simulations
+
+    /**
+     * Expected finishing position change for [slot] (negative = gains places)
+     */
+    fun expectedPositionChange(slot: Int): Double {
+        return outcome.expectedPosition(slot) - baseline.expectedPosition(slot)
+    }
+
+    fun winProbabilityChange(slot: Int): Double {
+        return outcome.winProbability(slot) - baseline.winProbability(slot)
+    }
+}
+
+/**
+ * Runs many alternate futures of a race in parallel from a forked snapshot
+ * Every future i gets the same seed with and without the scenario, so the difference
+ * between the two distributions is the scenario's effect rather than random noise
+ */
+class WhatIfAnalyzer @JvmOverloads constructor(
+    private val variance: RaceVariance = RaceVariance.MONTE_CARLO,
+    private val pool: ForkJoinPool = ForkJoinPool.commonPool()
+) {
+    /**
+     * Compare [futures] futures from [snapshot] with and without [scenario]
+     * [snapshot] must not be stepped while this runs - pass a fork of the live engine
+     */
+    fun analyze(snapshot: RaceEngine, scenario: WhatIfScenario, futures: Int, seed: Long): WhatIfResult {
+        return WhatIfResult(
+            scenario,
+            snapshot.currentLap,
+            runFutures(snapshot, null, futures, seed),
+            runFutures(snapshot, scenario, futures, seed)
+        )
+    }
+
+    /**
+     * Finishing distribution over [futures] futures from [snapshot] (no scenario = the race as it is)
+     */
+    fun runFutures(snapshot: RaceEngine, scenario: WhatIfScenario?, futures: Int, seed: Long): MonteCarloResult {
+        require(futures > 0) { "futures must be positive, got: $futures" }
+
+        val commands = scenario?.commands.orEmpty().sortedBy { it.lap }
+        val task = FutureTask(snapshot, commands, SplittableRandom(seed), 0, futures)
+        // On one of the pool's own workers (the win-probability ticker), fork and join in place
+        // instead of blocking the worker on a nested invoke
+        val counts = if (ForkJoinTask.getPool() === pool) task.invoke() else pool.invoke(task)
+        return MonteCarloResult(
+            List(snapshot.fieldSize) { snapshot.driverName(it) },
+            List(snapshot.fieldSize) { snapshot.teamName(it) },
+            futures,
+            counts
+        )
+    }
+
+    /**
+     * Splits the futures in half until small enough for one worker (same split tree as MonteCarloRaceEngine)
+     */
+    private inner class FutureTask(
+        private val snapshot: RaceEngine,
+        private val commands: List<RecordedCommand>,
+        private val random: SplittableRandom,
+        private val from: Int,
+        private val to: Int
+    ) : RecursiveTask<IntArray>() {
+
+        override fun compute(): IntArray {
+            if (to - from <= LEAF_SIZE) {
+                return runRange()
+            }
+
+            val mid = (from + to) ushr 1
+            val left = FutureTask(snapshot, commands, random.split(), from, mid)
+            left.fork()
+            val right = FutureTask(snapshot, commands, random, mid, to).compute()
+            val merged = left.join()
+            for (i in merged.indices) {
+                merged[i] += right[i]
+            }
+            return merged
+        }
+
+        private fun runRange(): IntArray {
+            val fieldSize = snapshot.fieldSize
+            val counts = IntArray(fieldSize * fieldSize)
+
+            repeat(to - from) {
+                val future = snapshot.fork(random.nextLong(), variance)
+                val forkLap = future.currentLap
+
+                var next = 0
+                while (true) {
+                    while (next < commands.size && commands[next].lap <= future.currentLap - forkLap) {
+                        future.apply(commands[next].command)
+                        next++
+                    }
+                    if (!future.step()) break
+                }
+
+                val order = future.finishingOrder()
+                for (position in order.indices) {
+                    counts[order[position] * fieldSize + position]++
+                }
+            }
+            return counts
+        }
+    }
+
+    companion object {
+        // Futures per leaf task
+        private const val LEAF_SIZE = 16
+    }
+}
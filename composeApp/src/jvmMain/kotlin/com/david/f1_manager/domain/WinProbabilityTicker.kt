@@ -0,0 +1,162 @@
+package com.david.f1_manager.domain
+
+import java.io.Closeable
+import java.util.SplittableRandom
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.math.max
+import kotlin.math.sqrt
+
+/**
+ * Win and podium probabilities for a live race at one lap
+ *
+ * @param halfWidth widest 95% confidence half-width of any driver's win probability
+ */
+class WinProbabilityEstimate(
+    val lap: Int,
+    val result: MonteCarloResult,
+    val halfWidth: Double
+) {
+    val isConverged: Boolean
+        get() = halfWidth <= RaceConstants.WIN_PROBABILITY_TARGET_HALF_WIDTH
+}
+
+/**
+ * Keeps a win-probability estimate for a live race up to date in the background
+ *
+ * Every time the race publishes a new lap, [update] hands over a forked snapshot; the ticker
+ * then runs Monte Carlo rollouts from it in batches on a low-priority pool (never the race
+ * scheduler's threads), reports a refined estimate after each batch, and stops early once
+ * every driver's win probability is known to within WIN_PROBABILITY_TARGET_HALF_WIDTH.
+ * A newer snapshot replaces the one being refined once that has converged or had
+ * WIN_PROBABILITY_MIN_RESTART_MILLIS of work, so a race published every frame (MAX playback)
+ * does not restart the estimate every frame; close() stops it for good.
+ * Batches run as fork/join work on the ticker's own worker, not as a nested invoke.
+ */
+class WinProbabilityTicker @JvmOverloads constructor(
+    private val onEstimate: (WinProbabilityEstimate) -> Unit,
+    private val pool: ForkJoinPool = backgroundPool
+) : Closeable {
+    private val analyzer = WhatIfAnalyzer(RaceVariance.MONTE_CARLO, pool)
+
+    @Volatile
+    private var latest: RaceEngine? = null
+
+    @Volatile
+    private var closed = false
+
+    // True while a refine loop is queued or running (at most one per ticker)
+    private val refining = AtomicBoolean(false)
+
+    private val restartCount = AtomicInteger()
+
+    /**
+     * Snapshots an estimate was started from so far, for tests and diagnostics
+     */
+    val restarts: Int
+        get() = restartCount.get()
+
+    /**
+     * Start estimating from [snapshot] (a fork nobody else steps), dropping older work
+     */
+    fun update(snapshot: RaceEngine) {
+        if (closed) return
+
+        latest = snapshot
+        if (refining.compareAndSet(false, true)) {
+            pool.execute(::refine)
+        }
+    }
+
+    override fun close() {
+        closed = true
+        latest = null
+    }
+
+    /**
+     * Refine the estimate for the latest snapshot batch by batch until it converges,
+     * a newer snapshot takes over (start over) or the ticker is closed
+     */
+    private fun refine() {
+        var current: RaceEngine? = null
+        var total: MonteCarloResult? = null
+        var random = SplittableRandom()
+        var startedNanos = 0L
+
+        while (true) {
+            val newest = latest
+            if (closed || newest == null) {
+                refining.set(false)
+                return
+            }
+
+            // Move on to a newer snapshot once this one is done or has had its minimum time
+            val done = current != null && isDone(current, total)
+            if (newest !== current && (current == null || done || System.nanoTime() - startedNanos >= MIN_RESTART_NANOS)) {
+                current = newest
+                total = null
+                random = SplittableRandom(newest.seed xor newest.currentLap.toLong())
+                startedNanos = System.nanoTime()
+                restartCount.incrementAndGet()
+                continue
+            }
+            val snapshot = current ?: continue
+
+            if (done) {
+                // Go idle, unless a new snapshot slipped in after we looked
+                refining.set(false)
+                if (latest === snapshot || !refining.compareAndSet(false, true)) return
+                continue
+            }
+
+            val batch = analyzer.runFutures(snapshot, null, RaceConstants.WIN_PROBABILITY_BATCH, random.nextLong())
+            if (closed) continue
+
+            val merged = total?.plus(batch) ?: batch
+            total = merged
+            onEstimate(WinProbabilityEstimate(snapshot.currentLap, merged, maxHalfWidth(merged)))
+        }
+    }
+
+    private fun isDone(snapshot: RaceEngine, total: MonteCarloResult?): Boolean {
+        return !snapshot.isRunning ||
+            (total != null && (total.simulations >= RaceConstants.WIN_PROBABILITY_MAX_ROLLOUTS ||
+                maxHalfWidth(total) <= RaceConstants.WIN_PROBABILITY_TARGET_HALF_WIDTH))
+    }
+
+    companion object {
+        private val MIN_RESTART_NANOS = TimeUnit.MILLISECONDS.toNanos(RaceConstants.WIN_PROBABILITY_MIN_RESTART_MILLIS)
+
+        /**
+         * Low-priority pool on the spare cores, shared by all live races
+         */
+        @JvmStatic
+        val backgroundPool: ForkJoinPool by lazy {
+            val parallelism = max(1, Runtime.getRuntime().availableProcessors() - 1)
+            ForkJoinPool(parallelism, { pool ->
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool).apply {
+                    name = "win-probability-$poolIndex"
+                    priority = Thread.MIN_PRIORITY
+                    isDaemon = true
+                }
+            }, null, false)
+        }
+
+        /**
+         * Widest 95% confidence half-width over every driver's win probability
+         * Uses (wins + 1) / (n + 2) so a driver who never (or always) won still has some uncertainty
+         */
+        @JvmStatic
+        fun maxHalfWidth(result: MonteCarloResult): Double {
+            val n = result.simulations.toDouble()
+            var widest = 0.0
+            for (slot in 0 until result.fieldSize) {
+                val p = (result.winProbability(slot) * n + 1.0) / (n + 2.0)
+                widest = max(widest, 1.96 * sqrt(p * (1.0 - p) / n))
+            }
+            return widest
+        }
+    }
+}
@@ -13,18 +13,26 @@ import androidx.compose.ui.unit.dp
 import com.david.f1_manager.Driver
 import com.david.f1_manager.Team
 import com.david.f1_manager.Track
+import com.david.f1_manager.domain.PlaybackSpeed
+import com.david.f1_manager.domain.RaceResultCache
+import com.david.f1_manager.domain.StrategySweep
+import com.david.f1_manager.domain.StrategySweepResult
 import com.david.f1_manager.domain.WeatherCondition
 import com.david.f1_manager.car.Tires.TireCompound
 import com.david.f1_manager.UserRole
 import com.david.f1_manager.ai.AITeam
 import com.david.f1_manager.data.DataStore
+import com.david.f1_manager.race.FuelModel
+import com.david.f1_manager.race.PitPlan
+import com.david.f1_manager.race.PitStrategyOptimizer
 import com.david.f1_manager.race.RaceStrategy
 import com.david.f1_manager.ui.components.RequiresAdmin
+import java.util.concurrent.CompletableFuture
 
 @Composable
 fun RaceSetupScreen(
     currentRole: UserRole,
-    onStartRace: (String, List<Pair<Driver,Team>>, Track, WeatherCondition) -> Unit
+    onStartRace: (String, List<Pair<Driver,Team>>, Track, WeatherCondition, PlaybackSpeed, RaceStrategy) -> Unit
 ) {
     RequiresAdmin(currentRole = currentRole) {
         // Observe refresh trigger to force recomposition
@@ -39,9 +47,9 @@ fun RaceSetupScreen(
         var selectedTrack by remember { mutableStateOf<Track?>(availableTracks.firstOrNull()) }
         var selectedAITeams by remember { mutableStateOf<List<AITeam>>(emptyList()) }
         var initialWeather by remember { mutableStateOf(WeatherCondition.DRY) }
+        var playbackSpeed by remember { mutableStateOf(PlaybackSpeed.X1) }
 
-        // Strategy is created and displayed in UI for demonstration purposes,
-        // but is NOT passed to LiveRaceSimulator - it doesn't affect race outcomes yet.
+        // Strategy for the player's drivers - the race runs its pit plan
         var playerStrategy by remember { mutableStateOf(
             RaceStrategy(
                 "default",
@@ -72,11 +80,38 @@ fun RaceSetupScreen(
             selectedAITeams = current
         }
 
-        // Updates strategy state for UI display only - not used in simulation
         fun updateStrategy(pitStops: Int, tireCompound: TireCompound, fuelLoad: Double) {
             playerStrategy = RaceStrategy("player_race_strategy", pitStops, tireCompound, fuelLoad)
         }
 
+        // Pit plans for the player's car on the selected track (a DP over the whole race, takes milliseconds)
+        val optimizer = remember(selectedTrack, playerTeam, refreshTrigger) {
+            val track = selectedTrack
+            val driver = playerTeam?.drivers?.firstOrNull()
+            if (track != null && driver != null) PitStrategyOptimizer(track, playerTeam.car, driver) else null
+        }
+        val plannedStints = remember(optimizer, playerStrategy) { optimizer?.optimize(playerStrategy) }
+        val optimalPlan = remember(optimizer) { optimizer?.optimize() }
+
+        // Strategy sweep: every strategy raced against the selected field, ranked as results arrive
+        var sweepResult by remember { mutableStateOf<StrategySweepResult?>(null) }
+        var activeSweep by remember { mutableStateOf<StrategySweep?>(null) }
+
+        fun stopSweep() {
+            activeSweep?.cancel()
+            activeSweep = null
+        }
+
+        // A ranking is only valid for the field, track and weather it was raced with
+        LaunchedEffect(selectedTrack, selectedAITeams, initialWeather, refreshTrigger) {
+            stopSweep()
+            sweepResult = null
+        }
+
+        DisposableEffect(Unit) {
+            onDispose { stopSweep() }
+        }
+
         // Computed value that updates when dependencies change
         val canStartRace = selectedTrack != null &&
                 playerTeam != null &&
@@ -106,6 +141,27 @@ fun RaceSetupScreen(
             return participants
         }
 
+        fun startSweep() {
+            val track = selectedTrack ?: return
+            val team = playerTeam ?: return
+            stopSweep()
+
+            val sweep = StrategySweep(
+                buildRaceParticipants(), track, initialWeather, team, track.name.hashCode().toLong(),
+                cache = RaceResultCache.shared
+            )
+            activeSweep = sweep
+            sweepResult = null
+            CompletableFuture
+                .runAsync {
+                    sweep.run { progress -> if (activeSweep === sweep) sweepResult = progress }
+                }
+                .whenComplete { _, error ->
+                    if (error != null) System.err.println("Strategy sweep failed: ${error.message}")
+                    if (activeSweep === sweep) activeSweep = null
+                }
+        }
+
         LazyColumn(
             modifier = Modifier
                 .fillMaxSize()
@@ -147,12 +203,39 @@ fun RaceSetupScreen(
                 )
             }
 
+            // Playback Speed Selection
+            item {
+                PlaybackSpeedCard(
+                    currentSpeed = playbackSpeed,
+                    onSpeedSelected = { playbackSpeed = it }
+                )
+            }
+
             // Strategy Configuration
             item {
                 StrategyConfigCard(
                     strategy = playerStrategy,
+                    plan = plannedStints,
+                    optimalPlan = optimalPlan,
                     onStrategyUpdate = { pitStops, compound, fuel ->
                         updateStrategy(pitStops, compound, fuel)
+                    },
+                    onUseOptimal = { plan ->
+                        updateStrategy(plan.pitStopCount, plan.startingCompound, plan.initialFuelLoad)
+                    }
+                )
+            }
+
+            // Strategy sweep (needs the whole field, so only once opponents are picked)
+            item {
+                StrategySweepCard(
+                    result = sweepResult,
+                    isRunning = activeSweep != null,
+                    canSweep = canStartRace,
+                    onSweep = ::startSweep,
+                    onStop = ::stopSweep,
+                    onUse = { strategy ->
+                        updateStrategy(strategy.pitStopCount, strategy.startingTireCompound, strategy.initialFuelLoad)
                     }
                 )
             }
@@ -181,7 +264,7 @@ fun RaceSetupScreen(
                         if (canStartRace && selectedTrack != null) {
                             val raceId = "race_${System.currentTimeMillis()}"
                             val participants = buildRaceParticipants()
-                            onStartRace(raceId, participants, selectedTrack!!, initialWeather)
+                            onStartRace(raceId, participants, selectedTrack!!, initialWeather, playbackSpeed, playerStrategy)
                         }
                     },
                     modifier = Modifier
@@ -331,14 +414,61 @@ private fun WeatherSelectionCard(
     }
 }
 
+@Composable
+private fun PlaybackSpeedCard(
+    currentSpeed: PlaybackSpeed,
+    onSpeedSelected: (PlaybackSpeed) -> Unit
+) {
+    Card(
+        modifier = Modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surfaceVariant
+        ),
+        shape = RoundedCornerShape(24.dp)
+    ) {
+        Column(
+            modifier = Modifier.padding(16.dp),
+            verticalArrangement = Arrangement.spacedBy(12.dp)
+        ) {
+            Text(
+                text = "Playback Speed",
+                style = MaterialTheme.typography.titleMedium,
+                color = MaterialTheme.colorScheme.secondary
+            )
+
+            Row(
+                modifier = Modifier.fillMaxWidth(),
+                horizontalArrangement = Arrangement.spacedBy(8.dp)
+            ) {
+                PlaybackSpeed.entries.forEach { speed ->
+                    FilterChip(
+                        selected = currentSpeed == speed,
+                        onClick = { onSpeedSelected(speed) },
+                        label = {
+                            Text(
+                                speed.label,
+                                style = MaterialTheme.typography.labelMedium
+                            )
+                        },
+                        modifier = Modifier.weight(1f)
+                    )
+                }
+            }
+        }
+    }
+}
+
 @Composable
 private fun StrategyConfigCard(
     strategy: RaceStrategy,
-    onStrategyUpdate: (Int, TireCompound, Double) -> Unit
+    plan: PitPlan?,
+    optimalPlan: PitPlan?,
+    onStrategyUpdate: (Int, TireCompound, Double) -> Unit,
+    onUseOptimal: (PitPlan) -> Unit
 ) {
-    var pitStops by remember { mutableStateOf(strategy.pitStopCount) }
-    var tireCompound by remember { mutableStateOf(strategy.startingTireCompound) }
-    var fuelLoad by remember { mutableStateOf(strategy.initialFuelLoad) }
+    val pitStops = strategy.pitStopCount
+    val tireCompound = strategy.startingTireCompound
+    val fuelLoad = strategy.initialFuelLoad
 
     Card(
         modifier = Modifier.fillMaxWidth(),
@@ -363,8 +493,7 @@ private fun StrategyConfigCard(
                 Slider(
                     value = pitStops.toFloat(),
                     onValueChange = {
-                        pitStops = it.toInt()
-                        onStrategyUpdate(pitStops, tireCompound, fuelLoad)
+                        onStrategyUpdate(it.toInt(), tireCompound, fuelLoad)
                     },
                     valueRange = 0f..3f,
                     steps = 2
@@ -382,8 +511,7 @@ private fun StrategyConfigCard(
                         FilterChip(
                             selected = tireCompound == compound,
                             onClick = {
-                                tireCompound = compound
-                                onStrategyUpdate(pitStops, tireCompound, fuelLoad)
+                                onStrategyUpdate(pitStops, compound, fuelLoad)
                             },
                             label = { Text(compound.name) },
                             modifier = Modifier.weight(1f)
@@ -398,16 +526,141 @@ private fun StrategyConfigCard(
                 Slider(
                     value = fuelLoad.toFloat(),
                     onValueChange = {
-                        fuelLoad = it.toDouble()
-                        onStrategyUpdate(pitStops, tireCompound, fuelLoad)
+                        onStrategyUpdate(pitStops, tireCompound, it.toDouble())
                     },
-                    valueRange = 50f..100f
+                    valueRange = FuelModel.MIN_FUEL_LOAD.toFloat()..FuelModel.MAX_FUEL_LOAD.toFloat()
                 )
             }
+
+            // Pit plan the race will run, and the fastest one for this car and track
+            plan?.let {
+                Column(verticalArrangement = Arrangement.spacedBy(4.dp)) {
+                    Text("Pit Plan (+${"%.1f".format(it.timeLoss)}s)", style = MaterialTheme.typography.labelLarge)
+                    Text(it.toString(), style = MaterialTheme.typography.bodyMedium)
+                }
+            }
+
+            optimalPlan?.let { optimal ->
+                Row(
+                    modifier = Modifier.fillMaxWidth(),
+                    horizontalArrangement = Arrangement.SpaceBetween,
+                    verticalAlignment = Alignment.CenterVertically
+                ) {
+                    Column(modifier = Modifier.weight(1f), verticalArrangement = Arrangement.spacedBy(4.dp)) {
+                        Text(
+                            "Fastest: ${optimal.pitStopCount} stops, ${optimal.initialFuelLoad.toInt()} kg (+${"%.1f".format(optimal.timeLoss)}s)",
+                            style = MaterialTheme.typography.labelLarge
+                        )
+                        Text(
+                            optimal.toString(),
+                            style = MaterialTheme.typography.bodySmall,
+                            color = MaterialTheme.colorScheme.onSurfaceVariant
+                        )
+                    }
+                    OutlinedButton(
+                        onClick = { onUseOptimal(optimal) },
+                        enabled = plan == null || plan.timeLoss > optimal.timeLoss
+                    ) {
+                        Text("Use Fastest")
+                    }
+                }
+            }
+        }
+    }
+}
+
+@Composable
+private fun StrategySweepCard(
+    result: StrategySweepResult?,
+    isRunning: Boolean,
+    canSweep: Boolean,
+    onSweep: () -> Unit,
+    onStop: () -> Unit,
+    onUse: (RaceStrategy) -> Unit
+) {
+    Card(
+        modifier = Modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surfaceVariant
+        ),
+        shape = RoundedCornerShape(24.dp)
+    ) {
+        Column(
+            modifier = Modifier.padding(16.dp),
+            verticalArrangement = Arrangement.spacedBy(12.dp)
+        ) {
+            Row(
+                modifier = Modifier.fillMaxWidth(),
+                horizontalArrangement = Arrangement.SpaceBetween,
+                verticalAlignment = Alignment.CenterVertically
+            ) {
+                Text(
+                    text = "Strategy Sweep",
+                    style = MaterialTheme.typography.titleMedium,
+                    color = MaterialTheme.colorScheme.secondary
+                )
+                if (isRunning) {
+                    OutlinedButton(onClick = onStop) {
+                        Text("Stop")
+                    }
+                } else {
+                    OutlinedButton(onClick = onSweep, enabled = canSweep) {
+                        Text("Sweep")
+                    }
+                }
+            }
+
+            if (result == null) {
+                Text(
+                    text = if (canSweep) "Race every pit stop, tire and fuel choice against the selected field"
+                           else "Pick a track and AI opponents to sweep strategies",
+                    style = MaterialTheme.typography.bodySmall,
+                    color = MaterialTheme.colorScheme.onSurfaceVariant
+                )
+            }
+
+            result?.let { sweep ->
+                if (!sweep.isComplete) {
+                    LinearProgressIndicator(
+                        progress = { sweep.completed.toFloat() / sweep.total },
+                        modifier = Modifier.fillMaxWidth()
+                    )
+                }
+                Text(
+                    text = "${sweep.completed}/${sweep.total} strategies, ${sweep.ranking.firstOrNull()?.simulations ?: 0} races each",
+                    style = MaterialTheme.typography.labelMedium,
+                    color = MaterialTheme.colorScheme.onSurfaceVariant
+                )
+
+                sweep.ranking.take(SWEEP_ROWS).forEachIndexed { rank, score ->
+                    val strategy = score.strategy
+                    Row(
+                        modifier = Modifier.fillMaxWidth(),
+                        horizontalArrangement = Arrangement.spacedBy(8.dp),
+                        verticalAlignment = Alignment.CenterVertically
+                    ) {
+                        Text(
+                            text = "${rank + 1}. ${strategy.pitStopCount} stops, ${strategy.startingTireCompound}, ${strategy.initialFuelLoad.toInt()} kg",
+                            style = MaterialTheme.typography.bodyMedium,
+                            modifier = Modifier.weight(1f)
+                        )
+                        Text(
+                            text = "P%.2f ± %.2f".format(score.expectedPosition, kotlin.math.sqrt(score.positionVariance)),
+                            style = MaterialTheme.typography.bodySmall
+                        )
+                        TextButton(onClick = { onUse(strategy) }) {
+                            Text("Use")
+                        }
+                    }
+                }
+            }
         }
     }
 }
 
+// Strategies listed in the sweep ranking
+private const val SWEEP_ROWS = 8
+
 @Composable
 private fun AITeamCard(
     aiTeam: AITeam,
@@ -10,12 +10,20 @@ import com.david.f1_manager.Driver
 import com.david.f1_manager.Team
 import com.david.f1_manager.Track
 import com.david.f1_manager.data.DataStore
+import com.david.f1_manager.domain.PitPlanner
+import com.david.f1_manager.domain.PlaybackSpeed
 import com.david.f1_manager.domain.WeatherCondition
 import com.david.f1_manager.domain.RaceEventIcons
+import com.david.f1_manager.domain.RaceEventJournal
 import com.david.f1_manager.domain.RaceResult
 import com.david.f1_manager.domain.TeamResult
+import com.david.f1_manager.domain.WhatIfScenario
+import com.david.f1_manager.race.RaceStrategy
 import com.david.f1_manager.ui.screens.race.view.components.DriverSelectionDialog
 import com.david.f1_manager.ui.screens.race.view.components.LiveLeaderboard
+import com.david.f1_manager.ui.screens.race.view.components.PitAdvicePanel
+import com.david.f1_manager.ui.screens.race.view.components.WhatIfPanel
+import java.io.File
 
 @Composable
 fun RaceViewScreen(
@@ -23,11 +31,22 @@ fun RaceViewScreen(
     participants: List<Pair<Driver, Team>>,
     track: Track,
     initialWeather: WeatherCondition,
+    playbackSpeed: PlaybackSpeed,
+    playerStrategy: RaceStrategy?,
     onBack: () -> Unit
 ) {
-    // Create live race simulator
+    // Create live race simulator (full event history goes to a local journal file)
     val simulator = remember(raceId) {
-        com.david.f1_manager.domain.LiveRaceSimulator(participants, track, initialWeather)
+        com.david.f1_manager.domain.LiveRaceSimulator(
+            participants,
+            track,
+            initialWeather,
+            raceId.hashCode().toLong(),  // Race id doubles as the seed, so a race can be re-run from its id
+            playbackSpeed,
+            File(RaceEventJournal.defaultDirectory(), "$raceId.bin"),
+            PitPlanner.planField(participants, track, DataStore.currentManagedTeam, playerStrategy),
+            PitPlanner.playerSlots(participants, DataStore.currentManagedTeam)
+        )
     }
 
     // Dialog state for driver selection
@@ -39,6 +58,13 @@ fun RaceViewScreen(
         simulator.startRace()
     }
 
+    // Stop ticking the race when the user leaves the screen
+    DisposableEffect(simulator) {
+        onDispose {
+            simulator.cancelRace()
+        }
+    }
+
     // Save race result when finished
     LaunchedEffect(simulator.isFinished) {
         if (simulator.isFinished) {
@@ -55,7 +81,8 @@ fun RaceViewScreen(
             // Create and save race result with simplified data class
             val raceResult = RaceResult(
                 trackName = track.name,
-                teamResults = teamResults
+                teamResults = teamResults,
+                replay = simulator.replay()
             )
 
             DataStore.raceResults.add(raceResult)
@@ -75,22 +102,63 @@ fun RaceViewScreen(
             verticalAlignment = Alignment.CenterVertically
         ) {
             Text(
-                text = if (simulator.isRacing) "Live Race - ${track.name}" else "Race Results - ${track.name}",
+                text = when {
+                    simulator.isRacing -> "Live Race - ${track.name}"
+                    simulator.failure != null -> "Race Stopped - ${track.name}"
+                    else -> "Race Results - ${track.name}"
+                },
                 style = MaterialTheme.typography.displaySmall,
                 color = MaterialTheme.colorScheme.primary
             )
 
             if (simulator.isRacing || simulator.isFinished) {
-                Text(
-                    text = "Lap ${simulator.currentLap}/${track.laps}",
-                    style = MaterialTheme.typography.headlineSmall,
-                    color = if (simulator.isRacing) MaterialTheme.colorScheme.secondary else MaterialTheme.colorScheme.onSurface
-                )
+                Row(
+                    horizontalArrangement = Arrangement.spacedBy(12.dp),
+                    verticalAlignment = Alignment.CenterVertically
+                ) {
+                    if (simulator.isRacing) {
+                        PlaybackSpeed.entries.forEach { speed ->
+                            FilterChip(
+                                selected = simulator.playbackSpeed == speed,
+                                onClick = { simulator.changePlaybackSpeed(speed) },
+                                label = { Text(speed.label, style = MaterialTheme.typography.labelMedium) }
+                            )
+                        }
+
+                        if (simulator.playbackSpeed == PlaybackSpeed.STEP) {
+                            Button(onClick = { simulator.nextLap() }) {
+                                Text("Next Lap")
+                            }
+                        }
+
+                        OutlinedButton(
+                            onClick = {
+                                if (simulator.isPaused) simulator.resumeRace() else simulator.pauseRace()
+                            }
+                        ) {
+                            Text(if (simulator.isPaused) "Resume" else "Pause")
+                        }
+                    }
+
+                    Text(
+                        text = "Lap ${simulator.currentLap}/${track.laps}",
+                        style = MaterialTheme.typography.headlineSmall,
+                        color = if (simulator.isRacing) MaterialTheme.colorScheme.secondary else MaterialTheme.colorScheme.onSurface
+                    )
+                }
             }
         }
 
         HorizontalDivider()
 
+        simulator.failure?.let { message ->
+            Text(
+                text = "The race stopped on lap ${simulator.currentLap} and has no result: $message",
+                style = MaterialTheme.typography.bodyMedium,
+                color = MaterialTheme.colorScheme.error
+            )
+        }
+
         // Main content: Two-panel layout (60% leaderboard, 40% events)
         Row(
             modifier = Modifier
@@ -101,7 +169,8 @@ fun RaceViewScreen(
             // Left panel: Leaderboard (60%)
             LiveLeaderboard(
                 standings = simulator.standings,
-                modifier = Modifier.weight(0.6f)
+                modifier = Modifier.weight(0.6f),
+                winProbabilities = if (simulator.isRacing) simulator.winProbabilities else null
             )
 
             // Right panel: Event log and controls (40%)
@@ -244,6 +313,30 @@ fun RaceViewScreen(
             }
         }
 
+        // Pit-call advice for the player's cars (tree search in the background)
+        if (simulator.isRacing && simulator.pitAdvice.isNotEmpty()) {
+            PitAdvicePanel(
+                advice = simulator.pitAdvice,
+                driverName = { slot -> participants[slot].first.name },
+                onBox = { advice -> simulator.triggerPitStop(listOf(advice.slot), advice.call.compound) }
+            )
+        }
+
+        // What-if questions (forked futures, answered in the background)
+        if (simulator.isRacing) {
+            WhatIfPanel(
+                result = simulator.whatIfResult,
+                isAnalyzing = simulator.isAnalyzing,
+                onPitNow = {
+                    dialogEventType = "WHAT_IF_PIT"
+                    showDriverDialog = true
+                },
+                onHeavyRainSoon = {
+                    simulator.askWhatIf(WhatIfScenario.weatherIn(3, WeatherCondition.HEAVY_RAIN))
+                }
+            )
+        }
+
         // Winner card (only show when finished)
         if (simulator.isFinished) {
             val winner = simulator.standings.firstOrNull()
@@ -295,11 +388,16 @@ fun RaceViewScreen(
     if (showDriverDialog && dialogEventType != null) {
         DriverSelectionDialog(
             eventTypeLabel = dialogEventType!!,
-            drivers = simulator.standings.map { it.driverName },
+            drivers = simulator.standings.map { it.gridSlot to it.driverName },
             onConfirm = { selectedDrivers ->
                 when (dialogEventType) {
                     "CRASH" -> simulator.triggerCrash(selectedDrivers)
                     "PIT_STOP" -> simulator.triggerPitStop(selectedDrivers)
+                    "WHAT_IF_PIT" -> {
+                        val slot = selectedDrivers.first()
+                        val driverName = simulator.standings.first { it.gridSlot == slot }.driverName
+                        simulator.askWhatIf(WhatIfScenario.pitNow(slot, driverName))
+                    }
                 }
                 showDriverDialog = false
                 dialogEventType = null
@@ -12,15 +12,16 @@ import androidx.compose.ui.unit.dp
 /**
  * Reusable dialog for selecting driver(s) when triggering race events
  * Features multi-select checkboxes and clear event descriptions
+ * Drivers are (grid slot, name) pairs so drivers sharing a name stay distinct
  */
 @Composable
 fun DriverSelectionDialog(
     eventTypeLabel: String,
-    drivers: List<String>,
-    onConfirm: (List<String>) -> Unit,
+    drivers: List<Pair<Int, String>>,
+    onConfirm: (List<Int>) -> Unit,
     onDismiss: () -> Unit
 ) {
-    var selectedDrivers by remember { mutableStateOf(setOf<String>()) }
+    var selectedDrivers by remember { mutableStateOf(setOf<Int>()) }
 
     val (title, description) = when (eventTypeLabel) {
         "CRASH" -> Pair(
@@ -31,6 +32,10 @@ fun DriverSelectionDialog(
             "Select Driver(s) to Pit",
             "The selected driver(s) will receive a +3 second time penalty"
         )
+        "WHAT_IF_PIT" -> Pair(
+            "What If a Driver Pits Now?",
+            "Simulates the rest of the race with and without a pit stop now for the first selected driver"
+        )
         else -> Pair(
             "Select Driver(s)",
             "Choose which driver(s) to affect"
@@ -58,7 +63,7 @@ fun DriverSelectionDialog(
                     modifier = Modifier.heightIn(max = 300.dp),
                     verticalArrangement = Arrangement.spacedBy(4.dp)
                 ) {
-                    items(drivers) { driver ->
+                    items(drivers) { (slot, driverName) ->
                         Row(
                             modifier = Modifier
                                 .fillMaxWidth()
@@ -67,17 +72,17 @@ fun DriverSelectionDialog(
                             horizontalArrangement = Arrangement.spacedBy(8.dp)
                         ) {
                             Checkbox(
-                                checked = selectedDrivers.contains(driver),
+                                checked = selectedDrivers.contains(slot),
                                 onCheckedChange = { checked ->
                                     selectedDrivers = if (checked) {
-                                        selectedDrivers + driver
+                                        selectedDrivers + slot
                                     } else {
-                                        selectedDrivers - driver
+                                        selectedDrivers - slot
                                     }
                                 }
                             )
                             Text(
-                                text = driver,
+                                text = driverName,
                                 style = MaterialTheme.typography.bodyLarge
                             )
                         }
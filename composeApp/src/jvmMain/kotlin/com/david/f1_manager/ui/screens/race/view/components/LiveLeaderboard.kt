@@ -12,11 +12,13 @@ import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.unit.dp
 import com.david.f1_manager.domain.RaceStanding
+import com.david.f1_manager.domain.WinProbabilityEstimate
 
 @Composable
 fun LiveLeaderboard(
     standings: List<RaceStanding>,
-    modifier: Modifier = Modifier
+    modifier: Modifier = Modifier,
+    winProbabilities: WinProbabilityEstimate? = null  // Shown as Win/Podium columns while the race runs
 ) {
     Card(
         modifier = modifier,
@@ -79,6 +81,22 @@ fun LiveLeaderboard(
                     fontWeight = FontWeight.Bold,
                     modifier = Modifier.width(70.dp)
                 )
+                if (winProbabilities != null) {
+                    Text(
+                        text = "Win",
+                        style = MaterialTheme.typography.labelSmall,
+                        color = MaterialTheme.colorScheme.onSurfaceVariant,
+                        fontWeight = FontWeight.Bold,
+                        modifier = Modifier.width(50.dp)
+                    )
+                    Text(
+                        text = "Podium",
+                        style = MaterialTheme.typography.labelSmall,
+                        color = MaterialTheme.colorScheme.onSurfaceVariant,
+                        fontWeight = FontWeight.Bold,
+                        modifier = Modifier.width(50.dp)
+                    )
+                }
             }
 
             HorizontalDivider()
@@ -89,7 +107,7 @@ fun LiveLeaderboard(
                 verticalArrangement = Arrangement.spacedBy(4.dp)
             ) {
                 itemsIndexed(standings) { index, standing ->
-                    LeaderboardRow(standing = standing)
+                    LeaderboardRow(standing = standing, winProbabilities = winProbabilities)
                 }
             }
         }
@@ -97,7 +115,7 @@ fun LiveLeaderboard(
 }
 
 @Composable
-private fun LeaderboardRow(standing: RaceStanding) {
+private fun LeaderboardRow(standing: RaceStanding, winProbabilities: WinProbabilityEstimate?) {
     val backgroundColor = when (standing.position) {
         1 -> Color(0xFFFFD700) // Gold
         2 -> Color(0xFFC0C0C0) // Silver
@@ -155,14 +173,44 @@ private fun LeaderboardRow(standing: RaceStanding) {
                 modifier = Modifier.width(90.dp)
             )
 
-            // Gap
+            // Gap (stored as seconds, formatted only here)
             Text(
-                text = standing.gap,
+                text = formatGap(standing),
                 style = MaterialTheme.typography.bodySmall,
                 color = textColor,
-                fontWeight = if (standing.gap == "Leader") FontWeight.Bold else FontWeight.Normal,
+                fontWeight = if (standing.position == 1) FontWeight.Bold else FontWeight.Normal,
                 modifier = Modifier.width(70.dp)
             )
+
+            // Win and podium probability from background rollouts
+            winProbabilities?.let { estimate ->
+                Text(
+                    text = formatProbability(estimate.result.winProbability(standing.gridSlot)),
+                    style = MaterialTheme.typography.bodySmall,
+                    color = textColor,
+                    modifier = Modifier.width(50.dp)
+                )
+                Text(
+                    text = formatProbability(estimate.result.podiumProbability(standing.gridSlot)),
+                    style = MaterialTheme.typography.bodySmall,
+                    color = textColor,
+                    modifier = Modifier.width(50.dp)
+                )
+            }
         }
     }
 }
+
+/**
+ * Format a probability as a whole percentage
+ */
+private fun formatProbability(probability: Double): String {
+    return "${(probability * 100).toInt()}%"
+}
+
+/**
+ * Format the numeric gap to leader for display
+ */
+private fun formatGap(standing: RaceStanding): String {
+    return if (standing.position == 1) "Leader" else "+${String.format("%.1f", standing.gapToLeader)}s"
+}
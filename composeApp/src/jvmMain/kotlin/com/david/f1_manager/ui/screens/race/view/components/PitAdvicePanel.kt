@@ -0,0 +1,84 @@
+package com.david.f1_manager.ui.screens.race.view.components
+
+import androidx.compose.foundation.layout.*
+import androidx.compose.foundation.shape.RoundedCornerShape
+import androidx.compose.material3.*
+import androidx.compose.runtime.Composable
+import androidx.compose.ui.Alignment
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.text.font.FontWeight
+import androidx.compose.ui.unit.dp
+import com.david.f1_manager.domain.PitAdvice
+import com.david.f1_manager.domain.PitCall
+import com.david.f1_manager.domain.RaceEventIcons
+
+/**
+ * Pit wall advice for the player's cars: the recommended call, the expected finishing
+ * position and the places it gains over staying out, with a button to make the call
+ */
+@Composable
+fun PitAdvicePanel(
+    advice: List<PitAdvice>,
+    driverName: (Int) -> String,
+    onBox: (PitAdvice) -> Unit,
+    modifier: Modifier = Modifier
+) {
+    Card(
+        modifier = modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surfaceVariant
+        ),
+        shape = RoundedCornerShape(12.dp)
+    ) {
+        Column(
+            modifier = Modifier.padding(16.dp),
+            verticalArrangement = Arrangement.spacedBy(8.dp)
+        ) {
+            Text(
+                text = "Pit Wall",
+                style = MaterialTheme.typography.titleMedium,
+                color = MaterialTheme.colorScheme.primary
+            )
+
+            advice.forEach { call ->
+                Row(
+                    modifier = Modifier.fillMaxWidth(),
+                    horizontalArrangement = Arrangement.spacedBy(8.dp),
+                    verticalAlignment = Alignment.CenterVertically
+                ) {
+                    Text(
+                        text = driverName(call.slot),
+                        style = MaterialTheme.typography.bodyMedium,
+                        fontWeight = FontWeight.Bold,
+                        modifier = Modifier.weight(1f)
+                    )
+                    Text(
+                        text = callLabel(call.call),
+                        style = MaterialTheme.typography.bodyMedium
+                    )
+                    Text(
+                        text = "P%.1f (%+.1f)".format(call.expectedPosition, call.expectedGain),
+                        style = MaterialTheme.typography.bodySmall,
+                        color = if (call.expectedGain > 0.05) MaterialTheme.colorScheme.primary else MaterialTheme.colorScheme.onSurfaceVariant
+                    )
+                    Text(
+                        text = "after lap ${call.lap}, ${call.simulations} sims",
+                        style = MaterialTheme.typography.labelSmall,
+                        color = MaterialTheme.colorScheme.onSurfaceVariant
+                    )
+                    OutlinedButton(
+                        onClick = { onBox(call) },
+                        enabled = call.call != PitCall.STAY_OUT
+                    ) {
+                        Text("Box")
+                    }
+                }
+            }
+        }
+    }
+}
+
+private fun callLabel(call: PitCall): String = when (call) {
+    PitCall.STAY_OUT -> "Stay out"
+    else -> "${RaceEventIcons.PIT_STOP} Pit for ${call.compound}"
+}
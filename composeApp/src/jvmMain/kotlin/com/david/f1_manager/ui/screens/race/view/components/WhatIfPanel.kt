@@ -0,0 +1,102 @@
+package com.david.f1_manager.ui.screens.race.view.components
+
+import androidx.compose.foundation.layout.*
+import androidx.compose.foundation.shape.RoundedCornerShape
+import androidx.compose.material3.*
+import androidx.compose.runtime.Composable
+import androidx.compose.ui.Alignment
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.text.font.FontWeight
+import androidx.compose.ui.unit.dp
+import com.david.f1_manager.domain.WhatIfResult
+
+/**
+ * What-if questions for the live race and the latest answer:
+ * expected finishing position per driver without and with the scenario
+ */
+@Composable
+fun WhatIfPanel(
+    result: WhatIfResult?,
+    isAnalyzing: Boolean,
+    onPitNow: () -> Unit,
+    onHeavyRainSoon: () -> Unit,
+    modifier: Modifier = Modifier
+) {
+    Card(
+        modifier = modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surfaceVariant
+        ),
+        shape = RoundedCornerShape(12.dp)
+    ) {
+        Column(
+            modifier = Modifier.padding(16.dp),
+            verticalArrangement = Arrangement.spacedBy(8.dp)
+        ) {
+            Row(
+                modifier = Modifier.fillMaxWidth(),
+                horizontalArrangement = Arrangement.spacedBy(8.dp),
+                verticalAlignment = Alignment.CenterVertically
+            ) {
+                Text(
+                    text = "What If?",
+                    style = MaterialTheme.typography.titleMedium,
+                    color = MaterialTheme.colorScheme.primary,
+                    modifier = Modifier.weight(1f)
+                )
+
+                OutlinedButton(onClick = onPitNow, enabled = !isAnalyzing) {
+                    Text("Driver pits now")
+                }
+                OutlinedButton(onClick = onHeavyRainSoon, enabled = !isAnalyzing) {
+                    Text("Heavy rain in 3 laps")
+                }
+            }
+
+            if (isAnalyzing) {
+                LinearProgressIndicator(modifier = Modifier.fillMaxWidth())
+            }
+
+            result?.let { whatIf ->
+                Text(
+                    text = "${whatIf.scenario.label} (from lap ${whatIf.fromLap}, ${whatIf.futures} futures)",
+                    style = MaterialTheme.typography.labelLarge,
+                    fontWeight = FontWeight.Bold
+                )
+
+                // Drivers in expected finishing order without the scenario
+                val slots = (0 until whatIf.baseline.fieldSize).sortedBy { whatIf.baseline.expectedPosition(it) }
+                slots.forEach { slot ->
+                    val change = whatIf.expectedPositionChange(slot)
+                    Row(
+                        modifier = Modifier.fillMaxWidth(),
+                        horizontalArrangement = Arrangement.spacedBy(8.dp)
+                    ) {
+                        Text(
+                            text = whatIf.baseline.driverName(slot),
+                            style = MaterialTheme.typography.bodySmall,
+                            modifier = Modifier.weight(1f)
+                        )
+                        Text(
+                            text = "P%.1f → P%.1f".format(
+                                whatIf.baseline.expectedPosition(slot),
+                                whatIf.outcome.expectedPosition(slot)
+                            ),
+                            style = MaterialTheme.typography.bodySmall
+                        )
+                        Text(
+                            text = "%+.1f".format(change),
+                            style = MaterialTheme.typography.bodySmall,
+                            color = when {
+                                change > 0.05 -> MaterialTheme.colorScheme.error
+                                change < -0.05 -> MaterialTheme.colorScheme.primary
+                                else -> MaterialTheme.colorScheme.onSurfaceVariant
+                            },
+                            modifier = Modifier.width(48.dp)
+                        )
+                    }
+                }
+            }
+        }
+    }
+}
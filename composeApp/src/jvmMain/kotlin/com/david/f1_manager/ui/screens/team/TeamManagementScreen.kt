@@ -13,10 +13,14 @@ import com.david.f1_manager.Driver
 import com.david.f1_manager.car.*
 import com.david.f1_manager.data.DataStore
 import com.david.f1_manager.data.DatabaseRepository
+import com.david.f1_manager.domain.LineupPlan
 import com.david.f1_manager.UserRole
 import com.david.f1_manager.ui.components.RequiresAdmin
+import com.david.f1_manager.ui.screens.team.components.CarBuildOptimizerCard
 import com.david.f1_manager.ui.screens.team.components.CarPartSelector
 import com.david.f1_manager.ui.screens.team.components.DriverCard
+import com.david.f1_manager.ui.screens.team.components.LineupOptimizerCard
+import com.david.f1_manager.ui.screens.team.components.UpgradeGainsCard
 
 @Composable
 fun TeamManagementScreen(
@@ -133,6 +137,38 @@ fun TeamManagementScreen(
             }
         }
 
+        fun applyBuild(build: CarBuild) {
+            assignEngine(build.engine)
+            assignAerodynamics(build.aerodynamics)
+            assignTires(build.tires)
+            assignGearbox(build.gearbox)
+            assignSuspension(build.suspension)
+        }
+
+        fun applyLineup(plan: LineupPlan) {
+            val team = playerTeam ?: return
+            // Signing a short lineup would leave a seat empty
+            if (!plan.fillsTeam) return
+            val repo = DatabaseRepository()
+
+            // Free the seats first so no team ever holds more than two drivers
+            team.drivers.filter { it !in plan.drivers }.forEach { removeDriverFromTeam(it) }
+            plan.transfers.forEach { (driver, from) ->
+                if (repo.removeDriverFromTeamInDB(driver.id)) {
+                    from.removeDriver(driver)
+                }
+            }
+            plan.drivers.filter { it !in team.drivers }.forEach { addDriverToTeam(it) }
+            plan.refills.forEach { (driver, to) ->
+                if (repo.addDriverToTeamInDB(driver.id, to.id)) {
+                    to.addDriver(driver)
+                } else {
+                    println("Error: Failed to sign ${driver.name} for ${to.name} in database")
+                }
+            }
+            DataStore.notifyChange()
+        }
+
         Column(
             modifier = Modifier
                 .fillMaxSize()
@@ -183,7 +219,8 @@ fun TeamManagementScreen(
                         onAddDriverToTeam = ::addDriverToTeam,
                         onRemoveDriverFromTeam = ::removeDriverFromTeam,
                         onCreateDriver = ::createDriver,
-                        onDeleteDriver = ::deleteDriver
+                        onDeleteDriver = ::deleteDriver,
+                        onApplyLineup = ::applyLineup
                     )
                     1 -> CarPartsTab(
                         playerTeam = playerTeam,
@@ -191,7 +228,8 @@ fun TeamManagementScreen(
                         onAssignAerodynamics = ::assignAerodynamics,
                         onAssignTires = ::assignTires,
                         onAssignGearbox = ::assignGearbox,
-                        onAssignSuspension = ::assignSuspension
+                        onAssignSuspension = ::assignSuspension,
+                        onApplyBuild = ::applyBuild
                     )
                 }
             }
@@ -205,7 +243,8 @@ private fun DriversTab(
     onAddDriverToTeam: (Driver) -> Unit,
     onRemoveDriverFromTeam: (Driver) -> Unit,
     onCreateDriver: (String, Int) -> Unit,
-    onDeleteDriver: (Driver) -> Unit
+    onDeleteDriver: (Driver) -> Unit,
+    onApplyLineup: (LineupPlan) -> Unit
 ) {
     // Observe refresh trigger to force recomposition of lists
     val refreshTrigger = DataStore.refreshTrigger.value
@@ -255,6 +294,16 @@ private fun DriversTab(
             }
         }
 
+        item {
+            LineupOptimizerCard(
+                playerTeam = playerTeam,
+                opponents = DataStore.aiTeams.toList(),
+                pool = allDrivers,
+                tracks = DataStore.tracks.values.toList(),
+                onApply = onApplyLineup
+            )
+        }
+
         // Available drivers section
         item {
             Row(
@@ -312,7 +361,8 @@ private fun CarPartsTab(
     onAssignAerodynamics: (Aerodynamics?) -> Unit,
     onAssignTires: (Tires?) -> Unit,
     onAssignGearbox: (Gearbox?) -> Unit,
-    onAssignSuspension: (Suspension?) -> Unit
+    onAssignSuspension: (Suspension?) -> Unit,
+    onApplyBuild: (CarBuild) -> Unit
 ) {
     // Observe refresh trigger to force recomposition when parts change
     val refreshTrigger = DataStore.refreshTrigger.value
@@ -331,6 +381,14 @@ private fun CarPartsTab(
     val currentGearbox = playerTeam?.car?.gearbox
     val currentSuspension = playerTeam?.car?.suspension
 
+    // Parts already fitted to another team's car
+    val takenPartIds = (DataStore.teams.values + DataStore.aiTeams)
+        .filter { it !== playerTeam }
+        .mapNotNull { it.car }
+        .flatMap { car -> listOfNotNull(car.engine, car.aerodynamics, car.tires, car.suspension, car.gearbox) }
+        .map { it.id }
+        .toSet()
+
     LazyColumn(
         verticalArrangement = Arrangement.spacedBy(12.dp)
     ) {
@@ -343,6 +401,23 @@ private fun CarPartsTab(
             )
         }
 
+        item {
+            CarBuildOptimizerCard(
+                tracks = DataStore.tracks.values.toList(),
+                parts = DataStore.carParts.values,
+                takenPartIds = takenPartIds,
+                currentCar = playerTeam?.car,
+                onApply = onApplyBuild
+            )
+        }
+
+        item {
+            UpgradeGainsCard(
+                car = playerTeam?.car,
+                tracks = DataStore.tracks.values.toList()
+            )
+        }
+
         item {
             CarPartSelector(
                 label = "Engine (35% weight)",
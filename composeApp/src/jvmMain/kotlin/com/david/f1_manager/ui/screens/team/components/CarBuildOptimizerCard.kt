@@ -0,0 +1,157 @@
+package com.david.f1_manager.ui.screens.team.components
+
+import androidx.compose.foundation.layout.*
+import androidx.compose.foundation.shape.RoundedCornerShape
+import androidx.compose.material3.*
+import androidx.compose.runtime.*
+import androidx.compose.ui.Alignment
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.unit.dp
+import com.david.f1_manager.Track
+import com.david.f1_manager.car.Car
+import com.david.f1_manager.car.CarBuild
+import com.david.f1_manager.car.CarBuildOptimizer
+import com.david.f1_manager.car.CarPart
+import com.david.f1_manager.domain.WeatherCondition
+import com.david.f1_manager.race.PartValue
+
+// Budget slider range over summed part ratings; the top of the range means no limit
+private const val MIN_BUDGET = 100f
+private const val MAX_BUDGET = 500f
+
+/**
+ * Finds the best parts for a track with CarBuildOptimizer and offers to fit them
+ * Parts carry no price, so the optional budget caps the summed ratings of the five parts
+ */
+@Composable
+fun CarBuildOptimizerCard(
+    tracks: List<Track>,
+    parts: Collection<CarPart>,
+    takenPartIds: Set<String>,
+    currentCar: Car?,
+    onApply: (CarBuild) -> Unit,
+    modifier: Modifier = Modifier
+) {
+    var selectedTrack by remember(tracks) { mutableStateOf(tracks.firstOrNull()) }
+    var availableOnly by remember { mutableStateOf(true) }
+    var budget by remember { mutableStateOf(MAX_BUDGET) }
+    var build by remember { mutableStateOf<CarBuild?>(null) }
+    var searched by remember { mutableStateOf(false) }
+    var expanded by remember { mutableStateOf(false) }
+
+    // A build is only valid for the inputs it was searched with
+    LaunchedEffect(selectedTrack, availableOnly, budget, parts, takenPartIds) {
+        build = null
+        searched = false
+    }
+
+    Card(
+        modifier = modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surface
+        ),
+        shape = RoundedCornerShape(24.dp)
+    ) {
+        Column(
+            modifier = Modifier
+                .fillMaxWidth()
+                .padding(16.dp),
+            verticalArrangement = Arrangement.spacedBy(8.dp)
+        ) {
+            Text(
+                text = "Best Build for a Track",
+                style = MaterialTheme.typography.titleMedium,
+                color = MaterialTheme.colorScheme.secondary
+            )
+
+            Box {
+                OutlinedButton(onClick = { expanded = true }, modifier = Modifier.fillMaxWidth()) {
+                    Text(selectedTrack?.let { "${it.name} (${it.characteristics?.name})" } ?: "No tracks")
+                }
+                DropdownMenu(expanded = expanded, onDismissRequest = { expanded = false }) {
+                    tracks.forEach { track ->
+                        DropdownMenuItem(
+                            text = { Text("${track.name} • ${track.characteristics?.name}") },
+                            onClick = {
+                                selectedTrack = track
+                                expanded = false
+                            }
+                        )
+                    }
+                }
+            }
+
+            Row(verticalAlignment = Alignment.CenterVertically) {
+                Checkbox(checked = availableOnly, onCheckedChange = { availableOnly = it })
+                Text("Only parts not fitted to other teams' cars", style = MaterialTheme.typography.bodyMedium)
+            }
+
+            Column {
+                Text(
+                    text = if (budget >= MAX_BUDGET) "Rating budget: no limit" else "Rating budget: ${budget.toInt()}",
+                    style = MaterialTheme.typography.labelLarge
+                )
+                Slider(
+                    value = budget,
+                    onValueChange = { budget = it },
+                    valueRange = MIN_BUDGET..MAX_BUDGET
+                )
+            }
+
+            Button(
+                onClick = {
+                    val track = selectedTrack ?: return@Button
+                    val optimizer = CarBuildOptimizer(parts, track)
+                    build = if (!availableOnly && budget >= MAX_BUDGET) {
+                        optimizer.optimize()
+                    } else {
+                        optimizer.optimize(
+                            { part -> !availableOnly || part.id !in takenPartIds },
+                            { part -> part.performance.toDouble() },
+                            if (budget >= MAX_BUDGET) Double.POSITIVE_INFINITY else budget.toDouble()
+                        )
+                    }
+                    searched = true
+                },
+                enabled = selectedTrack != null,
+                modifier = Modifier.fillMaxWidth()
+            ) {
+                Text("Find Best Build")
+            }
+
+            if (searched && build == null) {
+                Text(
+                    text = "No build fits this budget",
+                    style = MaterialTheme.typography.bodyMedium,
+                    color = MaterialTheme.colorScheme.error
+                )
+            }
+
+            build?.let { best ->
+                val currentSeconds = currentCar?.let { car ->
+                    selectedTrack?.let { PartValue.carSeconds(car, it, WeatherCondition.DRY) }
+                }
+
+                best.parts.forEach { part ->
+                    Text(
+                        text = "${part.javaClass.simpleName}: ${part.name} (${part.performance}/100)",
+                        style = MaterialTheme.typography.bodyMedium
+                    )
+                }
+                Text(
+                    text = (currentSeconds?.let { "%.1f s per dry race faster than the current car".format(best.raceSeconds - it) }
+                        ?: "No current car to compare with") + ", %d nodes searched".format(best.nodesVisited),
+                    style = MaterialTheme.typography.bodySmall,
+                    color = MaterialTheme.colorScheme.onSurfaceVariant
+                )
+                OutlinedButton(
+                    onClick = { onApply(best) },
+                    enabled = currentCar != null,
+                    modifier = Modifier.fillMaxWidth()
+                ) {
+                    Text("Fit These Parts")
+                }
+            }
+        }
+    }
+}
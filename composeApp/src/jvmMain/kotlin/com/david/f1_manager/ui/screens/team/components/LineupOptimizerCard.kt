@@ -0,0 +1,123 @@
+package com.david.f1_manager.ui.screens.team.components
+
+import androidx.compose.foundation.layout.*
+import androidx.compose.foundation.shape.RoundedCornerShape
+import androidx.compose.material3.*
+import androidx.compose.runtime.*
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.unit.dp
+import com.david.f1_manager.Driver
+import com.david.f1_manager.Team
+import com.david.f1_manager.Track
+import com.david.f1_manager.domain.LineupOptimizer
+import com.david.f1_manager.domain.LineupPlan
+import com.david.f1_manager.domain.LineupResult
+import com.david.f1_manager.domain.RaceResultCache
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Finds the two drivers from the whole pool that score the team the most points over a season
+ * on every track with LineupOptimizer, and offers to sign them
+ */
+@Composable
+fun LineupOptimizerCard(
+    playerTeam: Team?,
+    opponents: List<Team>,
+    pool: Collection<Driver>,
+    tracks: List<Track>,
+    onApply: (LineupPlan) -> Unit,
+    modifier: Modifier = Modifier
+) {
+    var result by remember { mutableStateOf<LineupResult?>(null) }
+    var running by remember { mutableStateOf(false) }
+
+    // A lineup is only valid for the drivers and teams it was searched with
+    LaunchedEffect(playerTeam, opponents, pool, tracks) {
+        result = null
+    }
+
+    Card(
+        modifier = modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surface
+        ),
+        shape = RoundedCornerShape(24.dp)
+    ) {
+        Column(
+            modifier = Modifier
+                .fillMaxWidth()
+                .padding(16.dp),
+            verticalArrangement = Arrangement.spacedBy(8.dp)
+        ) {
+            Text(
+                text = "Best Lineup for the Season",
+                style = MaterialTheme.typography.titleMedium,
+                color = MaterialTheme.colorScheme.secondary
+            )
+            Text(
+                text = "${pool.size} drivers, ${opponents.size} rival teams, ${tracks.size} tracks",
+                style = MaterialTheme.typography.bodySmall,
+                color = MaterialTheme.colorScheme.onSurfaceVariant
+            )
+
+            Button(
+                onClick = {
+                    val team = playerTeam ?: return@Button
+                    val optimizer = LineupOptimizer(team, opponents, pool, tracks, cache = RaceResultCache.shared)
+                    running = true
+                    CompletableFuture
+                        .supplyAsync { optimizer.optimize() }
+                        .whenComplete { found, error ->
+                            error?.let { println("Error: Lineup search failed: ${it.message}") }
+                            result = found
+                            running = false
+                        }
+                },
+                enabled = playerTeam != null && pool.isNotEmpty() && tracks.isNotEmpty() && !running,
+                modifier = Modifier.fillMaxWidth()
+            ) {
+                Text(if (running) "Searching..." else "Optimize Lineup")
+            }
+
+            if (running) {
+                LinearProgressIndicator(modifier = Modifier.fillMaxWidth())
+            }
+
+            result?.let { found ->
+                val best = found.best
+                best.drivers.forEach { driver ->
+                    val from = best.transfers.firstOrNull { it.first === driver }?.second
+                    Text(
+                        text = "${driver.name} (${driver.skill})" + (from?.let { " • from ${it.name}" } ?: ""),
+                        style = MaterialTheme.typography.bodyMedium
+                    )
+                }
+                best.refills.forEach { (driver, team) ->
+                    Text(
+                        text = "${team.name} signs ${driver.name} (${driver.skill})",
+                        style = MaterialTheme.typography.bodySmall,
+                        color = MaterialTheme.colorScheme.onSurfaceVariant
+                    )
+                }
+                Text(
+                    text = "Expected points: %.1f (current lineup %s), %d races simulated, %d of %d drivers shortlisted".format(
+                        best.expectedPoints,
+                        found.current?.let { "%.1f".format(it.expectedPoints) } ?: "n/a",
+                        best.simulations,
+                        found.shortlisted,
+                        found.driversConsidered
+                    ),
+                    style = MaterialTheme.typography.bodySmall,
+                    color = MaterialTheme.colorScheme.onSurfaceVariant
+                )
+                OutlinedButton(
+                    onClick = { onApply(best) },
+                    enabled = best.fillsTeam && playerTeam?.drivers?.toSet() != best.drivers.toSet(),
+                    modifier = Modifier.fillMaxWidth()
+                ) {
+                    Text(if (best.fillsTeam) "Sign These Drivers" else "Not Enough Drivers to Fill Both Seats")
+                }
+            }
+        }
+    }
+}
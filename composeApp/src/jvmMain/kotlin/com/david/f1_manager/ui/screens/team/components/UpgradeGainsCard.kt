@@ -0,0 +1,70 @@
+package com.david.f1_manager.ui.screens.team.components
+
+import androidx.compose.foundation.layout.*
+import androidx.compose.foundation.shape.RoundedCornerShape
+import androidx.compose.material3.*
+import androidx.compose.runtime.Composable
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.unit.dp
+import com.david.f1_manager.Track
+import com.david.f1_manager.car.Car
+import com.david.f1_manager.domain.UpgradeSensitivity
+
+/**
+ * Seconds per race one more performance point in each slot (or driver skill) saves on every track
+ * Worked out from the lap-time model with UpgradeSensitivity, so it follows every part swap at once
+ */
+@Composable
+fun UpgradeGainsCard(
+    car: Car?,
+    tracks: List<Track>,
+    modifier: Modifier = Modifier
+) {
+    // Cheap enough to redo on every recomposition, and the car's parts change in place
+    val gains = UpgradeSensitivity.forTracks(car, tracks)
+
+    Card(
+        modifier = modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surface
+        ),
+        shape = RoundedCornerShape(24.dp)
+    ) {
+        Column(
+            modifier = Modifier
+                .fillMaxWidth()
+                .padding(16.dp),
+            verticalArrangement = Arrangement.spacedBy(8.dp)
+        ) {
+            Text(
+                text = "Upgrade Value (seconds per dry race for +1 point)",
+                style = MaterialTheme.typography.titleMedium,
+                color = MaterialTheme.colorScheme.secondary
+            )
+
+            if (gains.isEmpty()) {
+                Text("No tracks", style = MaterialTheme.typography.bodyMedium)
+            }
+
+            gains.forEach { track ->
+                fun seconds(value: Double?) = value?.let { "%.2f".format(it) } ?: "-"
+
+                Column {
+                    Text(
+                        text = "${track.track.name} (${track.track.characteristics?.name}, ${track.track.laps} laps)" +
+                            (track.bestPart?.let { " • best: $it" } ?: ""),
+                        style = MaterialTheme.typography.labelLarge
+                    )
+                    Text(
+                        text = "Engine ${seconds(track.engine)} • Aero ${seconds(track.aerodynamics)} • " +
+                            "Tires ${seconds(track.tires)} (wear ${seconds(track.tireWear)}) • " +
+                            "Suspension ${seconds(track.suspension)} • Gearbox ${seconds(track.gearbox)} • " +
+                            "Driver ${seconds(track.driverSkill)}",
+                        style = MaterialTheme.typography.bodySmall,
+                        color = MaterialTheme.colorScheme.onSurfaceVariant
+                    )
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.david.f1_manager.domain;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * LapKernel on the JDK Vector API - several cars per SIMD instruction.
+ * Loaded reflectively through create() by LapKernel.loadVectorKernel(), so the app still runs
+ * (with the scalar kernel) when started without --add-modules jdk.incubator.vector.
+ * Kept in its own source directory (src/jvmVector) so only this file is compiled against the
+ * incubator module.
+ * Multiplies then adds in the same order as the scalar loops, so both give bit-identical results.
+ */
+public final class VectorLapKernel implements LapKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorLapKernel() {
+    }
+
+    /**
+     * True if the CPU has at least two SIMD lanes for doubles, so the kernel beats the scalar loop
+     */
+    public static boolean isSupported() {
+        return SPECIES.length() >= 2;
+    }
+
+    /**
+     * The kernel, or null if SIMD would not help on this CPU
+     */
+    public static LapKernel create() {
+        return isSupported() ? new VectorLapKernel() : null;
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+
+    @Override
+    public void lapTimes(double[] baseLapTimes, double weatherFactor, double safetyCarMultiplier,
+                         double[] lapTimes, int count) {
+        int slot = 0;
+        int bound = SPECIES.loopBound(count);
+
+        for (; slot < bound; slot += SPECIES.length()) {
+            DoubleVector base = DoubleVector.fromArray(SPECIES, baseLapTimes, slot);
+            base.mul(weatherFactor).mul(safetyCarMultiplier).intoArray(lapTimes, slot);
+        }
+
+        // Leftover cars that don't fill a whole vector
+        for (; slot < count; slot++) {
+            lapTimes[slot] = baseLapTimes[slot] * weatherFactor * safetyCarMultiplier;
+        }
+    }
+
+    @Override
+    public void addLap(double[] cumulativeTimes, double[] lapTimes, int count) {
+        int slot = 0;
+        int bound = SPECIES.loopBound(count);
+
+        for (; slot < bound; slot += SPECIES.length()) {
+            DoubleVector totals = DoubleVector.fromArray(SPECIES, cumulativeTimes, slot);
+            totals.add(DoubleVector.fromArray(SPECIES, lapTimes, slot)).intoArray(cumulativeTimes, slot);
+        }
+
+        for (; slot < count; slot++) {
+            cumulativeTimes[slot] += lapTimes[slot];
+        }
+    }
+}